@@ -0,0 +1,99 @@
+package com.zjsyinfo.gateway.benchmark;
+
+import io.netty.buffer.Unpooled;
+import io.netty.buffer.UnpooledByteBufAllocator;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.NettyDataBufferFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 基准测试用的典型请求/响应负载
+ */
+final class Payloads {
+    /** 网络层单个 chunk 的典型大小 */
+    static final int CHUNK_BYTES = 16 * 1024;
+
+    /**
+     * 与线上一致使用 Netty 的 DataBuffer（DefaultDataBuffer.getByte 每次调用都会装箱校验参数，不代表真实开销）
+     */
+    private static final NettyDataBufferFactory BUFFER_FACTORY = new NettyDataBufferFactory(UnpooledByteBufAllocator.DEFAULT);
+
+    private Payloads() {
+    }
+
+    /**
+     * 小型聊天请求（约 300 字节）
+     */
+    static byte[] smallChat() {
+        return ("{\"model\":\"Qwen3-32B\",\"stream\":true,\"temperature\":0.7,\"messages\":["
+                + "{\"role\":\"system\",\"content\":\"You are a helpful assistant.\"},"
+                + "{\"role\":\"user\",\"content\":\"请用三句话介绍一下杭州的西湖。\"}]}")
+                .getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 约 20MB 的多模态请求：base64 图片在前，model 在请求体末尾（最坏情况，需扫描全部字节）
+     */
+    static byte[] visionRequest(int imageBytes) {
+        byte[] head = ("{\"messages\":[{\"role\":\"user\",\"content\":[{\"type\":\"image_url\",\"image_url\":"
+                + "{\"url\":\"data:image/png;base64,").getBytes(StandardCharsets.UTF_8);
+        byte[] tail = ("\"}},{\"type\":\"text\",\"text\":\"描述这张图片\"}]}],\"max_tokens\":512,"
+                + "\"model\":\"Qwen2.5-VL-72B\"}").getBytes(StandardCharsets.UTF_8);
+        byte[] body = new byte[head.length + imageBytes + tail.length];
+        System.arraycopy(head, 0, body, 0, head.length);
+        byte[] alphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/".getBytes(StandardCharsets.US_ASCII);
+        for (int i = 0; i < imageBytes; i++) {
+            body[head.length + i] = alphabet[(i * 31 + (i >>> 7)) & 63];
+        }
+        System.arraycopy(tail, 0, body, head.length + imageBytes, tail.length);
+        return body;
+    }
+
+    /**
+     * vLLM 风格的 SSE 流：events 个 delta 事件，最后一个事件带 usage，随后是 [DONE]；每个事件单独一个 chunk
+     */
+    static List<byte[]> sseStream(int events) {
+        List<byte[]> chunks = new ArrayList<>(events + 2);
+        for (int i = 0; i < events; i++) {
+            chunks.add(("data: {\"id\":\"chatcmpl-9f2c\",\"object\":\"chat.completion.chunk\",\"created\":1718000000,"
+                    + "\"model\":\"Qwen3-32B\",\"choices\":[{\"index\":0,\"delta\":{\"content\":\"词" + i
+                    + "\"},\"logprobs\":null,\"finish_reason\":null}],\"usage\":null}\n\n").getBytes(StandardCharsets.UTF_8));
+        }
+        chunks.add(("data: {\"id\":\"chatcmpl-9f2c\",\"object\":\"chat.completion.chunk\",\"created\":1718000000,"
+                + "\"model\":\"Qwen3-32B\",\"choices\":[],\"usage\":{\"prompt_tokens\":35,\"total_tokens\":"
+                + (35 + events) + ",\"completion_tokens\":" + events + "}}\n\n").getBytes(StandardCharsets.UTF_8));
+        chunks.add("data: [DONE]\n\n".getBytes(StandardCharsets.UTF_8));
+        return chunks;
+    }
+
+    /**
+     * 非流式 chat.completion 响应，content 约 contentChars 个字符
+     */
+    static byte[] jsonResponse(int contentChars) {
+        char[] content = new char[contentChars];
+        Arrays.fill(content, '字');
+        return ("{\"id\":\"chatcmpl-9f2c\",\"object\":\"chat.completion\",\"created\":1718000000,\"model\":\"Qwen3-32B\","
+                + "\"choices\":[{\"index\":0,\"message\":{\"role\":\"assistant\",\"content\":\"" + new String(content)
+                + "\"},\"finish_reason\":\"stop\"}],\"usage\":{\"prompt_tokens\":35,\"total_tokens\":1059,"
+                + "\"completion_tokens\":1024}}").getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 把负载切成网络层大小的 chunk（不复制字节）
+     */
+    static List<DataBuffer> chunks(byte[] body) {
+        List<DataBuffer> chunks = new ArrayList<>(body.length / CHUNK_BYTES + 1);
+        for (int offset = 0; offset < body.length; offset += CHUNK_BYTES) {
+            chunks.add(wrap(body, offset, Math.min(CHUNK_BYTES, body.length - offset)));
+        }
+        return chunks;
+    }
+
+    static DataBuffer wrap(byte[] bytes, int offset, int length) {
+        return BUFFER_FACTORY.wrap(Unpooled.wrappedBuffer(bytes, offset, length));
+    }
+}
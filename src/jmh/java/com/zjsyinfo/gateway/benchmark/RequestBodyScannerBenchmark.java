@@ -0,0 +1,57 @@
+package com.zjsyinfo.gateway.benchmark;
+
+import com.zjsyinfo.gateway.route.RequestBodyScanner;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.io.buffer.DataBuffer;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ModelRouteFilter 路由前的请求体扫描（提取 model，可选 user 与前缀哈希）：
+ * 小型聊天请求与约 20MB、model 位于末尾的多模态请求，按 16KB chunk 喂入。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RequestBodyScannerBenchmark {
+
+    @Param({"small-chat", "vl-20mb"})
+    public String payload;
+
+    /** 是否同时提取 user 并计算 2KB 前缀哈希（开启亲和路由时） */
+    @Param({"false", "true"})
+    public boolean affinity;
+
+    private List<DataBuffer> chunks;
+
+    @Setup
+    public void setup() {
+        byte[] body = "vl-20mb".equals(payload) ? Payloads.visionRequest(20 * 1024 * 1024) : Payloads.smallChat();
+        chunks = Payloads.chunks(body);
+    }
+
+    @Benchmark
+    public String extractModel() {
+        RequestBodyScanner scanner = affinity ? new RequestBodyScanner(true, 2048) : new RequestBodyScanner();
+        for (DataBuffer chunk : chunks) {
+            if (scanner.feed(chunk)) {
+                break;
+            }
+        }
+        return scanner.getModel();
+    }
+}
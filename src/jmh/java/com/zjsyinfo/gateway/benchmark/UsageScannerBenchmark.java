@@ -0,0 +1,61 @@
+package com.zjsyinfo.gateway.benchmark;
+
+import com.zjsyinfo.gateway.usage.JsonUsageTokenizer;
+import com.zjsyinfo.gateway.usage.SseUsageScanner;
+import com.zjsyinfo.gateway.usage.TokenUsage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.io.buffer.DataBuffer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * AccessLogFilter 从响应中提取 usage 的开销：4000 个事件的 SSE 流（逐事件 chunk）与约 3KB 的非流式 JSON 响应。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UsageScannerBenchmark {
+    private List<DataBuffer> sseChunks;
+    private List<DataBuffer> jsonChunks;
+
+    @Setup
+    public void setup() {
+        sseChunks = new ArrayList<>();
+        for (byte[] event : Payloads.sseStream(4000)) {
+            sseChunks.add(Payloads.wrap(event, 0, event.length));
+        }
+        jsonChunks = Payloads.chunks(Payloads.jsonResponse(1024));
+    }
+
+    @Benchmark
+    public TokenUsage sseStream4k() {
+        SseUsageScanner scanner = new SseUsageScanner();
+        for (DataBuffer chunk : sseChunks) {
+            scanner.feed(chunk);
+        }
+        return scanner.getUsage();
+    }
+
+    @Benchmark
+    public TokenUsage jsonResponse() {
+        JsonUsageTokenizer tokenizer = new JsonUsageTokenizer();
+        for (DataBuffer chunk : jsonChunks) {
+            tokenizer.feed(chunk);
+        }
+        return tokenizer.getUsage();
+    }
+}
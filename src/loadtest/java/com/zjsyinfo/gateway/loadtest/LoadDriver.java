@@ -0,0 +1,184 @@
+package com.zjsyinfo.gateway.loadtest;
+
+import io.netty.handler.codec.http.HttpHeaderNames;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.ByteBufFlux;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+import reactor.netty.resources.LoopResources;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 闭环压测客户端：固定数量的并发请求，每个请求完成后立即发出下一个，直到测量窗口结束。
+ * 总时延与首个响应分片时延（流式为首个 SSE 事件）以微秒记录到 HdrHistogram。
+ * 使用独立的事件循环线程（名称前缀 load-driver），便于从进程 CPU 中扣除压测客户端本身的开销。
+ */
+public final class LoadDriver implements AutoCloseable {
+    static final String THREAD_PREFIX = "load-driver";
+    private static final long MAX_MICROS = TimeUnit.MINUTES.toMicros(10);
+
+    private final LoadTestOptions options;
+    private final LoopResources loops;
+    private final ConnectionProvider provider;
+    private final HttpClient client;
+
+    public LoadDriver(LoadTestOptions options) {
+        this.options = options;
+        this.loops = LoopResources.create(THREAD_PREFIX, options.driverThreads(), true);
+        this.provider = ConnectionProvider.builder(THREAD_PREFIX)
+                .maxConnections(options.concurrency() * 2)
+                .pendingAcquireMaxCount(-1)
+                .build();
+        this.client = HttpClient.create(provider).runOn(loops);
+    }
+
+    HttpClient client() {
+        return client;
+    }
+
+    /**
+     * 预热：结果丢弃
+     * @param baseUrl  目标地址（模拟 vLLM 或网关）
+     * @param apiKey   API Key，直连模拟 vLLM 时为 null
+     * @param scenario 压测场景
+     */
+    public void warmup(String baseUrl, String apiKey, LoadTestOptions.Scenario scenario) {
+        phase(target(baseUrl, apiKey), scenario.path, scenario.body(options),
+                Duration.ofSeconds(options.warmupSeconds()), new Stats());
+    }
+
+    /**
+     * 测量：返回测量窗口内的结果
+     * @param baseUrl  目标地址（模拟 vLLM 或网关）
+     * @param apiKey   API Key，直连模拟 vLLM 时为 null
+     * @param scenario 压测场景
+     */
+    public Result measure(String baseUrl, String apiKey, LoadTestOptions.Scenario scenario) {
+        Stats stats = new Stats();
+        long start = System.nanoTime();
+        phase(target(baseUrl, apiKey), scenario.path, scenario.body(options),
+                Duration.ofSeconds(options.measureSeconds()), stats);
+        return stats.result(System.nanoTime() - start);
+    }
+
+    private HttpClient target(String baseUrl, String apiKey) {
+        return client.baseUrl(baseUrl).headers(headers -> {
+            headers.set(HttpHeaderNames.CONTENT_TYPE, "application/json");
+            if (apiKey != null) {
+                headers.set(HttpHeaderNames.AUTHORIZATION, "Bearer " + apiKey);
+            }
+        });
+    }
+
+    private void phase(HttpClient target, String path, String body, Duration duration, Stats stats) {
+        long deadline = System.nanoTime() + duration.toNanos();
+        Flux.range(0, options.concurrency())
+                .flatMap(worker -> Mono.defer(() -> call(target, path, body, stats))
+                        .repeat(() -> System.nanoTime() < deadline), options.concurrency())
+                .blockLast();
+    }
+
+    private Mono<Void> call(HttpClient target, String path, String body, Stats stats) {
+        long start = System.nanoTime();
+        AtomicLong firstChunk = new AtomicLong();
+        return target.post()
+                .uri(path)
+                .send(ByteBufFlux.fromString(Mono.just(body)))
+                .response((response, content) -> content
+                        .doOnNext(chunk -> firstChunk.compareAndSet(0, System.nanoTime()))
+                        .then(Mono.just(response.status().code())))
+                .single()
+                .doOnNext(status -> stats.record(status, start, firstChunk.get(), System.nanoTime()))
+                .onErrorResume(e -> {
+                    stats.errors.incrementAndGet();
+                    return Mono.empty();
+                })
+                .then();
+    }
+
+    @Override
+    public void close() {
+        provider.disposeLater().block(Duration.ofSeconds(5));
+        loops.disposeLater().block(Duration.ofSeconds(5));
+    }
+
+    /**
+     * 单阶段统计：并发写入使用 Recorder，结束时取快照
+     */
+    private static final class Stats {
+        private final Recorder latency = new Recorder(1, MAX_MICROS, 3);
+        private final Recorder firstChunk = new Recorder(1, MAX_MICROS, 3);
+        private final AtomicLong requests = new AtomicLong();
+        private final AtomicLong errors = new AtomicLong();
+
+        void record(int status, long start, long firstChunkAt, long end) {
+            if (status != 200) {
+                errors.incrementAndGet();
+                return;
+            }
+            requests.incrementAndGet();
+            latency.recordValue(micros(end - start));
+            firstChunk.recordValue(micros((firstChunkAt > 0 ? firstChunkAt : end) - start));
+        }
+
+        private static long micros(long nanos) {
+            return Math.min(MAX_MICROS, Math.max(1, TimeUnit.NANOSECONDS.toMicros(nanos)));
+        }
+
+        Result result(long elapsedNanos) {
+            return new Result(requests.get(), errors.get(), elapsedNanos, latency.getIntervalHistogram(),
+                    firstChunk.getIntervalHistogram());
+        }
+    }
+
+    /**
+     * 测量结果
+     * @param requests     成功请求数
+     * @param errors       失败请求数（非 200 或连接异常）
+     * @param elapsedNanos 测量窗口实际时长
+     * @param latency      总时延（微秒）
+     * @param firstChunk   首个响应分片时延（微秒）
+     */
+    public record Result(long requests, long errors, long elapsedNanos, Histogram latency, Histogram firstChunk) {
+
+        double throughput() {
+            return requests * 1e9 / elapsedNanos;
+        }
+
+        Map<String, Object> toMap() {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("requests", requests);
+            map.put("errors", errors);
+            map.put("throughput_rps", round(throughput()));
+            map.put("latency_ms", percentiles(latency));
+            map.put("first_chunk_ms", percentiles(firstChunk));
+            return map;
+        }
+
+        static Map<String, Object> percentiles(Histogram histogram) {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("p50", millis(histogram.getValueAtPercentile(50)));
+            map.put("p99", millis(histogram.getValueAtPercentile(99)));
+            map.put("p999", millis(histogram.getValueAtPercentile(99.9)));
+            map.put("max", millis(histogram.getMaxValue()));
+            map.put("mean", round(histogram.getMean() / 1000.0));
+            return map;
+        }
+
+        static double millis(long micros) {
+            return round(micros / 1000.0);
+        }
+
+        static double round(double value) {
+            return Math.round(value * 1000) / 1000.0;
+        }
+    }
+}
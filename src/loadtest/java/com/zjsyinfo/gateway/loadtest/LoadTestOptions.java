@@ -0,0 +1,95 @@
+package com.zjsyinfo.gateway.loadtest;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 压测参数，命令行以 key=value 形式传入（如 concurrency=256 measure-seconds=60），未指定时使用默认值。
+ * @param concurrency      闭环并发数（同时在途的请求数）
+ * @param warmupSeconds    每个场景的预热时长（秒），不计入结果
+ * @param measureSeconds   每个场景的测量时长（秒）
+ * @param ttftMillis       模拟 vLLM 的首 token 时延（毫秒）
+ * @param tokensPerSecond  模拟 vLLM 的单请求输出速率（token/秒）
+ * @param completionTokens 每次响应的输出 token 数
+ * @param promptTokens     usage 中返回的输入 token 数
+ * @param model            模型名
+ * @param scenarios        需要运行的场景
+ * @param mockThreads      模拟 vLLM 事件循环线程数
+ * @param driverThreads    压测客户端事件循环线程数
+ * @param output           结果文件路径
+ */
+public record LoadTestOptions(int concurrency, int warmupSeconds, int measureSeconds, long ttftMillis,
+                              double tokensPerSecond, int completionTokens, int promptTokens, String model,
+                              List<String> scenarios, int mockThreads, int driverThreads, String output) {
+
+    static LoadTestOptions parse(String[] args) {
+        Map<String, String> values = new LinkedHashMap<>();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (eq <= 0) {
+                throw new IllegalArgumentException("参数格式应为 key=value: " + arg);
+            }
+            values.put(arg.substring(0, eq).trim(), arg.substring(eq + 1).trim());
+        }
+        LoadTestOptions options = new LoadTestOptions(
+                Integer.parseInt(values.getOrDefault("concurrency", "128")),
+                Integer.parseInt(values.getOrDefault("warmup-seconds", "5")),
+                Integer.parseInt(values.getOrDefault("measure-seconds", "20")),
+                Long.parseLong(values.getOrDefault("ttft-ms", "20")),
+                Double.parseDouble(values.getOrDefault("tokens-per-second", "1000")),
+                Integer.parseInt(values.getOrDefault("completion-tokens", "64")),
+                Integer.parseInt(values.getOrDefault("prompt-tokens", "128")),
+                values.getOrDefault("model", "loadtest"),
+                Arrays.asList(values.getOrDefault("scenarios", "chat-stream,chat,completions-stream,completions").split(",")),
+                Integer.parseInt(values.getOrDefault("mock-threads", "2")),
+                Integer.parseInt(values.getOrDefault("driver-threads", "2")),
+                values.getOrDefault("output", "target/loadtest-result.json"));
+        for (String scenario : options.scenarios()) {
+            Scenario.of(scenario);
+        }
+        return options;
+    }
+
+    /**
+     * 压测场景：接口路径与是否流式
+     */
+    public enum Scenario {
+        CHAT_STREAM("chat-stream", "/v1/chat/completions", true),
+        CHAT("chat", "/v1/chat/completions", false),
+        COMPLETIONS_STREAM("completions-stream", "/v1/completions", true),
+        COMPLETIONS("completions", "/v1/completions", false);
+
+        final String id;
+        final String path;
+        final boolean stream;
+
+        Scenario(String id, String path, boolean stream) {
+            this.id = id;
+            this.path = path;
+            this.stream = stream;
+        }
+
+        static Scenario of(String id) {
+            for (Scenario scenario : values()) {
+                if (scenario.id.equals(id.trim())) {
+                    return scenario;
+                }
+            }
+            throw new IllegalArgumentException("未知压测场景: " + id);
+        }
+
+        /**
+         * 请求体：与真实调用相近的小请求
+         */
+        String body(LoadTestOptions options) {
+            String head = "{\"model\":\"" + options.model() + "\",\"max_tokens\":" + options.completionTokens()
+                    + ",\"stream\":" + stream + ",\"temperature\":0.7,";
+            return path.endsWith("chat/completions")
+                    ? head + "\"messages\":[{\"role\":\"system\",\"content\":\"You are a helpful assistant.\"},"
+                    + "{\"role\":\"user\",\"content\":\"Summarize the following paragraph in one sentence.\"}]}"
+                    : head + "\"prompt\":\"Summarize the following paragraph in one sentence.\"}";
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package com.zjsyinfo.gateway.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.zjsyinfo.gateway.VllmGatewayApplication;
+import de.flapdoodle.embed.mongo.commands.ServerAddress;
+import de.flapdoodle.embed.mongo.distribution.Version;
+import de.flapdoodle.embed.mongo.transitions.Mongod;
+import de.flapdoodle.embed.mongo.transitions.RunningMongodProcess;
+import de.flapdoodle.reverse.TransitionWalker;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import reactor.core.publisher.Mono;
+import reactor.netty.ByteBufFlux;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.InputStreamReader;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 端到端压测入口：启动内嵌 MongoDB、模拟 vLLM 与完整网关（同一 JVM），对每个场景先直连模拟 vLLM 测得基线，
+ * 再经网关测量，以两者分位数之差作为网关引入的时延，并统计吞吐与网关每请求 CPU 时间。
+ * 结果写入 JSON（默认 target/loadtest-result.json），附带 git 提交号，便于跨提交对比。
+ * 运行：mvn -Ploadtest verify -Dloadtest.args="concurrency=256 measure-seconds=60"
+ */
+public final class LoadTestRunner {
+    private static final ObjectMapper MAPPER = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+        MockVllmServer mock = new MockVllmServer(options);
+        try (TransitionWalker.ReachedState<RunningMongodProcess> mongod = Mongod.instance().start(Version.Main.V7_0);
+             LoadDriver driver = new LoadDriver(options)) {
+            ServerAddress mongo = mongod.current().getServerAddress();
+            String mockUrl = "http://127.0.0.1:" + mock.start();
+            try (ConfigurableApplicationContext context = startGateway(options, mongo, mockUrl)) {
+                int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+                String gatewayUrl = "http://127.0.0.1:" + port;
+                String apiKey = createApp(driver, gatewayUrl);
+
+                List<Map<String, Object>> scenarios = new ArrayList<>();
+                for (String id : options.scenarios()) {
+                    LoadTestOptions.Scenario scenario = LoadTestOptions.Scenario.of(id);
+                    System.out.printf("[loadtest] %s: 直连模拟 vLLM 基线%n", scenario.id);
+                    driver.warmup(mockUrl, null, scenario);
+                    LoadDriver.Result baseline = driver.measure(mockUrl, null, scenario);
+                    System.out.printf("[loadtest] %s: 经网关%n", scenario.id);
+                    driver.warmup(gatewayUrl, apiKey, scenario);
+                    CpuSnapshot before = CpuSnapshot.take();
+                    LoadDriver.Result gateway = driver.measure(gatewayUrl, apiKey, scenario);
+                    CpuSnapshot after = CpuSnapshot.take();
+                    scenarios.add(report(scenario, baseline, gateway, after.gatewayNanosSince(before)));
+                }
+                writeResult(options, scenarios);
+            }
+        } finally {
+            mock.stop();
+        }
+        System.exit(0);
+    }
+
+    /**
+     * 以 loadtest profile 启动网关：随机端口、内嵌 MongoDB，模型池指向模拟 vLLM
+     */
+    private static ConfigurableApplicationContext startGateway(LoadTestOptions options, ServerAddress mongo,
+                                                               String mockUrl) {
+        // 以命令行参数传入，优先级高于 application.yml 中的同名配置
+        return new SpringApplicationBuilder(VllmGatewayApplication.class)
+                .run("--spring.profiles.active=loadtest",
+                        "--server.port=0",
+                        "--mongo-plus.data.mongodb.host=" + mongo.getHost(),
+                        "--mongo-plus.data.mongodb.port=" + mongo.getPort(),
+                        "--vllm.model-pools." + options.model() + "[0].url=" + mockUrl);
+    }
+
+    /**
+     * 通过管理接口创建压测应用，返回其 API Key
+     */
+    private static String createApp(LoadDriver driver, String gatewayUrl) throws Exception {
+        String body = driver.client()
+                .headers(headers -> headers.set(HttpHeaderNames.CONTENT_TYPE, "application/json"))
+                .post()
+                .uri(gatewayUrl + "/api/apps")
+                .send(ByteBufFlux.fromString(Mono.just("{\"orgName\":\"loadtest\",\"remark\":\"压测应用\"}")))
+                .responseSingle((response, content) -> content.asString())
+                .block();
+        JsonNode apiKey = MAPPER.readTree(body).path("data").path("apiKey");
+        if (apiKey.isMissingNode() || apiKey.isNull()) {
+            throw new IllegalStateException("创建压测应用失败: " + body);
+        }
+        return apiKey.asText();
+    }
+
+    /**
+     * 单场景报告：基线、经网关的结果，网关引入的时延（分位数差值）与每请求 CPU 时间
+     */
+    private static Map<String, Object> report(LoadTestOptions.Scenario scenario, LoadDriver.Result baseline,
+                                              LoadDriver.Result gateway, long gatewayCpuNanos) {
+        Map<String, Object> added = new LinkedHashMap<>();
+        added.put("latency_ms", delta(gateway.latency(), baseline.latency()));
+        added.put("first_chunk_ms", delta(gateway.firstChunk(), baseline.firstChunk()));
+
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("scenario", scenario.id);
+        map.put("stream", scenario.stream);
+        map.put("baseline", baseline.toMap());
+        map.put("gateway", gateway.toMap());
+        map.put("added", added);
+        map.put("gateway_cpu_us_per_request", gateway.requests() > 0
+                ? LoadDriver.Result.round(gatewayCpuNanos / 1000.0 / gateway.requests()) : null);
+        System.out.printf("[loadtest] %s: %.0f rps, 网关引入 p50 %.3f ms / p99 %.3f ms / p999 %.3f ms, CPU %s us/req%n",
+                scenario.id, gateway.throughput(),
+                added(gateway.latency(), baseline.latency(), 50), added(gateway.latency(), baseline.latency(), 99),
+                added(gateway.latency(), baseline.latency(), 99.9), map.get("gateway_cpu_us_per_request"));
+        return map;
+    }
+
+    private static Map<String, Object> delta(Histogram gateway, Histogram baseline) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("p50", added(gateway, baseline, 50));
+        map.put("p99", added(gateway, baseline, 99));
+        map.put("p999", added(gateway, baseline, 99.9));
+        return map;
+    }
+
+    private static double added(Histogram gateway, Histogram baseline, double percentile) {
+        return LoadDriver.Result.millis(gateway.getValueAtPercentile(percentile) - baseline.getValueAtPercentile(percentile));
+    }
+
+    private static void writeResult(LoadTestOptions options, List<Map<String, Object>> scenarios) throws Exception {
+        Map<String, Object> meta = new LinkedHashMap<>();
+        meta.put("commit", gitCommit());
+        meta.put("timestamp", Instant.now().toString());
+        meta.put("java", System.getProperty("java.vm.name") + " " + System.getProperty("java.version"));
+        meta.put("os", System.getProperty("os.name") + " " + System.getProperty("os.arch"));
+        meta.put("cpus", Runtime.getRuntime().availableProcessors());
+        meta.put("options", options);
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("meta", meta);
+        result.put("scenarios", scenarios);
+        File output = new File(options.output());
+        if (output.getParentFile() != null) {
+            output.getParentFile().mkdirs();
+        }
+        MAPPER.writeValue(output, result);
+        System.out.println("[loadtest] 结果已写入 " + output.getAbsolutePath());
+    }
+
+    private static String gitCommit() {
+        try {
+            Process process = new ProcessBuilder("git", "rev-parse", "HEAD").redirectErrorStream(true).start();
+            try (BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+                String line = reader.readLine();
+                return process.waitFor() == 0 ? line : null;
+            }
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    /**
+     * 进程 CPU 时间快照：网关 CPU = 进程 CPU - 模拟 vLLM 与压测客户端线程的 CPU。
+     * GC 与 JIT 线程计入网关（模拟 vLLM 与压测客户端的分配量远小于网关）。
+     */
+    private record CpuSnapshot(long processNanos, long excludedNanos) {
+
+        static CpuSnapshot take() {
+            com.sun.management.OperatingSystemMXBean os =
+                    (com.sun.management.OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean();
+            ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+            long excluded = 0;
+            for (ThreadInfo info : threads.getThreadInfo(threads.getAllThreadIds())) {
+                if (info != null && (info.getThreadName().startsWith(MockVllmServer.THREAD_PREFIX)
+                        || info.getThreadName().startsWith(LoadDriver.THREAD_PREFIX))) {
+                    excluded += Math.max(0, threads.getThreadCpuTime(info.getThreadId()));
+                }
+            }
+            return new CpuSnapshot(os.getProcessCpuTime(), excluded);
+        }
+
+        long gatewayNanosSince(CpuSnapshot before) {
+            return (processNanos - before.processNanos) - (excludedNanos - before.excludedNanos);
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.zjsyinfo.gateway.loadtest;
+
+import io.netty.handler.codec.http.HttpHeaderNames;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.http.server.HttpServerRequest;
+import reactor.netty.http.server.HttpServerResponse;
+import reactor.netty.resources.LoopResources;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.regex.Pattern;
+
+/**
+ * 模拟 vLLM 服务：基于 Reactor Netty，提供 /v1/chat/completions、/v1/completions（流式与非流式）、
+ * /v1/models、/health 与空的 /metrics。首 token 时延、输出速率、输出与输入 token 数可配置，响应中带 usage。
+ * 使用独立的事件循环与定时线程（名称前缀 mock-vllm），便于从进程 CPU 中扣除模拟服务本身的开销。
+ */
+public final class MockVllmServer {
+    static final String THREAD_PREFIX = "mock-vllm";
+    private static final Pattern STREAM = Pattern.compile("\"stream\"\\s*:\\s*true");
+
+    private final LoadTestOptions options;
+    private LoopResources loops;
+    private Scheduler timer;
+    private DisposableServer server;
+
+    public MockVllmServer(LoadTestOptions options) {
+        this.options = options;
+    }
+
+    /**
+     * 在随机端口启动
+     * @return 实际端口
+     */
+    public int start() {
+        loops = LoopResources.create(THREAD_PREFIX, options.mockThreads(), true);
+        timer = Schedulers.newParallel(THREAD_PREFIX + "-timer", options.mockThreads(), true);
+        server = HttpServer.create()
+                .host("127.0.0.1")
+                .port(0)
+                .runOn(loops)
+                .route(routes -> routes
+                        .post("/v1/chat/completions", (request, response) -> complete(request, response, true))
+                        .post("/v1/completions", (request, response) -> complete(request, response, false))
+                        .get("/v1/models", (request, response) -> response
+                                .header(HttpHeaderNames.CONTENT_TYPE, "application/json")
+                                .sendString(Mono.just("{\"object\":\"list\",\"data\":[{\"id\":\"" + options.model()
+                                        + "\",\"object\":\"model\",\"owned_by\":\"vllm\"}]}")))
+                        .get("/health", (request, response) -> response.status(200).send())
+                        .get("/metrics", (request, response) -> response.sendString(Mono.just(""))))
+                .bindNow();
+        return server.port();
+    }
+
+    public void stop() {
+        if (server != null) {
+            server.disposeNow();
+        }
+        if (loops != null) {
+            loops.dispose();
+        }
+        if (timer != null) {
+            timer.dispose();
+        }
+    }
+
+    private Publisher<Void> complete(HttpServerRequest request, HttpServerResponse response, boolean chat) {
+        return request.receive().aggregate().asString().defaultIfEmpty("")
+                .flatMap(body -> STREAM.matcher(body).find()
+                        ? response.header(HttpHeaderNames.CONTENT_TYPE, "text/event-stream")
+                                .sendString(stream(chat), StandardCharsets.UTF_8).then()
+                        : response.header(HttpHeaderNames.CONTENT_TYPE, "application/json")
+                                .sendString(single(chat)).then());
+    }
+
+    /**
+     * 流式响应：首 token 时延后按输出速率逐个发送 delta 事件，最后发送 usage 事件与 [DONE]
+     */
+    private Flux<String> stream(boolean chat) {
+        int tokens = options.completionTokens();
+        Flux<String> deltas = Flux.interval(Duration.ofMillis(options.ttftMillis()), tokenInterval(), timer)
+                .take(tokens)
+                .map(i -> "data: {\"id\":\"cmpl-mock\",\"object\":\"" + (chat ? "chat.completion.chunk" : "text_completion")
+                        + "\",\"created\":1718000000,\"model\":\"" + options.model() + "\",\"choices\":[{\"index\":0,"
+                        + (chat ? "\"delta\":{\"content\":\"tok\"}" : "\"text\":\"tok\"")
+                        + ",\"finish_reason\":" + (i == tokens - 1 ? "\"length\"" : "null") + "}]}\n\n");
+        return deltas.concatWith(Flux.just(
+                "data: {\"id\":\"cmpl-mock\",\"object\":\"" + (chat ? "chat.completion.chunk" : "text_completion")
+                        + "\",\"created\":1718000000,\"model\":\"" + options.model() + "\",\"choices\":[],\"usage\":"
+                        + usage() + "}\n\n",
+                "data: [DONE]\n\n"));
+    }
+
+    /**
+     * 非流式响应：等待首 token 时延与全部输出时间后一次性返回
+     */
+    private Mono<String> single(boolean chat) {
+        String text = "tok".repeat(options.completionTokens());
+        Duration delay = Duration.ofMillis(options.ttftMillis()).plus(tokenInterval().multipliedBy(options.completionTokens()));
+        return Mono.delay(delay, timer).map(i -> "{\"id\":\"cmpl-mock\",\"object\":\"" + (chat ? "chat.completion" : "text_completion")
+                + "\",\"created\":1718000000,\"model\":\"" + options.model() + "\",\"choices\":[{\"index\":0,"
+                + (chat ? "\"message\":{\"role\":\"assistant\",\"content\":\"" + text + "\"}" : "\"text\":\"" + text + "\"")
+                + ",\"finish_reason\":\"length\"}],\"usage\":" + usage() + "}");
+    }
+
+    private Duration tokenInterval() {
+        return Duration.ofNanos((long) (1_000_000_000L / options.tokensPerSecond()));
+    }
+
+    private String usage() {
+        return "{\"prompt_tokens\":" + options.promptTokens() + ",\"total_tokens\":"
+                + (options.promptTokens() + options.completionTokens()) + ",\"completion_tokens\":"
+                + options.completionTokens() + "}";
+    }
+}
@@ -4,9 +4,11 @@ import com.mongoplus.annotation.MongoMapperScan;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
 @EnableConfigurationProperties // 启用配置绑定
+@EnableScheduling // 启用定时任务（注册表刷新等）
 @MongoMapperScan("com.zjsyinfo.gateway.mongo.mapper")
 public class VllmGatewayApplication {
 
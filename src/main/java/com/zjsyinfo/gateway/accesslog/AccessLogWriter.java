@@ -0,0 +1,336 @@
+package com.zjsyinfo.gateway.accesslog;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zjsyinfo.gateway.config.AccessLogConfig;
+import com.zjsyinfo.gateway.config.SchedulingConfig;
+import com.zjsyinfo.gateway.mongo.entity.GatewayLog;
+import com.zjsyinfo.gateway.mongo.service.GatewayLogService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 访问日志异步批量写入器：请求线程只负责入队，由后台线程按条数或时间批量写入 gateway_logs。
+ * 队列有界，溢出时按 {@link AccessLogConfig.OverflowPolicy} 处理。
+ * 日志在入队时预先分配 _id；队列溢出（SPILL 策略）或批量写入失败的日志写入本地溢写日志 {@link SpillJournal}，
+ * MongoDB 恢复后按 _id saveOrUpdate 回放，重复回放也不会产生重复记录。
+ * 溢写（序列化、追加与段滚动）只在后台线程进行：队列溢出的日志先进入有界的溢写队列，由 access-log-journal 线程写入。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AccessLogWriter {
+    private final GatewayLogService gatewayLogService;
+    private final AccessLogConfig accessLogConfig;
+    private final ObjectMapper objectMapper;
+
+    private BlockingQueue<GatewayLog> queue;
+    /** 队列溢出（SPILL 策略）后待写入溢写日志的日志 */
+    private BlockingQueue<GatewayLog> spillQueue;
+    private Thread flushThread;
+    private Thread journalThread;
+    private volatile boolean running;
+    private SpillJournal journal;
+
+    private final LongAdder queued = new LongAdder();
+    private final LongAdder flushed = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder sampledOut = new LongAdder();
+    private final LongAdder flushFailures = new LongAdder();
+    private final LongAdder spilled = new LongAdder();
+    private final LongAdder replayed = new LongAdder();
+    private final AtomicLong sampleCounter = new AtomicLong();
+    private final AtomicLong flushCount = new AtomicLong();
+    private final AtomicLong flushNanosTotal = new AtomicLong();
+    private final AtomicLong maxFlushNanos = new AtomicLong();
+    private volatile long lastFlushNanos;
+
+    /**
+     * 初始化队列与溢写日志，并启动后台刷新线程
+     */
+    @PostConstruct
+    public void start() {
+        AccessLogConfig.Journal journalConfig = accessLogConfig.getJournal();
+        if (journalConfig.isEnabled()) {
+            try {
+                journal = new SpillJournal(Paths.get(journalConfig.getDir()), journalConfig.getSegmentBytes());
+            } catch (IOException e) {
+                log.error("打开访问日志溢写目录失败，写入失败的日志将被丢弃: dir={}", journalConfig.getDir(), e);
+            }
+        }
+        queue = new ArrayBlockingQueue<>(accessLogConfig.getQueueCapacity());
+        running = true;
+        flushThread = new Thread(this::runFlushLoop, "access-log-writer");
+        flushThread.setDaemon(true);
+        flushThread.start();
+        if (journal != null) {
+            spillQueue = new ArrayBlockingQueue<>(accessLogConfig.getQueueCapacity());
+            journalThread = new Thread(this::runSpillLoop, "access-log-journal");
+            journalThread.setDaemon(true);
+            journalThread.start();
+        }
+    }
+
+    /**
+     * 停止后台线程，写入队列中剩余的日志并关闭溢写日志
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException, IOException {
+        running = false;
+        flushThread.interrupt();
+        flushThread.join(TimeUnit.SECONDS.toMillis(10));
+        if (journalThread != null) {
+            journalThread.interrupt();
+            journalThread.join(TimeUnit.SECONDS.toMillis(10));
+        }
+        if (journal != null) {
+            journal.close();
+        }
+    }
+
+    /**
+     * 提交一条访问日志（非阻塞，BLOCK 策略除外）。
+     * @param logDoc 日志文档
+     */
+    public void submit(GatewayLog logDoc) {
+        // 预先分配主键，写入失败后回放时按主键覆盖，避免重复
+        if (logDoc.getId() == null) {
+            logDoc.setId(ObjectId.get().toHexString());
+        }
+        boolean accepted;
+        switch (accessLogConfig.getOverflowPolicy()) {
+            case BLOCK -> {
+                try {
+                    accepted = queue.offer(logDoc, accessLogConfig.getBlockTimeoutMs(), TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    accepted = false;
+                }
+            }
+            case SAMPLE -> {
+                int capacity = accessLogConfig.getQueueCapacity();
+                if (queue.size() >= capacity * accessLogConfig.getSampleWatermark()
+                        && sampleCounter.incrementAndGet() % accessLogConfig.getSampleRate() != 0) {
+                    sampledOut.increment();
+                    return;
+                }
+                accepted = queue.offer(logDoc);
+            }
+            case SPILL -> {
+                if (queue.offer(logDoc)) {
+                    accepted = true;
+                } else {
+                    // 只入溢写队列，由后台线程落盘，不在请求线程上序列化或写文件
+                    if (spillQueue == null || !spillQueue.offer(logDoc)) {
+                        dropped.increment();
+                    }
+                    return;
+                }
+            }
+            default -> accepted = queue.offer(logDoc);
+        }
+        if (accepted) {
+            queued.increment();
+        } else {
+            dropped.increment();
+        }
+    }
+
+    /**
+     * 后台刷新循环：攒满 batchSize 或到达 flushInterval 时批量写入。
+     */
+    private void runFlushLoop() {
+        int batchSize = accessLogConfig.getBatchSize();
+        long intervalNanos = TimeUnit.MILLISECONDS.toNanos(accessLogConfig.getFlushIntervalMs());
+        List<GatewayLog> batch = new ArrayList<>(batchSize);
+        long deadline = System.nanoTime() + intervalNanos;
+        while (running || !queue.isEmpty()) {
+            try {
+                long waitNanos = deadline - System.nanoTime();
+                GatewayLog first = waitNanos > 0 && running ? queue.poll(waitNanos, TimeUnit.NANOSECONDS) : queue.poll();
+                if (first != null) {
+                    batch.add(first);
+                    queue.drainTo(batch, batchSize - batch.size());
+                }
+            } catch (InterruptedException e) {
+                // 停止信号，继续循环以写完剩余日志
+            }
+            if (batch.size() >= batchSize || System.nanoTime() - deadline >= 0 || !running) {
+                if (!batch.isEmpty()) {
+                    flush(batch);
+                    batch = new ArrayList<>(batchSize);
+                }
+                deadline = System.nanoTime() + intervalNanos;
+            }
+        }
+    }
+
+    /**
+     * 溢写循环：取出溢写队列中的日志写入溢写日志，停止时写完剩余日志
+     */
+    private void runSpillLoop() {
+        List<GatewayLog> batch = new ArrayList<>();
+        while (running || !spillQueue.isEmpty()) {
+            try {
+                GatewayLog first = running ? spillQueue.take() : spillQueue.poll();
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                spillQueue.drainTo(batch);
+            } catch (InterruptedException e) {
+                // 停止信号，继续循环以写完剩余日志
+                continue;
+            }
+            if (!spill(batch)) {
+                dropped.add(batch.size());
+            }
+            batch.clear();
+        }
+    }
+
+    /**
+     * 批量写入一批日志，失败时写入溢写日志，溢写也失败时计入丢弃。
+     */
+    private void flush(List<GatewayLog> batch) {
+        long begin = System.nanoTime();
+        try {
+            gatewayLogService.saveBatch(batch);
+            flushed.add(batch.size());
+        } catch (Exception e) {
+            flushFailures.increment();
+            log.error("批量写入访问日志失败: size={}", batch.size(), e);
+            if (!spill(batch)) {
+                dropped.add(batch.size());
+            }
+        } finally {
+            long cost = System.nanoTime() - begin;
+            flushCount.incrementAndGet();
+            flushNanosTotal.addAndGet(cost);
+            maxFlushNanos.accumulateAndGet(cost, Math::max);
+            lastFlushNanos = cost;
+        }
+    }
+
+    /**
+     * 写入溢写日志（只做内存拷贝，不等待磁盘）
+     * @return 是否全部写入
+     */
+    private boolean spill(List<GatewayLog> logs) {
+        if (journal == null) {
+            return false;
+        }
+        try {
+            for (GatewayLog logDoc : logs) {
+                if (!journal.append(objectMapper.writeValueAsBytes(logDoc))) {
+                    log.warn("访问日志超过溢写段大小，丢弃: id={}", logDoc.getId());
+                    return false;
+                }
+            }
+            spilled.add(logs.size());
+            return true;
+        } catch (IOException e) {
+            log.error("写入访问日志溢写段失败: size={}", logs.size(), e);
+            return false;
+        }
+    }
+
+    /**
+     * 定时刷盘溢写日志并逐段回放，不依赖新的访问流量判断 MongoDB 是否恢复：
+     * 每轮从最早的段开始 saveOrUpdate，首次失败即结束本轮，该段留待下次从开头重新回放；
+     * 已封存的段全部回放完成后才封存当前段，MongoDB 不可用期间不会每轮产生新段
+     */
+    @Scheduled(fixedDelayString = "${vllm.access-log.journal.replay-interval-ms:5000}",
+            scheduler = SchedulingConfig.MAINTENANCE_SCHEDULER)
+    public void replayJournal() {
+        if (journal == null) {
+            return;
+        }
+        journal.force();
+        try {
+            for (Path segment : journal.sealedSegments()) {
+                replay(segment);
+            }
+            journal.seal();
+            for (Path segment : journal.sealedSegments()) {
+                replay(segment);
+            }
+        } catch (Exception e) {
+            log.warn("回放访问日志溢写段失败，稍后重试", e);
+        }
+    }
+
+    private void replay(Path segment) throws IOException {
+        int batchSize = accessLogConfig.getJournal().getReplayBatchSize();
+        List<GatewayLog> batch = new ArrayList<>(batchSize);
+        long count = 0;
+        for (byte[] record : journal.read(segment)) {
+            try {
+                batch.add(objectMapper.readValue(record, GatewayLog.class));
+            } catch (IOException e) {
+                log.warn("解析访问日志溢写记录失败，跳过: segment={}", segment, e);
+                continue;
+            }
+            if (batch.size() >= batchSize) {
+                gatewayLogService.saveOrUpdateBatch(batch);
+                count += batch.size();
+                batch = new ArrayList<>(batchSize);
+            }
+        }
+        if (!batch.isEmpty()) {
+            gatewayLogService.saveOrUpdateBatch(batch);
+            count += batch.size();
+        }
+        journal.delete(segment);
+        replayed.add(count);
+        log.info("访问日志溢写段回放完成: segment={}, count={}", segment, count);
+    }
+
+    /**
+     * 获取写入器运行计数
+     */
+    public Stats getStats() {
+        long count = flushCount.get();
+        return new Stats(queue.size(), queued.sum(), flushed.sum(), dropped.sum(), sampledOut.sum(),
+                flushFailures.sum(), spilled.sum(), replayed.sum(), journal != null ? journal.pendingBytes() : 0, count,
+                count == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(flushNanosTotal.get() / count),
+                TimeUnit.NANOSECONDS.toMillis(maxFlushNanos.get()),
+                TimeUnit.NANOSECONDS.toMillis(lastFlushNanos));
+    }
+
+    /**
+     * 写入器计数快照
+     * @param queueSize       当前队列长度
+     * @param queued          累计入队条数
+     * @param flushed         累计写入成功条数
+     * @param dropped         累计丢弃条数（队列满或写入失败且未能溢写）
+     * @param sampledOut      累计被采样丢弃条数
+     * @param flushFailures   累计写入失败批次数
+     * @param spilled         累计写入溢写日志条数
+     * @param replayed        累计从溢写日志回放条数
+     * @param journalBytes    溢写日志待回放字节数（按段大小估算）
+     * @param flushCount      累计写入批次数
+     * @param avgFlushMillis  平均单批写入耗时（毫秒）
+     * @param maxFlushMillis  最大单批写入耗时（毫秒）
+     * @param lastFlushMillis 最近一批写入耗时（毫秒）
+     */
+    public record Stats(int queueSize, long queued, long flushed, long dropped, long sampledOut,
+                        long flushFailures, long spilled, long replayed, long journalBytes, long flushCount, long avgFlushMillis, long maxFlushMillis,
+                        long lastFlushMillis) {
+    }
+}
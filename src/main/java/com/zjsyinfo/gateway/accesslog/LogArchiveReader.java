@@ -0,0 +1,118 @@
+package com.zjsyinfo.gateway.accesslog;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zjsyinfo.gateway.config.LogRetentionConfig;
+import com.zjsyinfo.gateway.mongo.entity.GatewayLog;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * 访问日志归档读取：列出已归档的日期，按天逐行解压扫描分片文件，不回灌 MongoDB。
+ */
+@Component
+@RequiredArgsConstructor
+public class LogArchiveReader {
+    private final LogRetentionConfig logRetentionConfig;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * 列出已归档的日期及其分片数、压缩后大小
+     */
+    public List<ArchiveDay> listDays() throws IOException {
+        Path root = Paths.get(logRetentionConfig.getArchiveDir());
+        List<ArchiveDay> days = new ArrayList<>();
+        if (!Files.isDirectory(root)) {
+            return days;
+        }
+        try (Stream<Path> dirs = Files.list(root)) {
+            for (Path dir : dirs.filter(Files::isDirectory).sorted().toList()) {
+                LocalDate day;
+                try {
+                    day = LocalDate.parse(dir.getFileName().toString());
+                } catch (RuntimeException e) {
+                    continue;
+                }
+                List<Path> parts = parts(dir);
+                long bytes = 0;
+                for (Path part : parts) {
+                    bytes += Files.size(part);
+                }
+                days.add(new ArchiveDay(day, parts.size(), bytes));
+            }
+        }
+        return days;
+    }
+
+    /**
+     * 扫描某天的归档日志，逐行解压解析，按条件过滤
+     * @param day    日期
+     * @param filter 过滤条件
+     * @return 日志流（在 boundedElastic 线程上读取文件）
+     */
+    public Flux<GatewayLog> scan(LocalDate day, Predicate<GatewayLog> filter) {
+        Path dir = Paths.get(logRetentionConfig.getArchiveDir()).resolve(day.toString());
+        return Mono.fromCallable(() -> Files.isDirectory(dir) ? parts(dir) : List.<Path>of())
+                .flatMapIterable(parts -> parts)
+                .concatMap(this::readPart)
+                .filter(filter)
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    private Flux<GatewayLog> readPart(Path part) {
+        return Flux.using(
+                () -> new BufferedReader(new InputStreamReader(
+                        new GZIPInputStream(Files.newInputStream(part), 1 << 16), StandardCharsets.UTF_8)),
+                reader -> Flux.fromStream(reader.lines()).map(this::parse),
+                reader -> {
+                    try {
+                        reader.close();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+    }
+
+    private GatewayLog parse(String line) {
+        try {
+            return objectMapper.readValue(line, GatewayLog.class);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static List<Path> parts(Path dir) throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(file -> {
+                String name = file.getFileName().toString();
+                return name.startsWith(LogArchiver.FILE_PREFIX) && name.endsWith(LogArchiver.FILE_SUFFIX);
+            }).sorted().toList();
+        }
+    }
+
+    /**
+     * 归档日期概要
+     * @param day   日期
+     * @param parts 分片文件数
+     * @param bytes 压缩后总字节数
+     */
+    public record ArchiveDay(LocalDate day, int parts, long bytes) {
+    }
+}
@@ -0,0 +1,121 @@
+package com.zjsyinfo.gateway.accesslog;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zjsyinfo.gateway.config.LogRetentionConfig;
+import com.zjsyinfo.gateway.config.SchedulingConfig;
+import com.zjsyinfo.gateway.mongo.entity.GatewayLog;
+import com.zjsyinfo.gateway.mongo.service.GatewayLogService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 访问日志归档：定时把超过保留天数的日志按天流式导出为 gzip 压缩的 NDJSON 文件后从 gateway_logs 删除。
+ * 每天一个目录，每次归档写一个新的分片文件（先写临时文件、刷盘后原子改名），已有文件从不修改。
+ * 写入分片后、删除前进程退出时，下次会再次归档同一天，分片之间可能出现重复记录，可按 id 去重。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class LogArchiver {
+    static final String FILE_PREFIX = "part-";
+    static final String FILE_SUFFIX = ".ndjson.gz";
+
+    private final LogRetentionConfig logRetentionConfig;
+    private final GatewayLogService gatewayLogService;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * 定时归档：从最早的日志所在日期起，逐天归档到保留期限之前
+     */
+    @Scheduled(fixedDelayString = "${vllm.log-retention.archive-interval-ms:3600000}", initialDelay = 60000,
+            scheduler = SchedulingConfig.MAINTENANCE_SCHEDULER)
+    public void archive() {
+        if (!logRetentionConfig.isEnabled() || !logRetentionConfig.isArchiveEnabled()) {
+            return;
+        }
+        try {
+            GatewayLog oldest = gatewayLogService.getOldest();
+            if (oldest == null || oldest.getCreateTime() == null) {
+                return;
+            }
+            ZoneId zone = ZoneId.systemDefault();
+            LocalDate cutoff = LocalDate.now(zone).minusDays(logRetentionConfig.getRetentionDays());
+            for (LocalDate day = LocalDate.ofInstant(oldest.getCreateTime().toInstant(), zone);
+                 day.isBefore(cutoff); day = day.plusDays(1)) {
+                archiveDay(day, zone);
+            }
+        } catch (Exception e) {
+            log.error("访问日志归档失败", e);
+        }
+    }
+
+    /**
+     * 归档一天的日志：写入新分片并改名成功后再删除 MongoDB 中的对应时间范围
+     */
+    private void archiveDay(LocalDate day, ZoneId zone) throws IOException {
+        Date from = Date.from(day.atStartOfDay(zone).toInstant());
+        Date to = Date.from(day.plusDays(1).atStartOfDay(zone).toInstant());
+        Path dayDir = Paths.get(logRetentionConfig.getArchiveDir()).resolve(day.toString());
+        Files.createDirectories(dayDir);
+        String name = FILE_PREFIX + System.currentTimeMillis() + FILE_SUFFIX;
+        Path tmp = dayDir.resolve(name + ".tmp");
+
+        long begin = System.currentTimeMillis();
+        long count = 0;
+        int batchSize = logRetentionConfig.getArchiveBatchSize();
+        try (FileOutputStream file = new FileOutputStream(tmp.toFile());
+             GZIPOutputStream out = new GZIPOutputStream(new BufferedOutputStream(file, 1 << 16), 1 << 16)) {
+            Date cursorTime = null;
+            int cursorSkip = 0;
+            while (true) {
+                List<GatewayLog> batch = gatewayLogService.listForArchive(from, to, cursorTime, cursorSkip, batchSize);
+                for (GatewayLog logDoc : batch) {
+                    out.write(objectMapper.writeValueAsBytes(logDoc));
+                    out.write('\n');
+                }
+                count += batch.size();
+                if (batch.size() < batchSize) {
+                    break;
+                }
+                // 下一批从最后一条的创建时间开始，跳过同一时间已读取的条数
+                Date lastTime = batch.get(batch.size() - 1).getCreateTime();
+                int ties = lastTime.equals(cursorTime) ? cursorSkip : 0;
+                for (int i = batch.size() - 1; i >= 0 && lastTime.equals(batch.get(i).getCreateTime()); i--) {
+                    ties++;
+                }
+                cursorTime = lastTime;
+                cursorSkip = ties;
+            }
+            out.finish();
+            out.flush();
+            file.getChannel().force(true);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(tmp);
+            throw e;
+        }
+
+        if (count == 0) {
+            Files.deleteIfExists(tmp);
+            return;
+        }
+        Files.move(tmp, dayDir.resolve(name), StandardCopyOption.ATOMIC_MOVE);
+        gatewayLogService.removeRange(from, to);
+        log.info("访问日志归档完成: day={}, count={}, file={}, cost={}ms", day, count, dayDir.resolve(name),
+                System.currentTimeMillis() - begin);
+    }
+}
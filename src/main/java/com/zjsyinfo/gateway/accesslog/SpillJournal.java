@@ -0,0 +1,202 @@
+package com.zjsyinfo.gateway.accesslog;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * 本地追加写日志：段文件以内存映射方式写入，写满后滚动；每条记录为 [长度][CRC32][内容]，长度为 0 表示段内数据结束。
+ * 追加只是内存拷贝，不等待磁盘；进程崩溃时已写入映射内存的数据由操作系统落盘，{@link #force()} 定期刷盘以应对系统崩溃。
+ * 追加与滚动（含封存时刷盘）可能较慢，只应由后台线程调用；{@link #force()} 与 {@link #pendingBytes()} 不持有对象锁。
+ * 读取只针对已封存的段，遇到校验失败的记录（断电时写了一半）即停止读取该段。
+ */
+@Slf4j
+public class SpillJournal {
+    private static final String SEGMENT_PREFIX = "journal-";
+    private static final String SEGMENT_SUFFIX = ".seg";
+    private static final int HEADER_BYTES = 8;
+
+    private final Path dir;
+    private final int segmentBytes;
+    private final Deque<Path> sealed = new ArrayDeque<>();
+    private long nextSequence;
+
+    /** 已封存段的总字节数（按段大小估算），供无锁读取 */
+    private volatile long sealedBytes;
+
+    private Path activePath;
+    private FileChannel activeChannel;
+    private volatile MappedByteBuffer active;
+
+    /**
+     * 打开日志目录，目录中已有的段（上次运行遗留）均视为已封存，等待回放
+     * @param dir          段文件目录
+     * @param segmentBytes 单个段文件大小
+     */
+    public SpillJournal(Path dir, int segmentBytes) throws IOException {
+        this.dir = dir;
+        this.segmentBytes = segmentBytes;
+        Files.createDirectories(dir);
+        try (Stream<Path> files = Files.list(dir)) {
+            files.filter(SpillJournal::isSegment).sorted().forEach(sealed::add);
+        }
+        nextSequence = sealed.isEmpty() ? 0 : sequenceOf(sealed.peekLast()) + 1;
+        sealedBytes = (long) sealed.size() * segmentBytes;
+        if (!sealed.isEmpty()) {
+            log.info("发现待回放的访问日志溢写段: dir={}, segments={}", dir, sealed.size());
+        }
+    }
+
+    /**
+     * 追加一条记录，当前段空间不足时滚动到新段
+     * @param payload 记录内容
+     * @return 是否写入（单条超过段大小时返回 false）
+     */
+    public synchronized boolean append(byte[] payload) throws IOException {
+        int size = HEADER_BYTES + payload.length;
+        if (size > segmentBytes) {
+            return false;
+        }
+        if (active == null || active.remaining() < size) {
+            roll();
+        }
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        active.putInt(payload.length);
+        active.putInt((int) crc.getValue());
+        active.put(payload);
+        return true;
+    }
+
+    /**
+     * 封存当前段（有数据时），使其可被回放
+     */
+    public synchronized void seal() throws IOException {
+        if (active != null && active.position() > 0) {
+            closeActive();
+        }
+    }
+
+    /**
+     * 将当前段的映射内存刷盘。刷盘在锁外进行，不阻塞追加；段已被滚动封存时其映射仍有效，刷盘无害
+     */
+    public void force() {
+        MappedByteBuffer buffer = active;
+        if (buffer != null) {
+            buffer.force();
+        }
+    }
+
+    /**
+     * 已封存、待回放的段，按写入顺序排列
+     */
+    public synchronized List<Path> sealedSegments() {
+        return new ArrayList<>(sealed);
+    }
+
+    /**
+     * 读取已封存段中的全部有效记录
+     */
+    public List<byte[]> read(Path segment) throws IOException {
+        List<byte[]> records = new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            CRC32 crc = new CRC32();
+            while (buffer.remaining() >= HEADER_BYTES) {
+                int length = buffer.getInt();
+                if (length <= 0 || length > buffer.remaining() - 4) {
+                    break;
+                }
+                int checksum = buffer.getInt();
+                byte[] payload = new byte[length];
+                buffer.get(payload);
+                crc.reset();
+                crc.update(payload);
+                if ((int) crc.getValue() != checksum) {
+                    log.warn("访问日志溢写段记录校验失败，忽略其后内容: segment={}, offset={}", segment,
+                            buffer.position() - length - HEADER_BYTES);
+                    break;
+                }
+                records.add(payload);
+            }
+        } catch (BufferUnderflowException e) {
+            log.warn("访问日志溢写段末尾不完整: segment={}", segment);
+        }
+        return records;
+    }
+
+    /**
+     * 删除已回放完成的段
+     */
+    public synchronized void delete(Path segment) throws IOException {
+        if (sealed.remove(segment)) {
+            sealedBytes -= segmentBytes;
+        }
+        Files.deleteIfExists(segment);
+    }
+
+    /**
+     * 待回放的段数与当前段已写入字节数之和（按段大小估算）
+     */
+    public long pendingBytes() {
+        MappedByteBuffer buffer = active;
+        return sealedBytes + (buffer != null ? buffer.position() : 0);
+    }
+
+    /**
+     * 刷盘并关闭当前段
+     */
+    public synchronized void close() throws IOException {
+        if (active != null) {
+            if (active.position() > 0) {
+                closeActive();
+            } else {
+                active = null;
+                activeChannel.close();
+                Files.deleteIfExists(activePath);
+            }
+        }
+    }
+
+    private void roll() throws IOException {
+        if (active != null) {
+            closeActive();
+        }
+        activePath = dir.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, nextSequence++, SEGMENT_SUFFIX));
+        activeChannel = FileChannel.open(activePath, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        active = activeChannel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+    }
+
+    private void closeActive() throws IOException {
+        active.force();
+        activeChannel.close();
+        sealed.add(activePath);
+        sealedBytes += segmentBytes;
+        active = null;
+        activeChannel = null;
+        activePath = null;
+    }
+
+    private static boolean isSegment(Path file) {
+        String name = file.getFileName().toString();
+        return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+    }
+
+    private static long sequenceOf(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+}
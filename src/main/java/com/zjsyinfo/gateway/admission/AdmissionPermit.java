@@ -0,0 +1,24 @@
+package com.zjsyinfo.gateway.admission;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 准入许可：占用副本池的一个在途名额，请求结束时释放（重复释放无副作用）。
+ */
+public final class AdmissionPermit {
+    /** 未启用准入排队时使用的空许可 */
+    static final AdmissionPermit NOOP = new AdmissionPermit(null);
+
+    private final PoolAdmissionQueue queue;
+    private final AtomicBoolean released = new AtomicBoolean();
+
+    AdmissionPermit(PoolAdmissionQueue queue) {
+        this.queue = queue;
+    }
+
+    public void release() {
+        if (queue != null && released.compareAndSet(false, true)) {
+            queue.release();
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.zjsyinfo.gateway.admission;
+
+/**
+ * 准入排队拒绝（排队已满或等待超过 SLO 被丢弃）
+ */
+public class AdmissionRejectedException extends RuntimeException {
+    /** 是否因应用自身排队已满而被拒绝（否则为等待超时被丢弃） */
+    private final boolean queueFull;
+
+    public AdmissionRejectedException(String message, boolean queueFull) {
+        super(message, null, false, false);
+        this.queueFull = queueFull;
+    }
+
+    public boolean isQueueFull() {
+        return queueFull;
+    }
+}
@@ -0,0 +1,82 @@
+package com.zjsyinfo.gateway.admission;
+
+import com.zjsyinfo.gateway.config.AdmissionConfig;
+import com.zjsyinfo.gateway.mongo.entity.GatewayApp;
+import com.zjsyinfo.gateway.route.ModelPool;
+import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 准入调度器：每个模型副本池一个准入队列，限制发往该池的在途请求数，
+ * 满载时按应用公平排队（DRR，按 GatewayApp.weight 分配份额），排队超过 SLO 的请求被丢弃。
+ */
+@Component
+@RequiredArgsConstructor
+public class AdmissionScheduler {
+    private static final String ANONYMOUS_APP = "anonymous";
+
+    private final AdmissionConfig admissionConfig;
+    private final Map<String, PoolAdmissionQueue> queues = new ConcurrentHashMap<>();
+
+    /**
+     * 为发往指定副本池的请求申请在途名额。
+     * @return 放行时发出许可（请求结束后须释放）；拒绝时以 {@link AdmissionRejectedException} 结束
+     */
+    public Mono<AdmissionPermit> admit(ModelPool pool, GatewayApp app) {
+        if (!admissionConfig.isEnabled()) {
+            return Mono.just(AdmissionPermit.NOOP);
+        }
+        PoolAdmissionQueue queue = queues.computeIfAbsent(pool.getModel(), model -> new PoolAdmissionQueue(model,
+                admissionConfig.getPoolMaxInFlight().getOrDefault(model, admissionConfig.getMaxInFlightPerPool())));
+        String appId = app != null ? app.getId() : ANONYMOUS_APP;
+        int weight = app != null && app.getWeight() != null ? app.getWeight() : 1;
+        return queue.acquire(appId, weight, TimeUnit.MILLISECONDS.toNanos(admissionConfig.getQueueTimeoutMs()),
+                admissionConfig.getMaxQueuePerApp());
+    }
+
+    /**
+     * 定时丢弃排队超时的请求
+     */
+    @Scheduled(fixedDelayString = "${vllm.admission.sweep-interval-ms:100}")
+    public void sweep() {
+        queues.values().forEach(PoolAdmissionQueue::sweep);
+    }
+
+    /**
+     * 各副本池及其中各应用的排队统计
+     */
+    public List<PoolStats> stats() {
+        return queues.values().stream().map(PoolAdmissionQueue::stats).toList();
+    }
+
+    /**
+     * 副本池准入状态
+     * @param model       模型名
+     * @param maxInFlight 在途请求上限
+     * @param inFlight    当前在途请求数
+     * @param queued      当前排队请求数
+     * @param apps        各应用的排队统计
+     */
+    public record PoolStats(String model, int maxInFlight, int inFlight, int queued, List<AppQueueStats> apps) {
+    }
+
+    /**
+     * 应用在某个副本池中的排队统计
+     * @param queued    当前排队深度
+     * @param admitted  累计放行数
+     * @param shed      累计因等待超过 SLO 被丢弃数
+     * @param rejected  累计因排队已满被拒绝数
+     * @param avgWaitMs 平均排队等待（毫秒，含未排队直接放行的请求）
+     * @param maxWaitMs 最大排队等待（毫秒）
+     */
+    public record AppQueueStats(String model, String appId, int weight, int queued, long admitted, long shed,
+                                long rejected, double avgWaitMs, double maxWaitMs) {
+    }
+}
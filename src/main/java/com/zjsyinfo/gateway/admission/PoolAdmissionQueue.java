@@ -0,0 +1,236 @@
+package com.zjsyinfo.gateway.admission;
+
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 单个模型副本池的准入队列：在途请求达到上限后，请求按应用分别排队，
+ * 名额释放时按赤字轮询（DRR，每个请求计 1，份额为应用权重）在应用之间公平放行。
+ * 所有状态由对象锁保护，临界区内只做队列操作，放行/拒绝的回调在锁外执行。
+ */
+class PoolAdmissionQueue {
+    private final String model;
+    private final int maxInFlight;
+    private final Map<String, AppQueue> appQueues = new HashMap<>();
+    /** 有排队请求的应用，按 DRR 轮转顺序排列 */
+    private final ArrayDeque<AppQueue> activeApps = new ArrayDeque<>();
+    private int inFlight;
+    private int queued;
+
+    PoolAdmissionQueue(String model, int maxInFlight) {
+        this.model = model;
+        this.maxInFlight = maxInFlight;
+    }
+
+    /**
+     * 申请一个在途名额：有空闲且无人排队时立即放行，否则进入应用自己的队列等待。
+     * @param timeoutNanos 最长排队时间，超过后以 {@link AdmissionRejectedException} 结束
+     */
+    Mono<AdmissionPermit> acquire(String appId, int weight, long timeoutNanos, int maxQueuePerApp) {
+        return Mono.create(sink -> {
+            Ticket ticket = null;
+            boolean admitted = false;
+            synchronized (this) {
+                AppQueue appQueue = appQueues.computeIfAbsent(appId, AppQueue::new);
+                appQueue.weight = Math.max(1, weight);
+                if (queued == 0 && inFlight < maxInFlight) {
+                    inFlight++;
+                    appQueue.recordAdmitted(0);
+                    admitted = true;
+                } else if (appQueue.tickets.size() < maxQueuePerApp) {
+                    ticket = new Ticket(appQueue, sink, System.nanoTime() + timeoutNanos);
+                    appQueue.tickets.addLast(ticket);
+                    queued++;
+                    if (!appQueue.active) {
+                        // 重新进入轮转时从新一轮开始
+                        appQueue.active = true;
+                        appQueue.deficit = 0;
+                        activeApps.addLast(appQueue);
+                    }
+                } else {
+                    appQueue.rejected++;
+                }
+            }
+            if (admitted) {
+                sink.success(new AdmissionPermit(this));
+            } else if (ticket == null) {
+                sink.error(new AdmissionRejectedException("Too many queued requests for model '" + model + "'", true));
+            } else {
+                Ticket waiting = ticket;
+                sink.onCancel(() -> cancel(waiting));
+            }
+        });
+    }
+
+    /**
+     * 归还名额：有人排队时直接转交给 DRR 选出的下一个请求，否则在途数减一。
+     */
+    void release() {
+        List<Ticket> expired = new ArrayList<>();
+        Ticket next;
+        synchronized (this) {
+            next = pollNext(System.nanoTime(), expired);
+            if (next == null) {
+                inFlight--;
+            }
+        }
+        shed(expired);
+        if (next != null) {
+            next.sink.success(new AdmissionPermit(this));
+        }
+    }
+
+    /**
+     * 丢弃排队超过 SLO 的请求（定时调用）
+     */
+    void sweep() {
+        List<Ticket> expired = new ArrayList<>();
+        synchronized (this) {
+            long now = System.nanoTime();
+            for (AppQueue appQueue : new ArrayList<>(activeApps)) {
+                while (!appQueue.tickets.isEmpty() && appQueue.tickets.peekFirst().deadline - now <= 0) {
+                    expired.add(removeHead(appQueue));
+                    appQueue.shed++;
+                }
+            }
+        }
+        shed(expired);
+    }
+
+    /**
+     * 当前队列状态快照
+     */
+    synchronized AdmissionScheduler.PoolStats stats() {
+        List<AdmissionScheduler.AppQueueStats> apps = appQueues.values().stream()
+                .map(appQueue -> appQueue.stats(model))
+                .toList();
+        return new AdmissionScheduler.PoolStats(model, maxInFlight, inFlight, queued, apps);
+    }
+
+    /**
+     * DRR 选出下一个放行的请求；遇到已超时的请求一并移出，由调用方在锁外拒绝。
+     */
+    private Ticket pollNext(long now, List<Ticket> expired) {
+        while (!activeApps.isEmpty()) {
+            AppQueue appQueue = activeApps.peekFirst();
+            if (appQueue.deficit == 0) {
+                // 新一轮：按权重补充份额
+                appQueue.deficit = appQueue.weight;
+            }
+            Ticket ticket = removeHead(appQueue);
+            if (ticket.deadline - now <= 0) {
+                appQueue.shed++;
+                expired.add(ticket);
+                continue;
+            }
+            // 取走最后一个请求时应用已移出轮转（份额已清零），不再扣减与轮转
+            if (appQueue.active && --appQueue.deficit == 0) {
+                activeApps.addLast(activeApps.pollFirst());
+            }
+            appQueue.recordAdmitted(now - ticket.enqueuedAt);
+            ticket.granted = true;
+            return ticket;
+        }
+        return null;
+    }
+
+    /**
+     * 从应用队列头部移出一个请求，队列变空时将应用移出轮转
+     */
+    private Ticket removeHead(AppQueue appQueue) {
+        Ticket ticket = appQueue.tickets.pollFirst();
+        queued--;
+        if (appQueue.tickets.isEmpty()) {
+            deactivate(appQueue);
+        }
+        return ticket;
+    }
+
+    private void deactivate(AppQueue appQueue) {
+        appQueue.active = false;
+        appQueue.deficit = 0;
+        activeApps.remove(appQueue);
+    }
+
+    /**
+     * 排队中的请求被取消（客户端断开）：移出队列；若名额已转交但尚未送达，则归还名额
+     */
+    private void cancel(Ticket ticket) {
+        boolean granted;
+        synchronized (this) {
+            granted = ticket.granted;
+            if (!granted && ticket.appQueue.tickets.remove(ticket)) {
+                queued--;
+                if (ticket.appQueue.tickets.isEmpty()) {
+                    deactivate(ticket.appQueue);
+                }
+            }
+        }
+        if (granted) {
+            release();
+        }
+    }
+
+    private void shed(List<Ticket> expired) {
+        for (Ticket ticket : expired) {
+            ticket.sink.error(new AdmissionRejectedException("Request timed out waiting for model '" + model + "'", false));
+        }
+    }
+
+    /**
+     * 排队中的单个请求
+     */
+    private static final class Ticket {
+        final AppQueue appQueue;
+        final MonoSink<AdmissionPermit> sink;
+        final long enqueuedAt = System.nanoTime();
+        final long deadline;
+        boolean granted;
+
+        Ticket(AppQueue appQueue, MonoSink<AdmissionPermit> sink, long deadline) {
+            this.appQueue = appQueue;
+            this.sink = sink;
+            this.deadline = deadline;
+        }
+    }
+
+    /**
+     * 单个应用在该副本池中的队列与统计
+     */
+    private static final class AppQueue {
+        final String appId;
+        final ArrayDeque<Ticket> tickets = new ArrayDeque<>();
+        int weight = 1;
+        int deficit;
+        boolean active;
+        long admitted;
+        long shed;
+        long rejected;
+        long totalWaitNanos;
+        long maxWaitNanos;
+
+        AppQueue(String appId) {
+            this.appId = appId;
+        }
+
+        void recordAdmitted(long waitNanos) {
+            admitted++;
+            totalWaitNanos += waitNanos;
+            maxWaitNanos = Math.max(maxWaitNanos, waitNanos);
+        }
+
+        AdmissionScheduler.AppQueueStats stats(String model) {
+            double avgWaitMs = admitted > 0 ? totalWaitNanos / (double) admitted / TimeUnit.MILLISECONDS.toNanos(1) : 0;
+            double maxWaitMs = maxWaitNanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+            return new AdmissionScheduler.AppQueueStats(model, appId, weight, tickets.size(), admitted, shed, rejected,
+                    avgWaitMs, maxWaitMs);
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.zjsyinfo.gateway.cache;
+
+import com.zjsyinfo.gateway.config.AppRegistryConfig;
+import com.zjsyinfo.gateway.config.SchedulingConfig;
+import com.zjsyinfo.gateway.mongo.entity.GatewayApp;
+import com.zjsyinfo.gateway.mongo.service.GatewayAppService;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 应用本地注册表：以 API Key 为键缓存全部 GatewayApp，供鉴权与日志过滤器在内存中完成查找。
+ * 启动时全量加载，之后按固定间隔全量刷新（被删除的应用随刷新淘汰）；
+ * 本实例内的增删改通过 {@link #put}/{@link #evict} 立即生效，其他实例的变更最迟在一个刷新周期后可见。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class GatewayAppRegistry {
+    private final GatewayAppService gatewayAppService;
+    private final AppRegistryConfig appRegistryConfig;
+
+    /** apiKey -> 应用，刷新时整体替换 */
+    private volatile Map<String, GatewayApp> appsByKey = new ConcurrentHashMap<>();
+
+    /**
+     * 负缓存：apiKey -> 过期时间戳，避免无效 Key 反复回源。
+     * 按写入顺序排列，超过上限时淘汰最早写入（最先过期）的条目，由自身加锁保护
+     */
+    private final LinkedHashMap<String, Long> missingKeys = new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+            return size() > appRegistryConfig.getMissingKeyMaxSize();
+        }
+    };
+
+    /**
+     * 启动时全量加载应用
+     */
+    @PostConstruct
+    public void init() {
+        refresh();
+    }
+
+    /**
+     * 全量刷新注册表，失败时保留旧数据。
+     */
+    @Scheduled(fixedDelayString = "${vllm.app-registry.refresh-interval-ms:30000}",
+            initialDelayString = "${vllm.app-registry.refresh-interval-ms:30000}",
+            scheduler = SchedulingConfig.MAINTENANCE_SCHEDULER)
+    public void refresh() {
+        try {
+            List<GatewayApp> apps = gatewayAppService.list();
+            Map<String, GatewayApp> loaded = new ConcurrentHashMap<>(Math.max(16, apps.size() * 2));
+            for (GatewayApp app : apps) {
+                if (app.getApiKey() != null) {
+                    loaded.put(app.getApiKey(), app);
+                }
+            }
+            appsByKey = loaded;
+            synchronized (missingKeys) {
+                missingKeys.clear();
+            }
+            log.debug("应用注册表刷新完成: size={}", loaded.size());
+        } catch (Exception e) {
+            log.error("应用注册表刷新失败，继续使用旧数据", e);
+        }
+    }
+
+    /**
+     * 仅从内存中查找应用。
+     * @param apiKey API Key
+     * @return 匹配的应用；不存在返回 null
+     */
+    public GatewayApp get(String apiKey) {
+        return appsByKey.get(apiKey);
+    }
+
+    /**
+     * 查找应用：优先命中内存；未命中且不在负缓存中时，在弹性线程池上回源 MongoDB 一次，
+     * 以便其他实例新建的应用无需等待下一次全量刷新。
+     * @param apiKey API Key
+     * @return 匹配的应用；不存在时为空 Mono
+     */
+    public Mono<GatewayApp> resolve(String apiKey) {
+        GatewayApp app = appsByKey.get(apiKey);
+        if (app != null) {
+            return Mono.just(app);
+        }
+        if (isKnownMissing(apiKey)) {
+            return Mono.empty();
+        }
+        return Mono.fromCallable(() -> gatewayAppService.getByApiKey(apiKey))
+                .subscribeOn(Schedulers.boundedElastic())
+                .doOnNext(this::put)
+                .switchIfEmpty(Mono.fromRunnable(() -> markMissing(apiKey)));
+    }
+
+    /**
+     * 新增或更新应用（本实例内立即生效）。
+     */
+    public void put(GatewayApp app) {
+        if (app != null && app.getApiKey() != null) {
+            appsByKey.put(app.getApiKey(), app);
+            synchronized (missingKeys) {
+                missingKeys.remove(app.getApiKey());
+            }
+        }
+    }
+
+    /**
+     * 移除应用（本实例内立即生效）。
+     */
+    public void evict(String apiKey) {
+        if (apiKey != null) {
+            appsByKey.remove(apiKey);
+        }
+    }
+
+    private boolean isKnownMissing(String apiKey) {
+        synchronized (missingKeys) {
+            Long missingUntil = missingKeys.get(apiKey);
+            return missingUntil != null && missingUntil > System.currentTimeMillis();
+        }
+    }
+
+    /**
+     * 记录未命中的 Key；重新写入时移到队尾，负缓存已满（可能遭遇无效 Key 扫描）时淘汰最早的条目，
+     * 其他实例新建的 Key 仍会回源，不会因负缓存已满而被拒绝
+     */
+    private void markMissing(String apiKey) {
+        synchronized (missingKeys) {
+            missingKeys.remove(apiKey);
+            missingKeys.put(apiKey, System.currentTimeMillis() + appRegistryConfig.getMissingKeyTtlMs());
+        }
+    }
+}
@@ -0,0 +1,243 @@
+package com.zjsyinfo.gateway.cache;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.zjsyinfo.gateway.config.ResponseCacheConfig;
+import com.zjsyinfo.gateway.mongo.entity.GatewayApp;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 确定性请求的响应缓存：键为模型名与规范化请求体（键排序、去除空白）的 SHA-256，
+ * 值为 gzip 压缩后的完整响应体（非流式 JSON 或流式 SSE 原文），按压缩后字节数做 LRU 淘汰，条目按 TTL 过期。
+ * 仅缓存 temperature 为 0 的请求；读写均在一把锁内完成，临界区只有哈希表操作。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ResponseCache {
+    /** 规范化请求体：对象键排序后序列化，与字段顺序和空白无关 */
+    private static final ObjectMapper CANONICAL_MAPPER = JsonMapper.builder()
+            .enable(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS)
+            .build();
+
+    private final ResponseCacheConfig responseCacheConfig;
+
+    /** 访问顺序的 LinkedHashMap 即 LRU，由 this 加锁保护 */
+    private final LinkedHashMap<String, CachedResponse> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private long totalBytes;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * 应用是否启用响应缓存
+     */
+    public boolean isEnabledFor(GatewayApp app) {
+        return responseCacheConfig.isEnabled() && app != null && Boolean.TRUE.equals(app.getCacheEnabled());
+    }
+
+    /**
+     * 计算缓存键。
+     * @return 请求可缓存（合法 JSON 且 temperature 为 0）时返回键，否则返回 null
+     */
+    public String cacheKey(String model, byte[] body) {
+        try {
+            JsonNode root = CANONICAL_MAPPER.readTree(body);
+            JsonNode temperature = root.get("temperature");
+            if (temperature == null || !temperature.isNumber() || temperature.doubleValue() != 0) {
+                return null;
+            }
+            byte[] canonical = CANONICAL_MAPPER.writeValueAsBytes(CANONICAL_MAPPER.treeToValue(root, Object.class));
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(model.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(canonical);
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (IOException | NoSuchAlgorithmException e) {
+            log.debug("请求体无法规范化，不使用响应缓存: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 查找未过期的缓存响应
+     */
+    public CachedResponse get(String key) {
+        CachedResponse cached;
+        synchronized (this) {
+            cached = entries.get(key);
+            if (cached != null && cached.expiresAt() <= System.currentTimeMillis()) {
+                entries.remove(key);
+                totalBytes -= cached.weight();
+                cached = null;
+            }
+        }
+        if (cached != null) {
+            hits.increment();
+        } else {
+            misses.increment();
+        }
+        return cached;
+    }
+
+    /**
+     * 创建一个响应记录器，在响应体写出过程中复制字节，完整结束后写入缓存。
+     */
+    public Recorder recorder(String key, String contentType) {
+        return new Recorder(key, contentType);
+    }
+
+    /**
+     * 缓存统计
+     */
+    public synchronized Stats stats() {
+        return new Stats(entries.size(), totalBytes, hits.sum(), misses.sum(), evictions.sum());
+    }
+
+    private void put(String key, CachedResponse response) {
+        if (response.weight() > responseCacheConfig.getMaxBytes()) {
+            return;
+        }
+        synchronized (this) {
+            CachedResponse previous = entries.put(key, response);
+            if (previous != null) {
+                totalBytes -= previous.weight();
+            }
+            totalBytes += response.weight();
+            Iterator<Map.Entry<String, CachedResponse>> it = entries.entrySet().iterator();
+            while (totalBytes > responseCacheConfig.getMaxBytes() && it.hasNext()) {
+                Map.Entry<String, CachedResponse> eldest = it.next();
+                it.remove();
+                totalBytes -= eldest.getValue().weight();
+                evictions.increment();
+            }
+        }
+    }
+
+    private static byte[] gzip(byte[] data, int length) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, length / 4));
+        try (OutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(data, 0, length);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * 缓存的响应（压缩存储）
+     * @param contentType 原始响应的 Content-Type
+     * @param compressed  gzip 压缩后的响应体
+     * @param length      压缩前的字节数
+     * @param expiresAt   过期时间戳（毫秒）
+     */
+    public record CachedResponse(String contentType, byte[] compressed, int length, long expiresAt) {
+        /** 计入缓存上限的字节数（含键与对象开销的粗略估计） */
+        long weight() {
+            return compressed.length + 128L;
+        }
+
+        /**
+         * 解压出完整响应体
+         */
+        public byte[] body() {
+            try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+                return in.readNBytes(length);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * 缓存统计
+     * @param entries    条目数
+     * @param bytes      压缩后占用字节数
+     * @param hits       累计命中数
+     * @param misses     累计未命中数
+     * @param evictions  累计因容量淘汰数
+     */
+    public record Stats(int entries, long bytes, long hits, long misses, long evictions) {
+    }
+
+    /**
+     * 响应记录器：非线程安全，每个请求一个实例，只应在响应数据按顺序到达时调用。
+     */
+    public final class Recorder {
+        private final String key;
+        private final String contentType;
+        private byte[] buffer = new byte[8192];
+        private int length;
+        private boolean overflow;
+
+        private Recorder(String key, String contentType) {
+            this.key = key;
+            this.contentType = contentType;
+        }
+
+        /**
+         * 复制一个响应 chunk 的可读字节，不改变其读写位置
+         */
+        public void append(DataBuffer dataBuffer) {
+            int readable = dataBuffer.readableByteCount();
+            if (overflow || readable == 0) {
+                return;
+            }
+            if (length + readable > responseCacheConfig.getMaxResponseBytes()) {
+                // 响应过大，放弃缓存并尽早释放已复制的内容
+                overflow = true;
+                buffer = null;
+                return;
+            }
+            if (length + readable > buffer.length) {
+                byte[] grown = new byte[Math.min(responseCacheConfig.getMaxResponseBytes(),
+                        Math.max(buffer.length * 2, length + readable))];
+                System.arraycopy(buffer, 0, grown, 0, length);
+                buffer = grown;
+            }
+            dataBuffer.toByteBuffer(dataBuffer.readPosition(), ByteBuffer.wrap(buffer), length, readable);
+            length += readable;
+        }
+
+        /**
+         * 响应完整结束后写入缓存
+         */
+        public void commit() {
+            if (overflow || length == 0) {
+                return;
+            }
+            try {
+                put(key, new CachedResponse(contentType, gzip(buffer, length), length,
+                        System.currentTimeMillis() + responseCacheConfig.getTtlMs()));
+            } catch (Exception e) {
+                log.warn("写入响应缓存失败: {}", e.getMessage());
+            } finally {
+                buffer = null;
+            }
+        }
+    }
+}
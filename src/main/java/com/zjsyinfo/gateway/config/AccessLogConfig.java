@@ -0,0 +1,72 @@
+package com.zjsyinfo.gateway.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 访问日志异步写入配置（vllm.access-log）
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "vllm.access-log")
+public class AccessLogConfig {
+    /** 内存队列容量 */
+    private int queueCapacity = 20000;
+
+    /** 单次批量写入的最大条数 */
+    private int batchSize = 500;
+
+    /** 最长刷新间隔（毫秒），未攒满一批时到时也会写入 */
+    private long flushIntervalMs = 1000;
+
+    /** 队列满时的处理策略 */
+    private OverflowPolicy overflowPolicy = OverflowPolicy.SPILL;
+
+    /** BLOCK 策略下调用方最长等待时间（毫秒），超时后丢弃 */
+    private long blockTimeoutMs = 50;
+
+    /** SAMPLE 策略下队列水位超过该比例后开始采样 */
+    private double sampleWatermark = 0.8;
+
+    /** SAMPLE 策略下的采样率：每 N 条保留 1 条 */
+    private int sampleRate = 10;
+
+    /** 本地溢写日志：队列满（SPILL 策略）或批量写入失败时落盘，MongoDB 恢复后回放 */
+    private Journal journal = new Journal();
+
+    /**
+     * 队列溢出策略
+     */
+    public enum OverflowPolicy {
+        /** 直接丢弃 */
+        DROP,
+        /** 阻塞调用方直至有空位或超时 */
+        BLOCK,
+        /** 高水位后按比例采样，队列满时丢弃 */
+        SAMPLE,
+        /** 交由后台线程写入本地溢写日志，不阻塞请求线程（溢写队列也满或溢写日志未启用时丢弃） */
+        SPILL
+    }
+
+    /**
+     * 本地溢写日志配置：内存映射、按段滚动、逐条 CRC 校验的追加写文件
+     */
+    @Data
+    public static class Journal {
+        /** 是否启用；关闭时写入失败的日志直接丢弃 */
+        private boolean enabled = true;
+
+        /** 段文件目录 */
+        private String dir = "data/access-log-journal";
+
+        /** 单个段文件大小（字节），写满后滚动到新段 */
+        private int segmentBytes = 64 * 1024 * 1024;
+
+        /** 回放检查间隔（毫秒），同时按此间隔将映射内存刷盘 */
+        private long replayIntervalMs = 5000;
+
+        /** 回放时单次 saveOrUpdateBatch 的条数 */
+        private int replayBatchSize = 500;
+    }
+}
@@ -0,0 +1,34 @@
+package com.zjsyinfo.gateway.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 准入排队配置（vllm.admission）：副本池满载时在网关侧按应用公平排队
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "vllm.admission")
+public class AdmissionConfig {
+    /** 是否启用准入排队，关闭时请求直接转发 */
+    private boolean enabled = false;
+
+    /** 每个模型副本池默认允许的在途请求数 */
+    private int maxInFlightPerPool = 64;
+
+    /** 按模型单独配置的在途请求数（模型名 → 上限），覆盖默认值 */
+    private Map<String, Integer> poolMaxInFlight = new HashMap<>();
+
+    /** 排队等待上限（毫秒），超过即视为错过 SLO 被丢弃 */
+    private long queueTimeoutMs = 30000;
+
+    /** 每个应用在单个副本池中最多排队的请求数，超出直接拒绝 */
+    private int maxQueuePerApp = 256;
+
+    /** 过期排队请求的清理间隔（毫秒） */
+    private long sweepIntervalMs = 100;
+}
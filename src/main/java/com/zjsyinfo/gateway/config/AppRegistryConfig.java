@@ -0,0 +1,25 @@
+package com.zjsyinfo.gateway.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 应用本地注册表配置（vllm.app-registry）
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "vllm.app-registry")
+public class AppRegistryConfig {
+    /** 全量刷新间隔（毫秒），即本地注册表的最大陈旧时间 */
+    private long refreshIntervalMs = 30000;
+
+    /** 未命中 API Key 的负缓存时间（毫秒），期间不再回源 MongoDB */
+    private long missingKeyTtlMs = 60000;
+
+    /** 负缓存最大条目数，超过后淘汰最早写入的条目 */
+    private int missingKeyMaxSize = 10000;
+
+    /** 应用最近使用时间的回写间隔（毫秒） */
+    private long lastUsedFlushIntervalMs = 10000;
+}
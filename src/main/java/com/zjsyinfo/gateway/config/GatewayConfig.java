@@ -23,11 +23,29 @@ import java.util.concurrent.TimeUnit;
 @Configuration
 @ConfigurationProperties(prefix = "vllm")
 public class GatewayConfig {
-    /** model -> vLLM 地址映射 */
+    /** model -> vLLM 地址映射（单副本） */
     private Map<String, String> modelMapping;
 
+    /** model -> vLLM 副本池（多副本，带权重），同名模型优先于 modelMapping */
+    private Map<String, List<BackendConfig>> modelPools;
+
+    /**
+     * 后端副本配置
+     */
+    @Data
+    public static class BackendConfig {
+        /** vLLM 地址，如 http://10.0.0.1:8000 */
+        private String url;
+
+        /** 权重，按权重折算在途请求数 */
+        private int weight = 1;
+
+        /** 该副本的最大连接数，为空时使用 spring.cloud.gateway.httpclient.pool.max-connections */
+        private Integer maxConnections;
+    }
+
     /**
-     * 配置 WebClient，用于转发请求到 vLLM
+     * 配置 WebClient，用于健康检查、指标采集与模型列表查询（业务请求由网关 NettyRoutingFilter 转发）
      */
     @Bean
     public WebClient.Builder webClientBuilder() {
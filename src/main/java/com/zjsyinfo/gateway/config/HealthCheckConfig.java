@@ -0,0 +1,37 @@
+package com.zjsyinfo.gateway.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 后端健康检查与熔断配置（vllm.health）
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "vllm.health")
+public class HealthCheckConfig {
+    /** 是否启用主动健康检查 */
+    private boolean enabled = true;
+
+    /** 主动探测间隔（毫秒） */
+    private long intervalMs = 5000;
+
+    /** 单次探测超时（毫秒） */
+    private long timeoutMs = 2000;
+
+    /** 探测路径 */
+    private String path = "/health";
+
+    /** 连续被动失败（连接失败、5xx、首字节超时）多少次后熔断 */
+    private int failureThreshold = 3;
+
+    /** 熔断后至少摘除多长时间（毫秒） */
+    private long openDurationMs = 10000;
+
+    /** 恢复后流量从少到多逐步放开的时长（毫秒） */
+    private long slowStartMs = 30000;
+
+    /** 流式响应首字节超时（毫秒），从请求开始计时 */
+    private long firstByteTimeoutMs = 60000;
+}
@@ -0,0 +1,34 @@
+package com.zjsyinfo.gateway.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 访问日志保留与归档配置（vllm.log-retention）
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "vllm.log-retention")
+public class LogRetentionConfig {
+    /** 是否启用保留策略（TTL 索引与归档），关闭时日志永久保留 */
+    private boolean enabled = false;
+
+    /** gateway_logs 中保留的天数，更早的日志按天归档后删除 */
+    private int retentionDays = 30;
+
+    /** 是否在删除前归档到本地文件；关闭时仅靠 TTL 索引按 retentionDays 过期 */
+    private boolean archiveEnabled = true;
+
+    /** 归档目录，按天分子目录存放 gzip 压缩的 NDJSON 文件 */
+    private String archiveDir = "data/log-archive";
+
+    /** 归档开启时 TTL 索引在 retentionDays 之外额外保留的天数，归档任务异常时作为兜底上限 */
+    private int ttlGraceDays = 7;
+
+    /** 归档时每批从 MongoDB 读取的条数 */
+    private int archiveBatchSize = 5000;
+
+    /** 归档任务执行间隔（毫秒） */
+    private long archiveIntervalMs = 3600000;
+}
@@ -0,0 +1,28 @@
+package com.zjsyinfo.gateway.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 响应缓存配置（vllm.response-cache）：仅对开启缓存的应用、temperature 为 0 的请求生效
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "vllm.response-cache")
+public class ResponseCacheConfig {
+    /** 全局开关，关闭时忽略应用上的 cache_enabled */
+    private boolean enabled = false;
+
+    /** 缓存占用上限（压缩后字节数），超出后按 LRU 淘汰 */
+    private long maxBytes = 256L * 1024 * 1024;
+
+    /** 缓存条目有效期（毫秒） */
+    private long ttlMs = 600000;
+
+    /** 可缓存请求体的最大字节数（按 Content-Length 判断），超过或未知长度时不缓存 */
+    private int maxRequestBytes = 256 * 1024;
+
+    /** 可缓存响应体的最大字节数（压缩前），超过时不写入缓存 */
+    private int maxResponseBytes = 4 * 1024 * 1024;
+}
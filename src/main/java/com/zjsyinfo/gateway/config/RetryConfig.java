@@ -0,0 +1,57 @@
+package com.zjsyinfo.gateway.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 非流式请求的重试与对冲配置（vllm.retry）。
+ * 仅对带 Content-Length 且不超过 max-request-bytes 的非流式请求生效（请求体需缓存以便重放），
+ * 重试与对冲请求均从应用的重试预算中扣除，避免过载时放大后端压力。
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "vllm.retry")
+public class RetryConfig {
+    /** 是否启用 */
+    private boolean enabled = false;
+
+    /** 单个请求的最大尝试次数（含首次），重试总是换到未尝试过的副本 */
+    private int maxAttempts = 2;
+
+    /** 后端返回 503 时是否重试（vLLM 未就绪或拒绝服务，请求未被处理） */
+    private boolean retryOn503 = true;
+
+    /** 可重试请求体的最大字节数 */
+    private long maxRequestBytes = 1048576;
+
+    /** 重试预算：每个请求为所属应用存入的额度，每次重试或对冲消耗 1，即重试量不超过请求量的该比例 */
+    private double budgetRatio = 0.1;
+
+    /** 重试预算上限（也是初始额度），限制空闲期累积的额度 */
+    private int budgetMaxTokens = 20;
+
+    /** 对冲请求 */
+    private Hedge hedge = new Hedge();
+
+    /**
+     * 对冲配置：首次尝试超过该模型近期时延分位数仍未返回时，向另一副本发出第二个请求，先返回者胜出，另一个取消
+     */
+    @Data
+    public static class Hedge {
+        /** 是否启用 */
+        private boolean enabled = false;
+
+        /** 触发对冲的时延分位数 */
+        private double percentile = 0.95;
+
+        /** 对冲等待时长下限（毫秒） */
+        private long minDelayMs = 200;
+
+        /** 计算分位数所需的最少样本数，不足时不对冲 */
+        private int minSamples = 50;
+
+        /** 分位数统计窗口（毫秒），每个窗口结束时更新对冲阈值 */
+        private long windowMs = 60000;
+    }
+}
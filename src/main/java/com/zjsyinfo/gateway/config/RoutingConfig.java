@@ -0,0 +1,105 @@
+package com.zjsyinfo.gateway.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 副本选择配置（vllm.routing）
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "vllm.routing")
+public class RoutingConfig {
+    /** 副本选择策略 */
+    private Strategy strategy = Strategy.P2C;
+
+    /** 会话亲和（前缀缓存亲和）路由 */
+    private Affinity affinity = new Affinity();
+
+    /** vLLM /metrics 负载采集（strategy=LEAST_LOAD 时使用） */
+    private Metrics metrics = new Metrics();
+
+    /** /v1/models 聚合与缓存 */
+    private Models models = new Models();
+
+    /**
+     * 副本选择策略
+     */
+    public enum Strategy {
+        /** 随机取两个副本，选加权在途请求数较少者（power of two choices） */
+        P2C,
+        /** 遍历全部副本，选加权在途请求数最少者 */
+        LEAST_OUTSTANDING,
+        /** 按 vLLM /metrics 的排队数、运行数与 KV Cache 占用预测排队时延，选预测时延最小者 */
+        LEAST_LOAD
+    }
+
+    /**
+     * vLLM /metrics 负载采集配置
+     */
+    @Data
+    public static class Metrics {
+        /** 采集间隔（毫秒） */
+        private long intervalMs = 1000;
+
+        /** 单次采集超时（毫秒） */
+        private long timeoutMs = 800;
+
+        /** 指标路径 */
+        private String path = "/metrics";
+
+        /** 快照超过该时长（毫秒）未更新即视为过期，退回按在途请求数选择 */
+        private long staleAfterMs = 5000;
+
+        /** 预测时延中运行中请求相对排队请求的权重 */
+        private double runningWeight = 0.1;
+    }
+
+    /**
+     * /v1/models 聚合配置：并行查询全部副本的模型列表，合并后缓存
+     */
+    @Data
+    public static class Models {
+        /** 聚合结果缓存时长（毫秒） */
+        private long cacheTtlMs = 30000;
+
+        /** 单个副本查询超时（毫秒） */
+        private long timeoutMs = 2000;
+    }
+
+    /**
+     * 会话亲和配置：按亲和键一致性哈希到固定副本，使同一会话命中 vLLM 的前缀缓存
+     */
+    @Data
+    public static class Affinity {
+        /** 亲和键来源，NONE 表示关闭 */
+        private AffinityKey key = AffinityKey.NONE;
+
+        /** key=HEADER 时读取的请求头 */
+        private String header = "X-Session-Id";
+
+        /** key=PREFIX 时参与哈希的 messages/prompt 前缀字节数 */
+        private int prefixBytes = 2048;
+
+        /** 有界负载系数：副本在途请求数不超过平均值的该倍数，超出时顺延到哈希环上的下一个副本 */
+        private double loadFactor = 1.25;
+
+        /** 每单位权重在哈希环上的虚拟节点数 */
+        private int virtualNodes = 160;
+    }
+
+    /**
+     * 亲和键来源
+     */
+    public enum AffinityKey {
+        /** 关闭亲和路由 */
+        NONE,
+        /** 请求体中的 user 字段 */
+        USER,
+        /** 会话请求头 */
+        HEADER,
+        /** messages/prompt 前 N 字节的哈希（系统提示词与前几轮对话） */
+        PREFIX
+    }
+}
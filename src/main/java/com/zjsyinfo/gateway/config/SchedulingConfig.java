@@ -0,0 +1,50 @@
+package com.zjsyinfo.gateway.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+/**
+ * 定时任务线程配置（vllm.scheduling）。
+ * Spring 默认只有一个调度线程，所有 @Scheduled 任务串行执行，耗时的 MongoDB/磁盘任务会拖慢准入超时清理与健康摘除。
+ * 这里拆成两个线程池：默认调度器只跑对时效敏感的任务（准入清理、健康检查、指标采集、延迟窗口滚动），
+ * 访问 MongoDB 或磁盘的维护任务通过 {@code @Scheduled(scheduler = MAINTENANCE_SCHEDULER)} 在维护调度器上执行。
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "vllm.scheduling")
+public class SchedulingConfig {
+    /** 维护调度器的 Bean 名称 */
+    public static final String MAINTENANCE_SCHEDULER = "maintenanceScheduler";
+
+    /** 默认调度器线程数（健康检查、指标采集会同步等待探测结果，需多于一个线程） */
+    private int poolSize = 4;
+
+    /** 维护调度器线程数（日志归档、用量汇总压缩与写入、溢写回放、注册表刷新等） */
+    private int maintenancePoolSize = 4;
+
+    /**
+     * 默认调度器：未指定 scheduler 的 @Scheduled 任务按名称 taskScheduler 使用此线程池
+     */
+    @Bean(name = "taskScheduler")
+    public ThreadPoolTaskScheduler taskScheduler() {
+        return scheduler(poolSize, "scheduling-");
+    }
+
+    /**
+     * 维护调度器：耗时的 MongoDB/磁盘任务，与对时效敏感的任务隔离
+     */
+    @Bean(name = MAINTENANCE_SCHEDULER)
+    public ThreadPoolTaskScheduler maintenanceScheduler() {
+        return scheduler(maintenancePoolSize, "maintenance-");
+    }
+
+    private static ThreadPoolTaskScheduler scheduler(int size, String threadNamePrefix) {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(Math.max(1, size));
+        scheduler.setThreadNamePrefix(threadNamePrefix);
+        return scheduler;
+    }
+}
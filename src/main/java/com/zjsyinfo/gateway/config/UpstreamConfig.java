@@ -0,0 +1,70 @@
+package com.zjsyinfo.gateway.config;
+
+import com.zjsyinfo.gateway.filter.RequestTiming;
+import com.zjsyinfo.gateway.route.UpstreamPoolMetrics;
+import lombok.Data;
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.cloud.gateway.config.HttpClientCustomizer;
+import org.springframework.cloud.gateway.config.HttpClientFactory;
+import org.springframework.cloud.gateway.config.HttpClientProperties;
+import org.springframework.cloud.gateway.config.HttpClientSslConfigurer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import reactor.netty.http.HttpProtocol;
+
+import java.util.List;
+
+/**
+ * 上游（vLLM）连接配置（vllm.upstream）。
+ * 转发走 Spring Cloud Gateway 自带的 NettyRoutingFilter，连接池的大小、获取超时、空闲/存活时间、
+ * 后台回收与指标开关沿用 spring.cloud.gateway.httpclient.pool.*，此处只补充网关特有的部分。
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "vllm.upstream")
+public class UpstreamConfig {
+    /** 每个后端地址等待获取连接的请求数上限，超出立即失败；-1 表示不限制 */
+    private int pendingAcquireMaxCount = 1000;
+
+    /** 是否使用 h2c（明文 HTTP/2，协商失败时回退 HTTP/1.1）连接后端 */
+    private boolean h2c = false;
+
+    /** 启动时为每个后端预建的连接数，0 表示不预热 */
+    private int warmupConnections = 2;
+
+    /**
+     * 替换网关默认的 HttpClient 工厂：每个后端地址一个独立连接池，可按副本单独设置连接数，并注册池指标
+     */
+    @Bean
+    public HttpClientFactory gatewayHttpClientFactory(HttpClientProperties properties, ServerProperties serverProperties,
+                                                      List<HttpClientCustomizer> customizers,
+                                                      HttpClientSslConfigurer sslConfigurer, GatewayConfig gatewayConfig,
+                                                      UpstreamPoolMetrics upstreamPoolMetrics) {
+        return new UpstreamHttpClientFactory(properties, serverProperties, sslConfigurer, customizers, this,
+                gatewayConfig, upstreamPoolMetrics);
+    }
+
+    /**
+     * 可选的 h2c：vLLM 前置了支持 HTTP/2 的代理时可复用单连接多路传输
+     */
+    @Bean
+    public HttpClientCustomizer h2cHttpClientCustomizer() {
+        return httpClient -> h2c ? httpClient.protocol(HttpProtocol.H2C, HttpProtocol.HTTP11) : httpClient;
+    }
+
+    /**
+     * 记录上游请求的计时点：取得连接开始发送请求、收到响应头。
+     * 计时对象由 ModelRouteFilter 写入订阅方的 Reactor Context，请求/响应回调中按 Context 取回
+     */
+    @Bean
+    public HttpClientCustomizer requestTimingHttpClientCustomizer() {
+        return httpClient -> httpClient
+                .doOnRequest((request, connection) -> request.currentContextView()
+                        .<RequestTiming>getOrEmpty(RequestTiming.class)
+                        .ifPresent(RequestTiming::markRequestSent))
+                .doOnResponse((response, connection) -> response.currentContextView()
+                        .<RequestTiming>getOrEmpty(RequestTiming.class)
+                        .ifPresent(RequestTiming::markResponseHeaders));
+    }
+}
@@ -0,0 +1,72 @@
+package com.zjsyinfo.gateway.config;
+
+import com.zjsyinfo.gateway.route.UpstreamPoolMetrics;
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.cloud.gateway.config.HttpClientCustomizer;
+import org.springframework.cloud.gateway.config.HttpClientFactory;
+import org.springframework.cloud.gateway.config.HttpClientProperties;
+import org.springframework.cloud.gateway.config.HttpClientSslConfigurer;
+import reactor.netty.resources.ConnectionProvider;
+import reactor.netty.transport.AddressUtils;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * 网关转发用 HttpClient 工厂：在 Spring Cloud Gateway 默认实现的基础上，
+ * 连接池固定大小并限制等待队列，按副本配置（vllm.model-pools[*].max-connections）单独设置连接数，
+ * 并始终向 {@link UpstreamPoolMetrics} 注册池指标。
+ */
+public class UpstreamHttpClientFactory extends HttpClientFactory {
+    private final UpstreamConfig upstreamConfig;
+    private final GatewayConfig gatewayConfig;
+    private final UpstreamPoolMetrics upstreamPoolMetrics;
+
+    public UpstreamHttpClientFactory(HttpClientProperties properties, ServerProperties serverProperties,
+                                     HttpClientSslConfigurer sslConfigurer, List<HttpClientCustomizer> customizers,
+                                     UpstreamConfig upstreamConfig, GatewayConfig gatewayConfig,
+                                     UpstreamPoolMetrics upstreamPoolMetrics) {
+        super(properties, serverProperties, sslConfigurer, customizers);
+        this.upstreamConfig = upstreamConfig;
+        this.gatewayConfig = gatewayConfig;
+        this.upstreamPoolMetrics = upstreamPoolMetrics;
+    }
+
+    @Override
+    protected ConnectionProvider buildConnectionProvider(HttpClientProperties properties) {
+        HttpClientProperties.Pool pool = properties.getPool();
+        if (pool.getType() == HttpClientProperties.Pool.PoolType.DISABLED) {
+            return super.buildConnectionProvider(properties);
+        }
+
+        ConnectionProvider.Builder builder = ConnectionProvider.builder(pool.getName());
+        builder.maxConnections(pool.getMaxConnections())
+                .pendingAcquireMaxCount(upstreamConfig.getPendingAcquireMaxCount())
+                .pendingAcquireTimeout(Duration.ofMillis(pool.getAcquireTimeout()))
+                .metrics(true, () -> upstreamPoolMetrics);
+        if (pool.getMaxIdleTime() != null) {
+            builder.maxIdleTime(pool.getMaxIdleTime());
+        }
+        if (pool.getMaxLifeTime() != null) {
+            builder.maxLifeTime(pool.getMaxLifeTime());
+        }
+        builder.evictInBackground(pool.getEvictionInterval());
+
+        // 按副本单独设置连接数（池按远端地址区分，地址需与 Reactor Netty 解析 URI 得到的一致）
+        if (gatewayConfig.getModelPools() != null) {
+            gatewayConfig.getModelPools().values().stream()
+                    .flatMap(List::stream)
+                    .filter(backend -> backend.getMaxConnections() != null)
+                    .forEach(backend -> {
+                        URI uri = URI.create(backend.getUrl());
+                        int port = uri.getPort() != -1 ? uri.getPort() : ("https".equals(uri.getScheme()) ? 443 : 80);
+                        builder.forRemoteHost(AddressUtils.createUnresolved(uri.getHost(), port),
+                                spec -> spec.maxConnections(backend.getMaxConnections())
+                                        .pendingAcquireMaxCount(upstreamConfig.getPendingAcquireMaxCount())
+                                        .pendingAcquireTimeout(Duration.ofMillis(pool.getAcquireTimeout())));
+                    });
+        }
+        return builder.build();
+    }
+}
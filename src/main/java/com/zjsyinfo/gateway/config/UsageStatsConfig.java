@@ -0,0 +1,35 @@
+package com.zjsyinfo.gateway.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 用量汇总配置（vllm.usage-stats）：按分钟在内存中汇总请求数、Token 数、错误数与时延分布，
+ * 定时写入 gateway_usage_rollups，并压缩为小时、天粒度
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "vllm.usage-stats")
+public class UsageStatsConfig {
+    /** 是否启用用量汇总 */
+    private boolean enabled = true;
+
+    /** 网关实例标识，参与分钟汇总文档的主键；为空时使用主机名与进程号 */
+    private String instanceId;
+
+    /** 分钟汇总写入间隔（毫秒），当前分钟会被多次覆盖写入 */
+    private long flushIntervalMs = 15000;
+
+    /** 压缩任务执行间隔（毫秒） */
+    private long compactIntervalMs = 300000;
+
+    /** 每次压缩重新计算的已结束小时数，覆盖各实例延迟写入的分钟数据 */
+    private int compactLookbackHours = 2;
+
+    /** 分钟汇总保留时长（小时） */
+    private int minuteRetentionHours = 48;
+
+    /** 小时汇总保留时长（天），天汇总不清理 */
+    private int hourRetentionDays = 90;
+}
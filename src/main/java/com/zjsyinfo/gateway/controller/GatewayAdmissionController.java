@@ -0,0 +1,33 @@
+package com.zjsyinfo.gateway.controller;
+
+import com.zjsyinfo.gateway.admission.AdmissionScheduler;
+import com.zjsyinfo.gateway.controller.dto.ApiResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * 准入排队状态查询接口
+ * @author zt
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/admission")
+@RequiredArgsConstructor
+public class GatewayAdmissionController {
+
+    private final AdmissionScheduler admissionScheduler;
+
+    /**
+     * 查询各副本池的在途数，以及各应用的排队深度与等待时间
+     * @return 副本池准入状态列表
+     */
+    @GetMapping
+    public ApiResponse<List<AdmissionScheduler.PoolStats>> stats() {
+        return ApiResponse.success(admissionScheduler.stats());
+    }
+}
@@ -1,6 +1,7 @@
 package com.zjsyinfo.gateway.controller;
 
 import com.mongoplus.model.PageResult;
+import com.zjsyinfo.gateway.cache.GatewayAppRegistry;
 import com.zjsyinfo.gateway.controller.dto.CreateAppRequest;
 import com.zjsyinfo.gateway.controller.dto.ApiResponse;
 import com.zjsyinfo.gateway.mongo.entity.GatewayApp;
@@ -24,6 +25,7 @@ import java.util.UUID;
 public class GatewayAppController {
     
     private final GatewayAppService gatewayAppService;
+    private final GatewayAppRegistry gatewayAppRegistry;
 
     /**
      * 创建应用
@@ -39,8 +41,15 @@ public class GatewayAppController {
         app.setExpireTime(request.getExpireTime());
         app.setStatus("normal");
         app.setRemark(request.getRemark());
+        app.setRpmLimit(request.getRpmLimit());
+        app.setTpmLimit(request.getTpmLimit());
+        app.setMaxConcurrentStreams(request.getMaxConcurrentStreams());
+        app.setWeight(request.getWeight());
+        app.setCacheEnabled(request.getCacheEnabled());
+        app.setModels(request.getModels());
         
         gatewayAppService.save(app);
+        gatewayAppRegistry.put(app);
         log.info("创建应用成功: orgName={}, apiKey={}", app.getOrgName(), app.getApiKey());
         
         return ApiResponse.success(app);
@@ -99,8 +108,15 @@ public class GatewayAppController {
         app.setOrgName(request.getOrgName());
         app.setExpireTime(request.getExpireTime());
         app.setRemark(request.getRemark());
+        app.setRpmLimit(request.getRpmLimit());
+        app.setTpmLimit(request.getTpmLimit());
+        app.setMaxConcurrentStreams(request.getMaxConcurrentStreams());
+        app.setWeight(request.getWeight());
+        app.setCacheEnabled(request.getCacheEnabled());
+        app.setModels(request.getModels());
         
         gatewayAppService.updateById(app);
+        gatewayAppRegistry.put(app);
         log.info("修改应用成功: id={}, orgName={}", id, app.getOrgName());
         
         return ApiResponse.success(app);
@@ -127,6 +143,7 @@ public class GatewayAppController {
         
         app.setStatus(status);
         gatewayAppService.updateById(app);
+        gatewayAppRegistry.put(app);
         log.info("修改应用状态成功: id={}, status={}", id, status);
         
         return ApiResponse.success(app);
@@ -146,6 +163,7 @@ public class GatewayAppController {
         }
         
         gatewayAppService.removeById(id);
+        gatewayAppRegistry.evict(app.getApiKey());
         log.info("删除应用成功: id={}, orgName={}", id, app.getOrgName());
         
         return ApiResponse.success(null);
@@ -0,0 +1,64 @@
+package com.zjsyinfo.gateway.controller;
+
+import com.zjsyinfo.gateway.accesslog.LogArchiveReader;
+import com.zjsyinfo.gateway.controller.dto.ApiResponse;
+import com.zjsyinfo.gateway.mongo.entity.GatewayLog;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * 访问日志归档查询接口：直接扫描本地归档文件，供离线分析使用
+ * @author zt
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/archives")
+@RequiredArgsConstructor
+public class GatewayArchiveController {
+
+    private final LogArchiveReader logArchiveReader;
+
+    /**
+     * 列出已归档的日期
+     * @return 日期、分片数与压缩后大小
+     */
+    @GetMapping
+    public ApiResponse<List<LogArchiveReader.ArchiveDay>> listDays() throws IOException {
+        return ApiResponse.success(logArchiveReader.listDays());
+    }
+
+    /**
+     * 以 NDJSON 流式返回某天的归档日志
+     * @param day 日期（yyyy-MM-dd）
+     * @param appId 应用ID（可选）
+     * @param model 请求模型（可选）
+     * @param status 调用状态（可选）
+     * @param limit 最多返回条数（可选，默认不限）
+     * @return 日志流，每行一条 JSON
+     */
+    @GetMapping(value = "/{day}", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<GatewayLog> scan(
+            @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate day,
+            @RequestParam(required = false) String appId,
+            @RequestParam(required = false) String model,
+            @RequestParam(required = false) String status,
+            @RequestParam(defaultValue = "-1") long limit) {
+        Flux<GatewayLog> logs = logArchiveReader.scan(day, logDoc ->
+                (appId == null || appId.equals(logDoc.getAppId()))
+                        && (model == null || model.equals(logDoc.getRequestModel()))
+                        && (status == null || status.equals(logDoc.getStatus())));
+        return limit >= 0 ? logs.take(limit) : logs;
+    }
+}
@@ -0,0 +1,45 @@
+package com.zjsyinfo.gateway.controller;
+
+import com.zjsyinfo.gateway.controller.dto.ApiResponse;
+import com.zjsyinfo.gateway.route.Backend;
+import com.zjsyinfo.gateway.route.BackendRegistry;
+import com.zjsyinfo.gateway.route.UpstreamPoolMetrics;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * 后端副本状态查询接口
+ * @author zt
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/backends")
+@RequiredArgsConstructor
+public class GatewayBackendController {
+
+    private final BackendRegistry backendRegistry;
+    private final UpstreamPoolMetrics upstreamPoolMetrics;
+
+    /**
+     * 查询全部后端副本的运行计数
+     * @return 副本列表，含在途请求数、累计请求数与失败数
+     */
+    @GetMapping
+    public ApiResponse<List<Backend.BackendStats>> listBackends() {
+        return ApiResponse.success(backendRegistry.getBackends().stream().map(Backend::stats).toList());
+    }
+
+    /**
+     * 查询转发连接池状态（每个后端地址一个池）
+     * @return 连接池列表，含使用中、空闲、已建立的连接数与等待获取连接的请求数
+     */
+    @GetMapping("/pools")
+    public ApiResponse<List<UpstreamPoolMetrics.PoolStats>> listPools() {
+        return ApiResponse.success(upstreamPoolMetrics.stats());
+    }
+}
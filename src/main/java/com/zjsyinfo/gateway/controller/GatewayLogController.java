@@ -1,13 +1,19 @@
 package com.zjsyinfo.gateway.controller;
 
 import com.mongoplus.model.PageResult;
+import com.zjsyinfo.gateway.accesslog.AccessLogWriter;
 import com.zjsyinfo.gateway.controller.dto.ApiResponse;
+import com.zjsyinfo.gateway.controller.dto.CursorPage;
 import com.zjsyinfo.gateway.mongo.entity.GatewayLog;
 import com.zjsyinfo.gateway.mongo.service.GatewayLogService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.Date;
+import java.util.List;
+
 /**
  * 网关日志查询接口
  * @author zt
@@ -17,8 +23,11 @@ import org.springframework.web.bind.annotation.*;
 @RequestMapping("/api/logs")
 @RequiredArgsConstructor
 public class GatewayLogController {
-    
+    /** 游标翻页单页最大条数 */
+    private static final int MAX_CURSOR_LIMIT = 500;
+
     private final GatewayLogService gatewayLogService;
+    private final AccessLogWriter accessLogWriter;
 
     /**
      * 分页查询日志列表
@@ -39,4 +48,66 @@ public class GatewayLogController {
         
         return ApiResponse.success(pageResult);
     }
+
+    /**
+     * 游标翻页查询日志列表，深翻页代价与首页相同，适合大数据量下的日志浏览与导出
+     * @param appId 应用ID（可选）
+     * @param model 请求模型（可选）
+     * @param status 调用状态（可选）
+     * @param from 起始时间（ISO-8601，可选，含）
+     * @param to 结束时间（ISO-8601，可选，不含）
+     * @param cursor 上一页返回的 nextCursor（首页不传）
+     * @param limit 每页条数（默认20，最大500）
+     * @return 本页日志与下一页游标，按创建时间倒序排列
+     */
+    @GetMapping("/cursor")
+    public ApiResponse<CursorPage<GatewayLog>> listLogsByCursor(
+            @RequestParam(required = false) String appId,
+            @RequestParam(required = false) String model,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Date from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Date to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit) {
+
+        // 游标格式：<上一页最后一条的创建时间毫秒数>.<已返回的同一时间的条数>
+        Date cursorTime = null;
+        int cursorSkip = 0;
+        if (cursor != null && !cursor.isEmpty()) {
+            try {
+                int dot = cursor.indexOf('.');
+                cursorTime = new Date(Long.parseLong(cursor.substring(0, dot)));
+                cursorSkip = Integer.parseInt(cursor.substring(dot + 1));
+            } catch (RuntimeException e) {
+                return ApiResponse.error("游标无效");
+            }
+        }
+        int pageSize = Math.max(1, Math.min(limit, MAX_CURSOR_LIMIT));
+
+        List<GatewayLog> records = gatewayLogService.listByCursor(appId, model, status, from, to,
+                cursorTime, cursorSkip, pageSize);
+        String nextCursor = null;
+        if (records.size() == pageSize) {
+            // 本页末尾与最后一条创建时间相同的条数，若与游标时间相同则累加上一页已跳过的条数
+            Date lastTime = records.get(records.size() - 1).getCreateTime();
+            int ties = 0;
+            for (int i = records.size() - 1; i >= 0 && lastTime.equals(records.get(i).getCreateTime()); i--) {
+                ties++;
+            }
+            if (lastTime.equals(cursorTime)) {
+                ties += cursorSkip;
+            }
+            nextCursor = lastTime.getTime() + "." + ties;
+        }
+        return ApiResponse.success(new CursorPage<>(records, nextCursor));
+    }
+
+    /**
+     * 查询访问日志写入器运行计数
+     * @return 入队、写入、丢弃条数及批量写入耗时
+     */
+    @GetMapping("/writer-stats")
+    public ApiResponse<AccessLogWriter.Stats> writerStats() {
+        return ApiResponse.success(accessLogWriter.getStats());
+    }
 }
@@ -0,0 +1,80 @@
+package com.zjsyinfo.gateway.controller;
+
+import com.zjsyinfo.gateway.controller.dto.ApiResponse;
+import com.zjsyinfo.gateway.stats.UsageRollupAggregator;
+import com.zjsyinfo.gateway.stats.UsageStatsService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 用量统计接口：基于 gateway_usage_rollups 汇总数据查询，不扫描访问日志
+ * @author zt
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/stats")
+@RequiredArgsConstructor
+public class GatewayStatsController {
+    private static final Set<String> GRANULARITIES = Set.of(UsageRollupAggregator.MINUTE,
+            UsageRollupAggregator.HOUR, UsageRollupAggregator.DAY);
+
+    private final UsageStatsService usageStatsService;
+
+    /**
+     * 查询用量（请求数、错误数、缓存命中数、Token 数），按时间桶、应用、模型分组
+     * @param granularity 粒度（minute / hour / day，默认 hour）
+     * @param from 起始时间（ISO-8601，默认结束时间前 24 小时）
+     * @param to 结束时间（ISO-8601，默认当前时间）
+     * @param appId 应用ID（可选）
+     * @param model 模型（可选）
+     * @return 用量数据点，按时间桶升序排列
+     */
+    @GetMapping("/usage")
+    public ApiResponse<List<UsageStatsService.UsagePoint>> usage(
+            @RequestParam(defaultValue = UsageRollupAggregator.HOUR) String granularity,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Date from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Date to,
+            @RequestParam(required = false) String appId,
+            @RequestParam(required = false) String model) {
+        if (!GRANULARITIES.contains(granularity)) {
+            return ApiResponse.error("粒度只能为 minute、hour 或 day");
+        }
+        Date end = to != null ? to : new Date();
+        Date begin = from != null ? from : new Date(end.getTime() - TimeUnit.DAYS.toMillis(1));
+        return ApiResponse.success(usageStatsService.usage(granularity, begin, end, appId, model));
+    }
+
+    /**
+     * 查询响应耗时（平均值、P50/P90/P99、最大值），按时间桶、应用、模型分组
+     * @param granularity 粒度（minute / hour / day，默认 hour）
+     * @param from 起始时间（ISO-8601，默认结束时间前 24 小时）
+     * @param to 结束时间（ISO-8601，默认当前时间）
+     * @param appId 应用ID（可选）
+     * @param model 模型（可选）
+     * @return 耗时数据点，按时间桶升序排列
+     */
+    @GetMapping("/latency")
+    public ApiResponse<List<UsageStatsService.LatencyPoint>> latency(
+            @RequestParam(defaultValue = UsageRollupAggregator.HOUR) String granularity,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Date from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Date to,
+            @RequestParam(required = false) String appId,
+            @RequestParam(required = false) String model) {
+        if (!GRANULARITIES.contains(granularity)) {
+            return ApiResponse.error("粒度只能为 minute、hour 或 day");
+        }
+        Date end = to != null ? to : new Date();
+        Date begin = from != null ? from : new Date(end.getTime() - TimeUnit.DAYS.toMillis(1));
+        return ApiResponse.success(usageStatsService.latency(granularity, begin, end, appId, model));
+    }
+}
@@ -3,6 +3,7 @@ package com.zjsyinfo.gateway.controller.dto;
 import lombok.Data;
 
 import java.util.Date;
+import java.util.List;
 
 /**
  * 创建应用请求
@@ -17,4 +18,22 @@ public class CreateAppRequest {
     
     /** 备注信息 */
     private String remark;
+
+    /** 每分钟请求数上限（RPM），为空表示不限制 */
+    private Integer rpmLimit;
+
+    /** 每分钟 Token 数上限（TPM），为空表示不限制 */
+    private Integer tpmLimit;
+
+    /** 最大并发流（请求）数，为空表示不限制 */
+    private Integer maxConcurrentStreams;
+
+    /** 准入排队权重，副本池满载时按权重分配放行份额，为空按 1 处理 */
+    private Integer weight;
+
+    /** 是否对该应用启用响应缓存（仅 temperature 为 0 的请求） */
+    private Boolean cacheEnabled;
+
+    /** 允许调用的模型名列表，为空表示不限制 */
+    private List<String> models;
 }
@@ -0,0 +1,21 @@
+package com.zjsyinfo.gateway.controller.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 游标翻页结果
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPage<T> {
+    /** 本页数据 */
+    private List<T> records;
+
+    /** 下一页游标，为 null 表示没有更多数据 */
+    private String nextCursor;
+}
@@ -1,10 +1,16 @@
 package com.zjsyinfo.gateway.filter;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zjsyinfo.gateway.accesslog.AccessLogWriter;
+import com.zjsyinfo.gateway.limit.AppRateLimiter;
+import com.zjsyinfo.gateway.metrics.LlmMetrics;
 import com.zjsyinfo.gateway.mongo.entity.GatewayApp;
 import com.zjsyinfo.gateway.mongo.entity.GatewayLog;
 import com.zjsyinfo.gateway.mongo.service.GatewayAppService;
-import com.zjsyinfo.gateway.mongo.service.GatewayLogService;
+import com.zjsyinfo.gateway.stats.UsageRollupAggregator;
+import com.zjsyinfo.gateway.usage.JsonUsageTokenizer;
+import com.zjsyinfo.gateway.usage.SseUsageScanner;
+import com.zjsyinfo.gateway.usage.TokenUsage;
+import com.zjsyinfo.gateway.usage.UsageScanner;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.reactivestreams.Publisher;
@@ -13,6 +19,7 @@ import org.springframework.cloud.gateway.filter.GlobalFilter;
 import org.springframework.core.Ordered;
 import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.MediaType;
 import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.http.server.reactive.ServerHttpResponse;
 import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
@@ -20,15 +27,18 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.server.ServerWebExchange;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
 
 import java.net.InetSocketAddress;
-import java.nio.charset.StandardCharsets;
 import java.util.Date;
-import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
 
 /**
- * 访问日志过滤器：记录每次调用的关键指标到 MongoDB（gateway_logs）。
- * 采集字段：create_time, app_id, token_count(可空), status, request_ip, request_path, response_time。
+ * 访问日志过滤器：记录每次调用的关键指标到 MongoDB（gateway_logs），由 AccessLogWriter 异步批量写入。
+ * 采集字段：create_time, app_id, token_count(可空), status, request_ip, request_model, request_path, response_time，
+ * 以及 backend、prompt/completion tokens 与各阶段耗时（auth/queue/connect/header/first_event_time, chunk_count）。
+ * 客户端中途断开的请求记为 cancelled，token 数为断开前已生成的部分。
  * @author zt
  */
 @Slf4j
@@ -36,12 +46,14 @@ import java.util.Map;
 @RequiredArgsConstructor
 public class AccessLogFilter implements GlobalFilter, Ordered {
     private final GatewayAppService gatewayAppService;
-    private final GatewayLogService gatewayLogService;
-    private final ObjectMapper objectMapper;
+    private final AccessLogWriter accessLogWriter;
+    private final AppRateLimiter appRateLimiter;
+    private final LlmMetrics llmMetrics;
+    private final UsageRollupAggregator usageRollupAggregator;
 
     /**
      * 过滤链：记录耗时与调用状态，并尝试从响应体中解析 usage.total_tokens 作为 token_count。
-     * 注意：不修改响应语义，仅复制原始响应内容后写回。
+     * 注意：不修改响应语义，响应内容原样写回。
      * @param exchange 当前请求/响应上下文
      * @param chain    过滤器链
      * @return 异步处理结果
@@ -49,134 +61,141 @@ public class AccessLogFilter implements GlobalFilter, Ordered {
     @Override
     public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
         long start = System.currentTimeMillis();
+        long startNanos = System.nanoTime();
         ServerHttpRequest request = exchange.getRequest();
         ServerHttpResponse response = exchange.getResponse();
         String path = request.getPath().value();
+        RequestTiming timing = RequestTiming.of(exchange);
+        // 响应结束、出错与取消可能先后触发，每个请求只记录一次
+        AtomicBoolean logged = new AtomicBoolean();
+        // 已开始写响应时，取消由写出端收尾记录（含已生成部分的用量）
+        AtomicBoolean writing = new AtomicBoolean();
 
         // 提取 IP
         InetSocketAddress remoteAddr = request.getRemoteAddress();
         String requestIp = remoteAddr != null ? remoteAddr.getAddress().getHostAddress() : "unknown";
 
-        // 提取 API Key（OpenAI 规范：Authorization: Bearer <key>）
-        String authHeader = request.getHeaders().getFirst("Authorization");
-        final String apiKey;  // 声明为 final 以便在 lambda 中使用
-        if (authHeader != null && authHeader.startsWith("Bearer ")) {
-            apiKey = authHeader.substring(7).trim();
-        } else {
-            apiKey = null;
-        }
         // 装饰响应以便解析响应体，从而记录 token_count 与状态
         ServerHttpResponseDecorator decoratedResponse = new ServerHttpResponseDecorator(response) {
-            private final StringBuilder fullResponse = new StringBuilder();
-            private Integer totalTokens = null;
 
             /**
-             * 拦截响应写出过程，提取响应体并复制写回，同时记录访问日志。
+             * 拦截响应写出过程，增量扫描响应体中的 usage 并原样写回，同时记录访问日志。
+             * 扫描直接在 DataBuffer 字节上进行，不复制、不累积响应体。
              */
             @Override
             public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
                 if (body instanceof Flux) {
                     Flux<? extends DataBuffer> fluxBody = (Flux<? extends DataBuffer>) body;
-                    return super.writeWith(fluxBody.doOnNext(dataBuffer -> {
-                        // 使用 slice 读取而不消耗 buffer，保持流式传输
-                        byte[] content = new byte[dataBuffer.readableByteCount()];
-                        dataBuffer.slice(0, dataBuffer.readableByteCount()).read(content);
-                        String chunk = new String(content, StandardCharsets.UTF_8);
-                        fullResponse.append(chunk);
-
-                        // 尝试从当前 chunk 提取 token（流式输出时每个 chunk 都可能包含 usage）
-                        Integer tokens = extractTokensFromChunk(chunk);
-                        if (tokens != null) {
-                            totalTokens = tokens;
-                        }
-                    }).doFinally(signalType -> {
-                        // 流结束时记录日志
-                        String status = (getStatusCode() != null && getStatusCode().is2xxSuccessful()) ? "success" : "error";
-
-                        // 如果之前没有从 chunk 中提取到，尝试从完整响应体提取（非流式情况）
-                        if (totalTokens == null) {
-                            totalTokens = extractTokensFromResponse(fullResponse.toString());
-                        }
-
-                        writeAccessLog(apiKey, requestIp, path, System.currentTimeMillis() - start, status, totalTokens, null);
-                    }));
+                    UsageScanner usageScanner = usageScanner();
+                    writing.set(true);
+                    return super.writeWith(fluxBody.doOnNext(chunk -> {
+                                timing.onChunk();
+                                usageScanner.feed(chunk);
+                            })
+                            .doFinally(signalType -> onComplete(usageScanner, signalType)));
                 }
                 return super.writeWith(body);
             }
-        };
-
-        return chain.filter(exchange.mutate().response(decoratedResponse).build()).doOnError(err -> {
-            // 异常场景也记录日志
-            writeAccessLog(apiKey, requestIp, path, System.currentTimeMillis() - start, "error", null,null);
-        });
-    }
 
-    /**
-     * 从 SSE chunk 中提取 token 信息（流式输出）
-     * OpenAI 流式格式：data: {"choices":[...],"usage":{"total_tokens":123}}
-     */
-    private Integer extractTokensFromChunk(String chunk) {
-        try {
-            // SSE 格式处理：提取 data: 后面的 JSON
-            String[] lines = chunk.split("\n");
-            for (String line : lines) {
-                if (line.startsWith("data: ") && !line.contains("[DONE]")) {
-                    String json = line.substring(6).trim();
-                    if (!json.isEmpty()) {
-                        Map<?, ?> data = objectMapper.readValue(json, Map.class);
-                        Object usage = data.get("usage");
-                        if (usage instanceof Map<?, ?> usageMap) {
-                            Object totalTokens = usageMap.get("total_tokens");
-                            if (totalTokens instanceof Number) {
-                                return ((Number) totalTokens).intValue();
+            /**
+             * 流式响应（SSE）由网关逐 chunk 写出并刷新，同样扫描 usage 并在流结束时记录日志；
+             * 同时记录首 chunk 时延、chunk 间隔、输出速率与在途流数指标。
+             */
+            @Override
+            public Mono<Void> writeAndFlushWith(Publisher<? extends Publisher<? extends DataBuffer>> body) {
+                UsageScanner usageScanner = usageScanner();
+                writing.set(true);
+                GatewayApp app = exchange.getAttribute(GatewayAttributes.GATEWAY_APP);
+                LlmMetrics.StreamObservation observation = llmMetrics.startStream(
+                        exchange.getAttribute(GatewayAttributes.MODEL), exchange.getAttribute(GatewayAttributes.BACKEND),
+                        app != null ? app.getId() : null, startNanos);
+                AtomicBoolean cancelled = new AtomicBoolean();
+                // 每个流只创建一次，逐 chunk 记录与扫描不分配对象
+                Consumer<DataBuffer> feed = usageScanner::feed;
+                Flux<? extends Publisher<? extends DataBuffer>> chunks = Flux.from(body)
+                        .doOnNext(chunk -> {
+                            observation.onChunk();
+                            timing.onEvent();
+                        })
+                        .map(chunk -> ResponseChunks.peek(chunk, feed))
+                        .doOnCancel(() -> cancelled.set(true));
+                // 外层发布者会先于内层 chunk 结束（写出端以预取方式逐个消费内层），
+                // 收尾须挂在写出完成的 Mono 上，此时 usage 才已全部扫描
+                return super.writeAndFlushWith(chunks)
+                        .doFinally(finalSignal -> {
+                            SignalType signalType = cancelled.get() ? SignalType.CANCEL : finalSignal;
+                            if (signalType == SignalType.CANCEL) {
+                                TokenUsage partial = usageScanner.getPartialUsage();
+                                observation.cancel(partial != null ? partial.completionTokens() : null);
+                            } else {
+                                TokenUsage usage = usageScanner.getUsage();
+                                observation.finish(usage != null ? usage.completionTokens() : null);
                             }
-                        }
-                    }
-                }
+                            onComplete(usageScanner, signalType);
+                        });
             }
-        } catch (Exception ignore) {
-        }
-        return null;
-    }
 
-    /**
-     * 从完整响应体中提取 token 信息（非流式输出）
-     * OpenAI 非流式格式：{"choices":[...],"usage":{"total_tokens":123}}
-     */
-    private Integer extractTokensFromResponse(String respBody) {
-        try {
-            Map<?, ?> root = objectMapper.readValue(respBody, Map.class);
-            Object usage = root.get("usage");
-            if (usage instanceof Map<?, ?> usageMap) {
-                Object totalTokens = usageMap.get("total_tokens");
-                if (totalTokens instanceof Number) {
-                    return ((Number) totalTokens).intValue();
+            private UsageScanner usageScanner() {
+                MediaType contentType = getHeaders().getContentType();
+                return contentType != null && MediaType.TEXT_EVENT_STREAM.isCompatibleWith(contentType)
+                        ? new SseUsageScanner() : new JsonUsageTokenizer();
+            }
+
+            private void onComplete(UsageScanner usageScanner, SignalType signalType) {
+                // 流结束时记录日志；客户端断开（取消）时记录已生成部分的用量
+                if (!logged.compareAndSet(false, true)) {
+                    return;
+                }
+                if (signalType == SignalType.CANCEL) {
+                    writeAccessLog(exchange, requestIp, path, System.currentTimeMillis() - start, "cancelled",
+                            usageScanner.getPartialUsage());
+                    return;
                 }
+                String status = (getStatusCode() != null && getStatusCode().is2xxSuccessful()) ? "success" : "error";
+                writeAccessLog(exchange, requestIp, path, System.currentTimeMillis() - start, status,
+                        usageScanner.getUsage());
             }
-        } catch (Exception ignore) {
-        }
-        return null;
+        };
+
+        return chain.filter(exchange.mutate().response(decoratedResponse).build())
+                .doOnError(err -> {
+                    // 异常场景也记录日志
+                    if (logged.compareAndSet(false, true)) {
+                        writeAccessLog(exchange, requestIp, path, System.currentTimeMillis() - start, "error", null);
+                    }
+                })
+                .doOnCancel(() -> {
+                    // 尚未开始写响应时客户端即断开（如排队、等待上游响应头）
+                    if (!writing.get() && logged.compareAndSet(false, true)) {
+                        writeAccessLog(exchange, requestIp, path, System.currentTimeMillis() - start, "cancelled", null);
+                    }
+                });
     }
 
     /**
-     * 写入访问日志，并更新应用的最近使用时间。
-     * @param apiKey      请求使用的 API Key
+     * 写入访问日志，更新应用的最近使用时间，并按实际用量扣减应用的 TPM 配额。
+     * 应用、模型、副本、缓存命中与各阶段耗时均取自 exchange 属性。
+     * @param exchange    当前请求上下文
      * @param requestIp   请求来源 IP
      * @param path        请求路径
      * @param durationMs  响应耗时（毫秒）
-     * @param status      调用状态（success/error）
-     * @param tokenCount  本次调用产生的 Token 数（如无法获取则为 null）
+     * @param status      调用状态（success/error/cancelled）
+     * @param usage       响应中的 usage（取消时为已生成部分的估算值；如无法获取则为 null）
      */
-    private void writeAccessLog(String apiKey, String requestIp, String path, long durationMs,
-                                String status, Integer tokenCount, String model) {
+    private void writeAccessLog(ServerWebExchange exchange, String requestIp, String path, long durationMs,
+                                String status, TokenUsage usage) {
         try {
+            GatewayApp app = exchange.getAttribute(GatewayAttributes.GATEWAY_APP);
+            boolean cacheHit = exchange.getAttribute(GatewayAttributes.CACHE_HIT) != null;
+            Integer tokenCount = usage != null ? usage.totalTokens() : null;
             String appId = null;
-            if (apiKey != null && !apiKey.isEmpty()) {
-                GatewayApp app = gatewayAppService.getByApiKey(apiKey);
-                if (app != null) {
-                    appId = app.getId();
-                    // 更新最近使用时间
-                    gatewayAppService.updateLastUsedTime(appId);
+            if (app != null) {
+                appId = app.getId();
+                // 更新最近使用时间
+                gatewayAppService.updateLastUsedTime(appId);
+                // 事后扣减 TPM 令牌桶（缓存命中未占用 GPU，不扣减）
+                if (!cacheHit) {
+                    appRateLimiter.debitTokens(app, tokenCount);
                 }
             }
 
@@ -188,9 +207,26 @@ public class AccessLogFilter implements GlobalFilter, Ordered {
             logDoc.setRequestIp(requestIp);
             logDoc.setRequestPath(path);
             logDoc.setResponseTime(durationMs);
-            logDoc.setRequestModel(model);
+            logDoc.setRequestModel(exchange.getAttribute(GatewayAttributes.MODEL));
+            logDoc.setCacheHit(cacheHit);
+            logDoc.setBackend(exchange.getAttribute(GatewayAttributes.BACKEND));
+            if (usage != null) {
+                logDoc.setPromptTokens(usage.promptTokens());
+                logDoc.setCompletionTokens(usage.completionTokens());
+            }
 
-            gatewayLogService.save(logDoc);
+            // 各阶段耗时：鉴权、排队、获取连接、响应头、首个 SSE 事件
+            RequestTiming timing = RequestTiming.of(exchange);
+            logDoc.setAuthTime(timing.authMillis());
+            logDoc.setQueueTime(timing.queueMillis());
+            logDoc.setConnectTime(timing.connectMillis());
+            logDoc.setHeaderTime(timing.headersMillis());
+            logDoc.setFirstEventTime(timing.firstEventMillis());
+            logDoc.setChunkCount(timing.getChunkCount());
+
+            // 计入分钟用量汇总（不受日志采样、丢弃影响），再异步批量写入，不阻塞请求线程
+            usageRollupAggregator.record(logDoc);
+            accessLogWriter.submit(logDoc);
         } catch (Exception e) {
             // 不影响主流程，仅记录错误
             log.error("写入访问日志失败", e);
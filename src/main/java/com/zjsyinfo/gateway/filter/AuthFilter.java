@@ -1,10 +1,10 @@
 package com.zjsyinfo.gateway.filter;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zjsyinfo.gateway.cache.GatewayAppRegistry;
 import com.zjsyinfo.gateway.config.GatewayConfig;
 import com.zjsyinfo.gateway.exception.AppStatusException;
 import com.zjsyinfo.gateway.mongo.entity.GatewayApp;
-import com.zjsyinfo.gateway.mongo.service.GatewayAppService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.cloud.gateway.filter.GatewayFilterChain;
@@ -21,6 +21,7 @@ import reactor.core.publisher.Mono;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
 
 /**
  * API Key 鉴权过滤器（对齐 OpenAI Authorization: Bearer <api-key> 规范）
@@ -30,18 +31,20 @@ import java.util.Map;
 @RequiredArgsConstructor
 public class AuthFilter implements GlobalFilter, Ordered {
     private final ObjectMapper objectMapper;
-    private final GatewayAppService gatewayAppService;
+    private final GatewayAppRegistry gatewayAppRegistry;
 
     /**
      * 鉴权过滤逻辑：
      * 1. 提取请求头 Authorization，要求前缀为 "Bearer "。
-     * 2. 校验 API Key 是否存在于配置的白名单中（vllm.api-keys）。
-     * 3. 失败返回 OpenAI 风格错误；成功则继续后续过滤链。
+     * 2. 从本地应用注册表中查找 API Key 对应的应用（不在请求线程上访问 MongoDB）。
+     * 3. 失败返回 OpenAI 风格错误；成功则将应用写入 exchange 属性并继续后续过滤链。
      */
     @Override
     public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
         ServerHttpRequest request = exchange.getRequest();
         ServerHttpResponse response = exchange.getResponse();
+        // 请求计时从此处开始（最先执行的过滤器）
+        RequestTiming.of(exchange);
 
         // 提取 OpenAI 原生鉴权头
         String authHeader = request.getHeaders().getFirst("Authorization");
@@ -49,13 +52,25 @@ public class AuthFilter implements GlobalFilter, Ordered {
             return returnAuthError(response, "No API key provided");
         }
 
-        // 校验 API Key
+        // 校验 API Key：优先命中内存，未命中时由注册表异步回源
         String apiKey = authHeader.substring(7).trim();
-        GatewayApp gatewayApp = gatewayAppService.getByApiKey(apiKey);
-        if (gatewayApp == null) {
-            log.warn("鉴权失败，无效 API Key");
-            return returnAuthError(response, "Incorrect API key provided");
+        GatewayApp cached = gatewayAppRegistry.get(apiKey);
+        if (cached != null) {
+            return authorize(exchange, chain, cached);
         }
+        return gatewayAppRegistry.resolve(apiKey)
+                .map(Optional::of)
+                .defaultIfEmpty(Optional.empty())
+                .flatMap(gatewayApp -> gatewayApp.isPresent()
+                        ? authorize(exchange, chain, gatewayApp.get())
+                        : invalidApiKey(response));
+    }
+
+    /**
+     * 校验应用状态与有效期，通过后将应用写入 exchange 属性供后续过滤器使用。
+     */
+    private Mono<Void> authorize(ServerWebExchange exchange, GatewayFilterChain chain, GatewayApp gatewayApp) {
+        ServerHttpResponse response = exchange.getResponse();
 
         // 校验应用状态
         if (!"normal".equals(gatewayApp.getStatus())) {
@@ -71,9 +86,19 @@ public class AuthFilter implements GlobalFilter, Ordered {
         }
 
         // 鉴权通过，透传请求
+        exchange.getAttributes().put(GatewayAttributes.GATEWAY_APP, gatewayApp);
+        RequestTiming.of(exchange).markAuthenticated();
         return chain.filter(exchange);
     }
 
+    /**
+     * 返回无效 API Key 错误
+     */
+    private Mono<Void> invalidApiKey(ServerHttpResponse response) {
+        log.warn("鉴权失败，无效 API Key");
+        return returnAuthError(response, "Incorrect API key provided");
+    }
+
     /**
      * 返回 OpenAI 格式的鉴权错误
      */
@@ -0,0 +1,34 @@
+package com.zjsyinfo.gateway.filter;
+
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.RouteToRequestUrlFilter;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+
+/**
+ * 后端地址过滤器：RouteToRequestUrlFilter 会用路由配置的 uri 覆盖请求地址，
+ * 因此在它之后把 ModelRouteFilter 选定的副本地址写回 GATEWAY_REQUEST_URL_ATTR，交由 NettyRoutingFilter 转发。
+ */
+@Component
+public class BackendRequestUrlFilter implements GlobalFilter, Ordered {
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        URI backendUrl = exchange.getAttribute(GatewayAttributes.BACKEND_URL);
+        if (backendUrl != null) {
+            exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_REQUEST_URL_ATTR, backendUrl);
+        }
+        return chain.filter(exchange);
+    }
+
+    @Override
+    public int getOrder() {
+        return RouteToRequestUrlFilter.ROUTE_TO_URL_FILTER_ORDER + 1;
+    }
+}
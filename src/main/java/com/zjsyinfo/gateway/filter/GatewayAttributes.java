@@ -0,0 +1,24 @@
+package com.zjsyinfo.gateway.filter;
+
+/**
+ * 过滤器之间通过 exchange 属性传递数据时使用的属性名。
+ */
+public final class GatewayAttributes {
+    /** 鉴权通过后解析出的应用（GatewayApp），由 AuthFilter 写入 */
+    public static final String GATEWAY_APP = GatewayAttributes.class.getName() + ".gatewayApp";
+
+    /** 本次请求由响应缓存直接返回（Boolean），由 ModelRouteFilter 写入 */
+    public static final String CACHE_HIT = GatewayAttributes.class.getName() + ".cacheHit";
+
+    /** ModelRouteFilter 选定的后端目标地址（URI），由 BackendRequestUrlFilter 交给 NettyRoutingFilter */
+    public static final String BACKEND_URL = GatewayAttributes.class.getName() + ".backendUrl";
+
+    /** 请求体中的模型名（String），由 ModelRouteFilter 写入 */
+    public static final String MODEL = GatewayAttributes.class.getName() + ".model";
+
+    /** 选定的后端副本地址（String），由 ModelRouteFilter 写入 */
+    public static final String BACKEND = GatewayAttributes.class.getName() + ".backend";
+
+    private GatewayAttributes() {
+    }
+}
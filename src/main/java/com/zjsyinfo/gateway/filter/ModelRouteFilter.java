@@ -1,40 +1,83 @@
 package com.zjsyinfo.gateway.filter;
 
-import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.zjsyinfo.gateway.config.GatewayConfig;
+import com.zjsyinfo.gateway.admission.AdmissionRejectedException;
+import com.zjsyinfo.gateway.admission.AdmissionScheduler;
+import com.zjsyinfo.gateway.cache.ResponseCache;
+import com.zjsyinfo.gateway.config.HealthCheckConfig;
+import com.zjsyinfo.gateway.config.ResponseCacheConfig;
+import com.zjsyinfo.gateway.config.RetryConfig;
+import com.zjsyinfo.gateway.config.RoutingConfig;
+import com.zjsyinfo.gateway.mongo.entity.GatewayApp;
+import com.zjsyinfo.gateway.route.Backend;
+import com.zjsyinfo.gateway.route.BackendRegistry;
+import com.zjsyinfo.gateway.route.ConsistentHashRing;
+import com.zjsyinfo.gateway.route.ModelCatalog;
+import com.zjsyinfo.gateway.route.ModelPool;
+import com.zjsyinfo.gateway.route.RequestBodyScanner;
+import com.zjsyinfo.gateway.route.RetryingUpstreamClient;
+import io.netty.handler.timeout.ReadTimeoutException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.gateway.filter.headers.HttpHeadersFilter;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
 import org.springframework.cloud.gateway.filter.GatewayFilterChain;
 import org.springframework.cloud.gateway.filter.GlobalFilter;
 import org.springframework.core.Ordered;
 import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
 import org.springframework.http.HttpHeaders;
-import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
 import org.springframework.http.MediaType;
 import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpRequestDecorator;
 import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
 import org.springframework.stereotype.Component;
-import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.server.ResponseStatusException;
 import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+import reactor.netty.Connection;
 
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 /**
- * 动态路由过滤器：纯转发 vLLM 所有接口（含 /v1/models），无手写/改写
+ * 动态路由过滤器：按请求体中的 model 选择副本，目标地址写入 exchange 后交由网关的 NettyRoutingFilter 转发（请求/响应不改写）；
+ * 开启重试（vllm.retry）时，可重放的非流式请求改由 {@link RetryingUpstreamClient} 发送，支持换副本重试与对冲；
+ * /v1/models 由网关聚合返回
  */
 @Slf4j
 @Component
 @RequiredArgsConstructor
 public class ModelRouteFilter implements GlobalFilter, Ordered {
     private final ObjectMapper objectMapper;
-    private final GatewayConfig gatewayConfig;
-    private final WebClient.Builder webClientBuilder;
+    private final BackendRegistry backendRegistry;
+    private final RoutingConfig routingConfig;
+    private final HealthCheckConfig healthCheckConfig;
+    private final AdmissionScheduler admissionScheduler;
+    private final ResponseCache responseCache;
+    private final ResponseCacheConfig responseCacheConfig;
+    private final ModelCatalog modelCatalog;
+    private final RetryConfig retryConfig;
+    private final RetryingUpstreamClient retryingUpstreamClient;
+    private final ObjectProvider<List<HttpHeadersFilter>> headersFiltersProvider;
 
     @Override
     public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
@@ -52,120 +95,275 @@ public class ModelRouteFilter implements GlobalFilter, Ordered {
             return chain.filter(exchange);
         }
 
-        // 2. /v1/models 是 GET 方法，无请求体，直接路由
+        // 2. /v1/models 是 GET 方法，由网关聚合全部副本的模型列表后返回
         if ("/v1/models".equals(path) && "GET".equals(request.getMethod().name())) {
-            return routeModelsRequest(exchange, chain, request, response);
+            return routeModelsRequest(exchange, response);
         }
 
-        // 3. POST 接口（chat/completions/completions）：读取请求体后路由
-        return DataBufferUtils.join(request.getBody())
-                .flatMap(dataBuffer -> routePostRequest(exchange, chain, request, response, dataBuffer))
-                .onErrorResume(e -> {
-                    log.error("读取 POST 请求体失败", e);
-                    return returnError(response, "Invalid request body", "invalid_request_error");
-                });
+        // 3. POST 接口（chat/completions/completions）：流式扫描请求体直到找到 model，
+        //    之后的 chunk 不再扫描；原始 DataBuffer（池化、引用计数）不复制，直接转发给后端。
+        //    请求可能重试时同时提取 stream，流式请求不重试，也就无需为重放读取完整请求体
+        RoutingConfig.Affinity affinity = routingConfig.getAffinity();
+        long contentLength = request.getHeaders().getContentLength();
+        boolean mayRetry = retryConfig.isEnabled() && contentLength > 0
+                && contentLength <= retryConfig.getMaxRequestBytes();
+        RequestBodyScanner scanner = new RequestBodyScanner(affinity.getKey() == RoutingConfig.AffinityKey.USER,
+                affinity.getKey() == RoutingConfig.AffinityKey.PREFIX ? affinity.getPrefixBytes() : 0, mayRetry);
+        return request.getBody()
+                .bufferUntil(dataBuffer -> scanner.isDone() || scanner.feed(dataBuffer))
+                .switchOnFirst((signal, bodyChunks) -> {
+                    if (signal.isOnError()) {
+                        log.error("读取 POST 请求体失败", signal.getThrowable());
+                        return returnError(response, "Invalid request body", "invalid_request_error");
+                    }
+                    return routePostRequest(exchange, chain, request, response, scanner.getModel(),
+                            affinityHash(request, scanner), mayRetry && !scanner.isStream(),
+                            bodyChunks.concatMapIterable(Function.identity()));
+                })
+                .doOnDiscard(DataBuffer.class, DataBufferUtils::release)
+                .then();
     }
 
     /**
-     * 处理 /v1/models GET 请求（纯路由，无请求体）
+     * 处理 /v1/models GET 请求：返回全部副本模型列表的聚合结果（按 TTL 缓存），只包含调用方应用允许使用的模型
      */
-    private Mono<Void> routeModelsRequest(ServerWebExchange exchange, GatewayFilterChain chain,
-                                          ServerHttpRequest request, ServerHttpResponse response) {
-        try {
-            // 取默认模型的 vLLM 地址（或配置专门的 models 地址）
-            String defaultModel = gatewayConfig.getModelMapping().keySet().iterator().next();
-            String vllmBaseUrl = gatewayConfig.getModelMapping().get(defaultModel);
-
-            // 构建目标 URL
-            String targetUrl = vllmBaseUrl + "/v1/models";
-            log.info("转发 GET /v1/models → {}", targetUrl);
-
-            // 使用 WebClient 直接转发请求
-            WebClient webClient = webClientBuilder.build();
-            return webClient.method(HttpMethod.GET)
-                    .uri(targetUrl)
-                    .headers(headers -> {
-                        // 复制原始请求头（排除 Host 等）
-                        request.getHeaders().forEach((key, values) -> {
-                            if (!key.equalsIgnoreCase(HttpHeaders.HOST) &&
-                                !key.equalsIgnoreCase(HttpHeaders.CONTENT_LENGTH)) {
-                                headers.addAll(key, values);
-                            }
-                        });
-                    })
-                    .exchangeToMono(clientResponse -> {
-                        // 设置响应状态码
-                        response.setStatusCode(clientResponse.statusCode());
-                        // 复制响应头
-                        clientResponse.headers().asHttpHeaders().forEach((key, values) -> {
-                            if (!key.equalsIgnoreCase(HttpHeaders.TRANSFER_ENCODING)) {
-                                response.getHeaders().addAll(key, values);
-                            }
-                        });
-                        // 写入响应体
-                        return response.writeWith(clientResponse.bodyToFlux(DataBuffer.class));
-                    });
-        } catch (Exception e) {
-            log.error("路由 /v1/models 失败", e);
-            return returnError(response, "Internal server error", "server_error");
-        }
+    private Mono<Void> routeModelsRequest(ServerWebExchange exchange, ServerHttpResponse response) {
+        return modelCatalog.listModels(exchange.getAttribute(GatewayAttributes.GATEWAY_APP))
+                .flatMap(models -> {
+                    try {
+                        Map<String, Object> modelList = new LinkedHashMap<>();
+                        modelList.put("object", "list");
+                        modelList.put("data", models);
+
+                        byte[] bytes = objectMapper.writeValueAsBytes(modelList);
+                        response.setStatusCode(HttpStatus.OK);
+                        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+                        return response.writeWith(Mono.just(response.bufferFactory().wrap(bytes)));
+                    } catch (Exception e) {
+                        return Mono.error(e);
+                    }
+                })
+                .onErrorResume(e -> {
+                    log.error("聚合 /v1/models 失败", e);
+                    return returnError(response, HttpStatus.INTERNAL_SERVER_ERROR, "Internal server error", "server_error");
+                });
     }
 
     /**
      * 处理 POST 接口（chat/completions/completions）
+     * @param model        从请求体中扫描到的 model 字段
+     * @param affinityHash 会话亲和键哈希，可为 null
+     * @param retryable    是否可重试（已开启重试、请求体不超过上限且非流式请求）
+     * @param body         原始请求体 chunk，按原样转发
      */
     private Mono<Void> routePostRequest(ServerWebExchange exchange, GatewayFilterChain chain,
                                         ServerHttpRequest request, ServerHttpResponse response,
-                                        DataBuffer dataBuffer) {
+                                        String model, Long affinityHash, boolean retryable, Flux<DataBuffer> body) {
         try {
-            // 读取请求体字节
-            byte[] requestBodyBytes = new byte[dataBuffer.readableByteCount()];
-            dataBuffer.read(requestBodyBytes);
-            DataBufferUtils.release(dataBuffer);
-
-            // 解析 model 字段
-            Map<String, Object> requestBody = objectMapper.readValue(
-                    requestBodyBytes, new TypeReference<Map<String, Object>>() {});
-            String model = (String) requestBody.get("model");
             if (model == null || model.trim().isEmpty()) {
-                return returnError(response, "Missing required parameter: model", "invalid_request_error");
+                return releaseBody(body).then(returnError(response, "Missing required parameter: model", "invalid_request_error"));
             }
 
-            // 获取 model 对应的 vLLM 地址
-            String vllmBaseUrl = gatewayConfig.getModelMapping().get(model.trim());
-            if (vllmBaseUrl == null) {
-                return returnError(response, "Model '" + model + "' not found", "model_not_found");
+            exchange.getAttributes().put(GatewayAttributes.MODEL, model.trim());
+
+            // 获取 model 对应的副本池并选择副本；应用无权使用的模型与不存在的模型同样处理
+            ModelPool pool = backendRegistry.getPool(model.trim());
+            GatewayApp app = exchange.getAttribute(GatewayAttributes.GATEWAY_APP);
+            if (pool == null || !modelCatalog.isAllowed(app, pool.getModel())) {
+                return releaseBody(body).then(returnError(response, "Model '" + model + "' not found", "model_not_found"));
+            }
+
+            // 开启响应缓存的应用、或可重试的请求：读取完整请求体（计算缓存键、供重试重放）
+            long contentLength = request.getHeaders().getContentLength();
+            boolean cacheable = responseCache.isEnabledFor(app) && contentLength > 0
+                    && contentLength <= responseCacheConfig.getMaxRequestBytes();
+            if (cacheable || retryable) {
+                return DataBufferUtils.join(body)
+                        .flatMap(joined -> routeBufferedRequest(exchange, chain, request, response, model, pool,
+                                affinityHash, joined, cacheable, retryable));
             }
+            return admitAndForward(exchange, chain, request, response, model, pool, affinityHash, body, null, null);
+        } catch (Exception e) {
+            log.error("路由 POST 请求失败", e);
+            return releaseBody(body).then(returnError(response, "Internal server error", "server_error"));
+        }
+    }
+
+    /**
+     * 处理已读取完整请求体的请求：
+     * 可缓存时 temperature 为 0 的请求按模型与规范化请求体查找缓存，命中直接回放，未命中则转发并在响应完整结束后写入缓存；
+     * 可重试时经 {@link RetryingUpstreamClient} 转发，否则按原样交给 NettyRoutingFilter。
+     */
+    private Mono<Void> routeBufferedRequest(ServerWebExchange exchange, GatewayFilterChain chain,
+                                            ServerHttpRequest request, ServerHttpResponse response, String model, ModelPool pool,
+                                            Long affinityHash, DataBuffer joined, boolean cacheable, boolean retryable) {
+        byte[] bytes = new byte[joined.readableByteCount()];
+        joined.read(bytes);
+        DataBufferUtils.release(joined);
 
-            // 构建目标 URL
-            String targetUrl = vllmBaseUrl + request.getPath().value();
+        String cacheKey = cacheable ? responseCache.cacheKey(model.trim(), bytes) : null;
+        if (cacheKey != null) {
+            ResponseCache.CachedResponse cached = responseCache.get(cacheKey);
+            if (cached != null) {
+                log.info("响应缓存命中: model={}", model);
+                return replayCachedResponse(exchange, response, cached);
+            }
+        }
+        byte[] replayableBody = retryable ? bytes : null;
+        return admitAndForward(exchange, chain, request, response, model, pool, affinityHash,
+                Flux.just(DefaultDataBufferFactory.sharedInstance.wrap(bytes)), cacheKey, replayableBody);
+    }
+
+    /**
+     * 回放缓存的响应；SSE 响应按事件边界拆分后逐个写出
+     */
+    private Mono<Void> replayCachedResponse(ServerWebExchange exchange, ServerHttpResponse response,
+                                            ResponseCache.CachedResponse cached) {
+        exchange.getAttributes().put(GatewayAttributes.CACHE_HIT, Boolean.TRUE);
+        response.setStatusCode(HttpStatus.OK);
+        if (cached.contentType() != null) {
+            response.getHeaders().set(HttpHeaders.CONTENT_TYPE, cached.contentType());
+        }
+        response.getHeaders().set("X-Cache", "HIT");
+
+        byte[] body = cached.body();
+        List<DataBuffer> chunks = new ArrayList<>();
+        int start = 0;
+        if (cached.contentType() != null && MediaType.TEXT_EVENT_STREAM.isCompatibleWith(MediaType.parseMediaType(cached.contentType()))) {
+            for (int i = 0; i + 1 < body.length; i++) {
+                if (body[i] == '\n' && body[i + 1] == '\n') {
+                    chunks.add(response.bufferFactory().wrap(ByteBuffer.wrap(body, start, i + 2 - start)));
+                    start = i + 2;
+                }
+            }
+        }
+        if (start < body.length) {
+            chunks.add(response.bufferFactory().wrap(ByteBuffer.wrap(body, start, body.length - start)));
+        }
+        return response.writeWith(Flux.fromIterable(chunks));
+    }
+
+    /**
+     * 经准入排队后转发：副本池满载时按应用公平排队，放行后再选择副本；排队已满返回 429，等待超过 SLO 返回 503
+     * @param replayableBody 可重放的完整请求体，不为 null 时经重试/对冲转发
+     */
+    private Mono<Void> admitAndForward(ServerWebExchange exchange, GatewayFilterChain chain, ServerHttpRequest request,
+                                       ServerHttpResponse response, String model, ModelPool pool, Long affinityHash, Flux<DataBuffer> body,
+                                       String cacheKey, byte[] replayableBody) {
+        return admissionScheduler.admit(pool, exchange.getAttribute(GatewayAttributes.GATEWAY_APP))
+                .flatMap(permit -> (replayableBody != null
+                        ? forwardWithRetry(exchange, request, response, model, pool, affinityHash, replayableBody, cacheKey)
+                        : forwardPostRequest(exchange, chain, request, response, model, pool, affinityHash, body, cacheKey))
+                        .doFinally(signalType -> permit.release()))
+                .onErrorResume(AdmissionRejectedException.class, e -> releaseBody(body).then(returnError(response,
+                        e.isQueueFull() ? HttpStatus.TOO_MANY_REQUESTS : HttpStatus.SERVICE_UNAVAILABLE,
+                        e.getMessage(), "server_error")));
+    }
+
+    /**
+     * 选择副本并交给网关的 NettyRoutingFilter 转发：目标地址写入 exchange 属性，请求体按原样（已读取的 chunk + 剩余部分）转发
+     * @param cacheKey 响应缓存键，不为 null 时成功的响应会写入缓存
+     */
+    private Mono<Void> forwardPostRequest(ServerWebExchange exchange, GatewayFilterChain chain,
+                                          ServerHttpRequest request, ServerHttpResponse response, String model,
+                                          ModelPool pool, Long affinityHash, Flux<DataBuffer> body, String cacheKey) {
+        try {
+            Backend backend = backendRegistry.choose(pool, affinityHash);
+            if (backend == null) {
+                return releaseBody(body).then(returnError(response, HttpStatus.SERVICE_UNAVAILABLE,
+                        "No healthy backend for model '" + model + "'", "server_error"));
+            }
+
+            // 构建目标 URL，由 BackendRequestUrlFilter 在 RouteToRequestUrlFilter 之后写回
+            String rawQuery = request.getURI().getRawQuery();
+            URI targetUrl = URI.create(backend.getUrl() + request.getURI().getRawPath()
+                    + (rawQuery != null ? "?" + rawQuery : ""));
+            exchange.getAttributes().put(GatewayAttributes.BACKEND_URL, targetUrl);
+            exchange.getAttributes().put(GatewayAttributes.BACKEND, backend.getUrl());
             log.info("转发 POST {} → model={}, targetUrl={}", request.getPath(), model, targetUrl);
 
-            // 使用 WebClient 直接转发请求
-            WebClient webClient = webClientBuilder.build();
-            return webClient.method(request.getMethod())
-                    .uri(targetUrl)
-                    .headers(headers -> {
-                        // 复制原始请求头（排除 Host 等）
-                        request.getHeaders().forEach((key, values) -> {
-                            if (!key.equalsIgnoreCase(HttpHeaders.HOST)) {
-                                headers.addAll(key, values);
-                            }
-                        });
-                        headers.setContentLength(requestBodyBytes.length);
+            ServerHttpRequest forwardRequest = new ServerHttpRequestDecorator(request) {
+                @Override
+                public Flux<DataBuffer> getBody() {
+                    return body;
+                }
+            };
+            ServerHttpResponse forwardResponse = decorateUpstreamResponse(exchange, response, System.currentTimeMillis(), cacheKey);
+
+            // 计时对象放入 Reactor Context，由 HttpClient 回调记录获取连接与收到响应头的时间点
+            RequestTiming timing = RequestTiming.of(exchange);
+            timing.markForwarded();
+
+            // 在途计数覆盖整个响应写出过程，结果作为熔断器的被动信号
+            return chain.filter(exchange.mutate().request(forwardRequest).response(forwardResponse).build())
+                    .contextWrite(context -> context.put(RequestTiming.class, timing))
+                    .onErrorResume(e -> {
+                        log.error("转发 POST 请求失败: targetUrl={}", targetUrl, e);
+                        if (response.isCommitted()) {
+                            return Mono.error(e);
+                        }
+                        return isTimeout(e)
+                                ? returnError(response, HttpStatus.GATEWAY_TIMEOUT, "Upstream timed out", "server_error")
+                                : returnError(response, HttpStatus.BAD_GATEWAY, "Upstream unavailable", "server_error");
                     })
-                    .bodyValue(requestBodyBytes)
-                    .exchangeToMono(clientResponse -> {
-                        // 设置响应状态码
-                        response.setStatusCode(clientResponse.statusCode());
-                        // 复制响应头
-                        clientResponse.headers().asHttpHeaders().forEach((key, values) -> {
-                            if (!key.equalsIgnoreCase(HttpHeaders.TRANSFER_ENCODING)) {
-                                response.getHeaders().addAll(key, values);
-                            }
-                        });
-                        // 写入响应体（支持流式响应）
-                        return response.writeWith(clientResponse.bodyToFlux(DataBuffer.class));
+                    .doOnSubscribe(subscription -> backend.acquire())
+                    .doFinally(signalType -> backend.release(signalType == SignalType.ON_ERROR
+                            || (response.getStatusCode() != null && response.getStatusCode().is5xxServerError())));
+        } catch (Exception e) {
+            log.error("路由 POST 请求失败", e);
+            return releaseBody(body).then(returnError(response, "Internal server error", "server_error"));
+        }
+    }
+
+    /**
+     * 经 {@link RetryingUpstreamClient} 转发可重放的非流式请求：请求头经网关的 HttpHeadersFilter 过滤（与 NettyRoutingFilter 一致），
+     * 胜出副本的完整响应写回客户端，响应缓存与访问日志照常生效
+     */
+    private Mono<Void> forwardWithRetry(ServerWebExchange exchange, ServerHttpRequest request, ServerHttpResponse response,
+                                        String model, ModelPool pool, Long affinityHash, byte[] body, String cacheKey) {
+        try {
+            Backend backend = backendRegistry.choose(pool, affinityHash);
+            if (backend == null) {
+                return returnError(response, HttpStatus.SERVICE_UNAVAILABLE,
+                        "No healthy backend for model '" + model + "'", "server_error");
+            }
+
+            String rawQuery = request.getURI().getRawQuery();
+            String uri = request.getURI().getRawPath() + (rawQuery != null ? "?" + rawQuery : "");
+            HttpHeaders headers = new HttpHeaders();
+            headers.putAll(HttpHeadersFilter.filterRequest(headersFiltersProvider.getIfAvailable(), exchange));
+            headers.remove(HttpHeaders.HOST);
+            headers.remove(HttpHeaders.TRANSFER_ENCODING);
+            headers.setContentLength(body.length);
+            exchange.getAttributes().put(GatewayAttributes.BACKEND, backend.getUrl());
+            log.info("转发 POST {} → model={}, backend={}（可重试）", request.getPath(), model, backend.getUrl());
+
+            ServerHttpResponse forwardResponse = decorateUpstreamResponse(exchange, response, System.currentTimeMillis(), cacheKey);
+            RequestTiming timing = RequestTiming.of(exchange);
+            timing.markForwarded();
+
+            return retryingUpstreamClient.exchange(pool, backend, exchange.getAttribute(GatewayAttributes.GATEWAY_APP),
+                            uri, headers, body)
+                    .contextWrite(context -> context.put(RequestTiming.class, timing))
+                    .flatMap(upstream -> {
+                        // 访问日志记录实际返回响应的副本
+                        exchange.getAttributes().put(GatewayAttributes.BACKEND, upstream.backend().getUrl());
+                        forwardResponse.setStatusCode(HttpStatusCode.valueOf(upstream.status()));
+                        HttpHeaders responseHeaders = HttpHeadersFilter.filter(headersFiltersProvider.getIfAvailable(),
+                                upstream.headers(), exchange, HttpHeadersFilter.Type.RESPONSE);
+                        forwardResponse.getHeaders().putAll(responseHeaders);
+                        forwardResponse.getHeaders().remove(HttpHeaders.TRANSFER_ENCODING);
+                        forwardResponse.getHeaders().setContentLength(upstream.body().length);
+                        return forwardResponse.writeWith(Mono.just(forwardResponse.bufferFactory().wrap(upstream.body())));
+                    })
+                    .onErrorResume(e -> {
+                        log.error("转发 POST 请求失败: model={}", model, e);
+                        if (response.isCommitted()) {
+                            return Mono.error(e);
+                        }
+                        return isTimeout(e)
+                                ? returnError(response, HttpStatus.GATEWAY_TIMEOUT, "Upstream timed out", "server_error")
+                                : returnError(response, HttpStatus.BAD_GATEWAY, "Upstream unavailable", "server_error");
                     });
         } catch (Exception e) {
             log.error("路由 POST 请求失败", e);
@@ -173,11 +371,130 @@ public class ModelRouteFilter implements GlobalFilter, Ordered {
         }
     }
 
+    /**
+     * 装饰后端响应的写出过程（NettyWriteResponseFilter 对流式响应使用 writeAndFlushWith，其余使用 writeWith）：
+     * 流式响应从请求开始计时，首个 chunk 超时视为副本异常；有缓存键且状态为 200 时复制响应字节，完整结束后写入缓存；
+     * 客户端断开导致写出被取消时主动关闭上游连接
+     */
+    private ServerHttpResponse decorateUpstreamResponse(ServerWebExchange exchange, ServerHttpResponse response,
+                                                        long start, String cacheKey) {
+        return new ServerHttpResponseDecorator(response) {
+            @Override
+            public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+                ResponseCache.Recorder recorder = recorder();
+                AtomicBoolean cancelled = new AtomicBoolean();
+                Flux<? extends DataBuffer> chunks = Flux.from(body).doOnCancel(() -> {
+                    cancelled.set(true);
+                    abortUpstream(exchange);
+                });
+                if (recorder != null) {
+                    chunks = chunks.doOnNext(recorder::append);
+                }
+                return commitOnSuccess(super.writeWith(chunks), recorder, cancelled);
+            }
+
+            @Override
+            public Mono<Void> writeAndFlushWith(Publisher<? extends Publisher<? extends DataBuffer>> body) {
+                ResponseCache.Recorder recorder = recorder();
+                AtomicBoolean cancelled = new AtomicBoolean();
+                Flux<? extends Publisher<? extends DataBuffer>> chunks = Flux.from(body)
+                        .doOnCancel(() -> {
+                            cancelled.set(true);
+                            abortUpstream(exchange);
+                        });
+                MediaType contentType = getHeaders().getContentType();
+                if (contentType != null && MediaType.TEXT_EVENT_STREAM.isCompatibleWith(contentType)) {
+                    long remaining = Math.max(0, healthCheckConfig.getFirstByteTimeoutMs()
+                            - (System.currentTimeMillis() - start));
+                    chunks = chunks.timeout(Mono.delay(Duration.ofMillis(remaining)), chunk -> Mono.never());
+                }
+                if (recorder != null) {
+                    Consumer<DataBuffer> append = recorder::append;
+                    chunks = chunks.map(chunk -> ResponseChunks.peek(chunk, append));
+                }
+                return commitOnSuccess(super.writeAndFlushWith(chunks), recorder, cancelled);
+            }
+
+            /**
+             * 写出完成（内层 chunk 均已写出）后才写入缓存；写出被取消或出错时丢弃录制内容
+             */
+            private Mono<Void> commitOnSuccess(Mono<Void> write, ResponseCache.Recorder recorder, AtomicBoolean cancelled) {
+                if (recorder == null) {
+                    return write;
+                }
+                return write.doOnSuccess(v -> {
+                    if (!cancelled.get()) {
+                        recorder.commit();
+                    }
+                });
+            }
+
+            private ResponseCache.Recorder recorder() {
+                if (cacheKey == null || getStatusCode() == null || getStatusCode().value() != HttpStatus.OK.value()) {
+                    return null;
+                }
+                MediaType contentType = getHeaders().getContentType();
+                return responseCache.recorder(cacheKey, contentType != null ? contentType.toString() : null);
+            }
+        };
+    }
+
+    /**
+     * 客户端断开：关闭 NettyRoutingFilter 使用的上游连接（不归还连接池），vLLM 检测到连接断开后立即中止生成，
+     * 释放 GPU 槽位与 KV Cache。尚未收到响应头时取消由 Reactor Netty 直接关闭连接，无需在此处理。
+     */
+    private void abortUpstream(ServerWebExchange exchange) {
+        Connection connection = exchange.getAttribute(ServerWebExchangeUtils.CLIENT_RESPONSE_CONN_ATTR);
+        if (connection != null && !connection.isDisposed()) {
+            log.info("客户端断开，中止上游请求: model={}, backend={}", exchange.getAttribute(GatewayAttributes.MODEL),
+                    exchange.getAttribute(GatewayAttributes.BACKEND));
+            connection.dispose();
+        }
+    }
+
+    /**
+     * 是否为上游超时（首字节超时，NettyRoutingFilter 或重试转发的响应超时）
+     */
+    private boolean isTimeout(Throwable e) {
+        return e instanceof TimeoutException || e instanceof ReadTimeoutException
+                || (e instanceof ResponseStatusException statusException
+                && statusException.getStatusCode().value() == HttpStatus.GATEWAY_TIMEOUT.value());
+    }
+
+    /**
+     * 计算会话亲和键哈希（vllm.routing.affinity.key）；关闭或请求中没有对应字段时返回 null
+     */
+    private Long affinityHash(ServerHttpRequest request, RequestBodyScanner scanner) {
+        return switch (routingConfig.getAffinity().getKey()) {
+            case USER -> scanner.getUser() != null ? ConsistentHashRing.hash(scanner.getUser()) : null;
+            case HEADER -> {
+                String session = request.getHeaders().getFirst(routingConfig.getAffinity().getHeader());
+                yield session != null ? ConsistentHashRing.hash(session) : null;
+            }
+            case PREFIX -> scanner.getPrefixHash();
+            case NONE -> null;
+        };
+    }
+
+    /**
+     * 读完并释放未转发的请求体
+     */
+    private Mono<Void> releaseBody(Flux<DataBuffer> body) {
+        return body.doOnNext(DataBufferUtils::release).then();
+    }
+
     /**
      * 返回 OpenAI 格式错误（仅用于路由失败场景）
      */
     private Mono<Void> returnError(ServerHttpResponse response, String message, String type) {
-        response.setStatusCode(HttpStatus.BAD_REQUEST);
+        return returnError(response, HttpStatus.BAD_REQUEST, message, type);
+    }
+
+    /**
+     * 返回指定状态码的 OpenAI 格式错误
+     */
+    private Mono<Void> returnError(ServerHttpResponse response, HttpStatus status, String message, String type) {
+        response.setStatusCode(status);
         response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
         try {
             Map<String, Object> errorDetail = new HashMap<>();
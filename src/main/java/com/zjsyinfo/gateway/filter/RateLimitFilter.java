@@ -0,0 +1,88 @@
+package com.zjsyinfo.gateway.filter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zjsyinfo.gateway.limit.AppRateLimiter;
+import com.zjsyinfo.gateway.mongo.entity.GatewayApp;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 应用级限流过滤器：按应用配置的 RPM、TPM 与最大并发流数准入请求，超限时返回 OpenAI 格式的 429。
+ * TPM 令牌桶在请求结束后由 AccessLogFilter 按实际用量扣减。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RateLimitFilter implements GlobalFilter, Ordered {
+    private final ObjectMapper objectMapper;
+    private final AppRateLimiter appRateLimiter;
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        GatewayApp app = exchange.getAttribute(GatewayAttributes.GATEWAY_APP);
+        if (app == null) {
+            return chain.filter(exchange);
+        }
+
+        AppRateLimiter.Decision decision = appRateLimiter.tryAcquire(app);
+        if (!decision.allowed()) {
+            log.debug("应用触发限流: appId={}, type={}, limit={}", app.getId(), decision.limitType(), decision.limit());
+            return returnRateLimitError(exchange.getResponse(), decision);
+        }
+        return chain.filter(exchange).doFinally(signalType -> appRateLimiter.release(decision));
+    }
+
+    /**
+     * 返回 OpenAI 格式的限流错误，并通过 Retry-After 告知客户端等待时间。
+     */
+    private Mono<Void> returnRateLimitError(ServerHttpResponse response, AppRateLimiter.Decision decision) {
+        response.setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        response.getHeaders().set(HttpHeaders.RETRY_AFTER, String.valueOf(decision.retryAfterSeconds()));
+        try {
+            Map<String, Object> errorMap = new HashMap<>();
+            errorMap.put("message", rateLimitMessage(decision));
+            errorMap.put("type", decision.limitType() == AppRateLimiter.LimitType.TOKENS ? "tokens" : "requests");
+            errorMap.put("param", null);
+            errorMap.put("code", "rate_limit_exceeded");
+
+            Map<String, Object> responseMap = new HashMap<>();
+            responseMap.put("error", errorMap);
+
+            byte[] errorBytes = objectMapper.writeValueAsBytes(responseMap);
+            return response.writeWith(Mono.just(response.bufferFactory().wrap(errorBytes)));
+        } catch (Exception e) {
+            log.error("构造限流错误响应失败", e);
+            return response.setComplete();
+        }
+    }
+
+    private String rateLimitMessage(AppRateLimiter.Decision decision) {
+        return switch (decision.limitType()) {
+            case REQUESTS -> "Rate limit reached for requests per minute (RPM): Limit " + decision.limit()
+                    + ". Please try again in " + decision.retryAfterSeconds() + "s.";
+            case TOKENS -> "Rate limit reached for tokens per minute (TPM): Limit " + decision.limit()
+                    + ". Please try again in " + decision.retryAfterSeconds() + "s.";
+            case CONCURRENT_STREAMS -> "Too many concurrent requests: Limit " + decision.limit()
+                    + ". Please try again later.";
+        };
+    }
+
+    @Override
+    public int getOrder() {
+        return -150; // 在鉴权之后、访问日志与路由之前执行
+    }
+}
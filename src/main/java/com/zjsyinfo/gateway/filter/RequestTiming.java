@@ -0,0 +1,96 @@
+package com.zjsyinfo.gateway.filter;
+
+import org.springframework.web.server.ServerWebExchange;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 单个请求在网关内各阶段的时间点（System.nanoTime），用于在访问日志中拆分耗时：
+ * 鉴权 → 排队（读请求体、准入排队、选副本）→ 获取上游连接 → 上游响应头 → 首个 SSE 事件 → 结束。
+ * 由 AuthFilter 创建并写入 exchange 属性；上游连接相关时间点由 HttpClient 回调经 Reactor Context 取得本对象后写入，
+ * 因此字段可能在不同线程上写入，均为 volatile。
+ */
+public final class RequestTiming {
+    private static final String ATTRIBUTE = RequestTiming.class.getName();
+
+    private final long startNanos = System.nanoTime();
+    private volatile long authenticatedNanos;
+    private volatile long forwardedNanos;
+    private volatile long requestSentNanos;
+    private volatile long responseHeadersNanos;
+    private volatile long firstEventNanos;
+    private volatile int chunkCount;
+
+    /**
+     * 取得请求的计时对象，不存在时以当前时间为起点创建
+     */
+    public static RequestTiming of(ServerWebExchange exchange) {
+        return (RequestTiming) exchange.getAttributes().computeIfAbsent(ATTRIBUTE, key -> new RequestTiming());
+    }
+
+    /** 鉴权通过 */
+    public void markAuthenticated() {
+        authenticatedNanos = System.nanoTime();
+    }
+
+    /** 交给上游转发（已选定副本） */
+    public void markForwarded() {
+        forwardedNanos = System.nanoTime();
+    }
+
+    /** 已取得上游连接，开始发送请求 */
+    public void markRequestSent() {
+        requestSentNanos = System.nanoTime();
+    }
+
+    /** 收到上游响应头 */
+    public void markResponseHeaders() {
+        responseHeadersNanos = System.nanoTime();
+    }
+
+    /** 写出一个流式响应 chunk（SSE 事件） */
+    public void onEvent() {
+        if (chunkCount++ == 0) {
+            firstEventNanos = System.nanoTime();
+        }
+    }
+
+    /** 写出一个非流式响应 chunk */
+    public void onChunk() {
+        chunkCount++;
+    }
+
+    /** 鉴权耗时（毫秒） */
+    public Long authMillis() {
+        return between(startNanos, authenticatedNanos);
+    }
+
+    /** 鉴权通过到交给上游之间的耗时（读请求体、准入排队、选副本，毫秒） */
+    public Long queueMillis() {
+        return between(authenticatedNanos, forwardedNanos);
+    }
+
+    /** 获取上游连接耗时（连接池获取或新建连接，毫秒） */
+    public Long connectMillis() {
+        return between(forwardedNanos, requestSentNanos);
+    }
+
+    /** 从收到请求到收到上游响应头的耗时（毫秒） */
+    public Long headersMillis() {
+        return between(startNanos, responseHeadersNanos);
+    }
+
+    /** 从收到请求到写出首个 SSE 事件的耗时（毫秒） */
+    public Long firstEventMillis() {
+        return between(startNanos, firstEventNanos);
+    }
+
+    /** 写出的响应 chunk 数 */
+    public int getChunkCount() {
+        return chunkCount;
+    }
+
+    private static Long between(long fromNanos, long toNanos) {
+        return fromNanos != 0 && toNanos != 0 ? TimeUnit.NANOSECONDS.toMillis(toNanos - fromNanos) : null;
+    }
+}
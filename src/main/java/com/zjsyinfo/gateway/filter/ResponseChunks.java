@@ -0,0 +1,40 @@
+package com.zjsyinfo.gateway.filter;
+
+import org.reactivestreams.Publisher;
+import org.springframework.core.io.buffer.DataBuffer;
+import reactor.core.Fuseable;
+import reactor.core.publisher.Flux;
+
+import java.util.function.Consumer;
+
+/**
+ * 流式响应（writeAndFlushWith）内层 chunk 的观察工具。
+ */
+final class ResponseChunks {
+
+    private ResponseChunks() {
+    }
+
+    /**
+     * 观察一个内层 chunk 的数据。NettyWriteResponseFilter 逐 chunk 写出时内层为单元素的 {@code Flux.just}，
+     * 直接取出 DataBuffer 交给 consumer 并原样返回，不分配对象；其他发布者才包装为 doOnNext。
+     * @param chunk    内层发布者
+     * @param consumer 数据观察者（应在流开始时创建一次并复用）
+     * @return 写出时使用的发布者
+     */
+    static Publisher<? extends DataBuffer> peek(Publisher<? extends DataBuffer> chunk, Consumer<DataBuffer> consumer) {
+        if (chunk instanceof Fuseable.ScalarCallable<?> scalar) {
+            Object value;
+            try {
+                value = scalar.call();
+            } catch (Exception e) {
+                value = null;
+            }
+            if (value instanceof DataBuffer dataBuffer) {
+                consumer.accept(dataBuffer);
+                return chunk;
+            }
+        }
+        return Flux.from(chunk).doOnNext(consumer);
+    }
+}
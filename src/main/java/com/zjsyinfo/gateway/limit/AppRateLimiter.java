@@ -0,0 +1,148 @@
+package com.zjsyinfo.gateway.limit;
+
+import com.zjsyinfo.gateway.mongo.entity.GatewayApp;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 应用级限流器：按应用维护 RPM/TPM 令牌桶与并发计数，全部为内存中的无锁结构。
+ * 应用配额变更（注册表刷新出新的 GatewayApp）时自动重建该应用的桶。
+ */
+@Component
+public class AppRateLimiter {
+    private final Map<String, AppLimits> limitsByApp = new ConcurrentHashMap<>();
+
+    /**
+     * 请求进入时的准入检查：并发数、RPM、TPM 依次检查，通过时占用一个并发名额并扣减一次请求。
+     * @return 准入结果；通过时调用方须在请求结束后调用 {@link #release(Decision)}
+     */
+    public Decision tryAcquire(GatewayApp app) {
+        AppLimits limits = limitsOf(app);
+        if (limits == null) {
+            return Decision.ALLOWED;
+        }
+        if (limits.maxConcurrentStreams != null
+                && limits.concurrentStreams.incrementAndGet() > limits.maxConcurrentStreams) {
+            limits.concurrentStreams.decrementAndGet();
+            return Decision.rejected(LimitType.CONCURRENT_STREAMS, limits.maxConcurrentStreams, 1);
+        }
+        if (limits.tpmBucket != null) {
+            long waitNanos = limits.tpmBucket.availableIn();
+            if (waitNanos > 0) {
+                releaseStream(limits);
+                return Decision.rejected(LimitType.TOKENS, limits.tpmLimit, toRetryAfterSeconds(waitNanos));
+            }
+        }
+        if (limits.rpmBucket != null) {
+            long waitNanos = limits.rpmBucket.tryAcquire(1);
+            if (waitNanos > 0) {
+                releaseStream(limits);
+                return Decision.rejected(LimitType.REQUESTS, limits.rpmLimit, toRetryAfterSeconds(waitNanos));
+            }
+        }
+        return limits.maxConcurrentStreams != null ? new Decision(null, 0, 0, limits.concurrentStreams) : Decision.ALLOWED;
+    }
+
+    /**
+     * 请求结束时释放准入时占用的并发名额。
+     */
+    public void release(Decision decision) {
+        if (decision.concurrentStreams != null) {
+            decision.concurrentStreams.decrementAndGet();
+        }
+    }
+
+    /**
+     * 请求完成后按实际用量扣减 TPM 令牌桶。
+     */
+    public void debitTokens(GatewayApp app, Integer tokens) {
+        if (app == null || tokens == null || tokens <= 0) {
+            return;
+        }
+        AppLimits limits = limitsByApp.get(app.getId());
+        if (limits != null && limits.tpmBucket != null) {
+            limits.tpmBucket.debit(tokens);
+        }
+    }
+
+    private AppLimits limitsOf(GatewayApp app) {
+        if (app.getRpmLimit() == null && app.getTpmLimit() == null && app.getMaxConcurrentStreams() == null) {
+            return null;
+        }
+        AppLimits limits = limitsByApp.get(app.getId());
+        if (limits != null && limits.matches(app)) {
+            return limits;
+        }
+        // 配额发生变化时重建（并发计数沿用旧值，避免正在进行的请求被遗忘）
+        return limitsByApp.compute(app.getId(), (id, old) -> old != null && old.matches(app)
+                ? old : new AppLimits(app, old != null ? old.concurrentStreams : new AtomicInteger()));
+    }
+
+    private static void releaseStream(AppLimits limits) {
+        if (limits.maxConcurrentStreams != null) {
+            limits.concurrentStreams.decrementAndGet();
+        }
+    }
+
+    private static long toRetryAfterSeconds(long waitNanos) {
+        return Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+    }
+
+    /** 限流维度 */
+    public enum LimitType {
+        REQUESTS,
+        TOKENS,
+        CONCURRENT_STREAMS
+    }
+
+    /**
+     * 准入结果。
+     * @param limitType         触发的限流维度，为 null 表示放行
+     * @param limit             触发的配额值
+     * @param retryAfterSeconds 建议客户端重试的等待秒数
+     * @param concurrentStreams 放行时占用的并发计数器（未限制并发时为 null）
+     */
+    public record Decision(LimitType limitType, long limit, long retryAfterSeconds, AtomicInteger concurrentStreams) {
+        static final Decision ALLOWED = new Decision(null, 0, 0, null);
+
+        static Decision rejected(LimitType limitType, long limit, long retryAfterSeconds) {
+            return new Decision(limitType, limit, retryAfterSeconds, null);
+        }
+
+        public boolean allowed() {
+            return limitType == null;
+        }
+    }
+
+    /**
+     * 单个应用的限流状态。
+     */
+    private static final class AppLimits {
+        final Integer rpmLimit;
+        final Integer tpmLimit;
+        final Integer maxConcurrentStreams;
+        final RateBucket rpmBucket;
+        final RateBucket tpmBucket;
+        final AtomicInteger concurrentStreams;
+
+        AppLimits(GatewayApp app, AtomicInteger concurrentStreams) {
+            this.rpmLimit = app.getRpmLimit();
+            this.tpmLimit = app.getTpmLimit();
+            this.maxConcurrentStreams = app.getMaxConcurrentStreams();
+            this.rpmBucket = rpmLimit != null ? new RateBucket(rpmLimit) : null;
+            this.tpmBucket = tpmLimit != null ? new RateBucket(tpmLimit) : null;
+            this.concurrentStreams = concurrentStreams;
+        }
+
+        boolean matches(GatewayApp app) {
+            return Objects.equals(rpmLimit, app.getRpmLimit())
+                    && Objects.equals(tpmLimit, app.getTpmLimit())
+                    && Objects.equals(maxConcurrentStreams, app.getMaxConcurrentStreams());
+        }
+    }
+}
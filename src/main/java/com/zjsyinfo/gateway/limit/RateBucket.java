@@ -0,0 +1,65 @@
+package com.zjsyinfo.gateway.limit;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 无锁令牌桶（GCRA 实现）：整个桶状态只有一个“理论到达时间”（TAT），通过单个 AtomicLong 的 CAS 更新。
+ * 容量等于每分钟配额，即允许一分钟内的全部配额突发使用，随后按匀速恢复。
+ */
+public class RateBucket {
+    private static final long PERIOD_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    /** 每个令牌的恢复间隔（纳秒） */
+    private final long intervalNanos;
+    /** 允许的最大突发（纳秒），即一个完整周期 */
+    private final long toleranceNanos;
+    /** 理论到达时间：桶中令牌全部恢复的时刻（System.nanoTime 时间轴） */
+    private final AtomicLong tat;
+
+    public RateBucket(long permitsPerMinute) {
+        this.intervalNanos = Math.max(1, PERIOD_NANOS / Math.max(1, permitsPerMinute));
+        this.toleranceNanos = PERIOD_NANOS;
+        this.tat = new AtomicLong(System.nanoTime());
+    }
+
+    /**
+     * 尝试取走 permits 个令牌。
+     * @return 0 表示成功；否则返回需要等待的纳秒数（未扣减）
+     */
+    public long tryAcquire(long permits) {
+        while (true) {
+            long now = System.nanoTime();
+            long current = tat.get();
+            long next = Math.max(current, now) + permits * intervalNanos;
+            long excess = next - now - toleranceNanos;
+            if (excess > 0) {
+                return excess;
+            }
+            if (tat.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * 只检查是否还有至少一个令牌，不扣减（用于事后扣减的 TPM 桶）。
+     * @return 0 表示还有余量；否则返回需要等待的纳秒数
+     */
+    public long availableIn() {
+        long now = System.nanoTime();
+        long excess = Math.max(tat.get(), now) + intervalNanos - now - toleranceNanos;
+        return Math.max(0, excess);
+    }
+
+    /**
+     * 无条件扣减 permits 个令牌，允许透支；透支部分会推迟后续请求的放行时间。
+     */
+    public void debit(long permits) {
+        if (permits <= 0) {
+            return;
+        }
+        long cost = permits * intervalNanos;
+        tat.accumulateAndGet(System.nanoTime(), (current, now) -> Math.max(current, now) + cost);
+    }
+}
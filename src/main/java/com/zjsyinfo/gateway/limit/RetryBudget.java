@@ -0,0 +1,54 @@
+package com.zjsyinfo.gateway.limit;
+
+import com.zjsyinfo.gateway.config.RetryConfig;
+import com.zjsyinfo.gateway.mongo.entity.GatewayApp;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 应用级重试预算：每个可重试的请求按 vllm.retry.budget-ratio 存入额度，每次重试或对冲消耗 1，
+ * 额度以千分之一为单位保存在 AtomicLong 中，上限为 budget-max-tokens。
+ * 后端过载时大量请求失败，重试量仍被限制在请求量的固定比例内，不会成倍放大负载。
+ */
+@Component
+@RequiredArgsConstructor
+public class RetryBudget {
+    private static final long SCALE = 1000;
+
+    private final RetryConfig retryConfig;
+    private final Map<String, AtomicLong> balanceByApp = new ConcurrentHashMap<>();
+
+    /**
+     * 请求进入时存入额度
+     */
+    public void deposit(GatewayApp app) {
+        long max = retryConfig.getBudgetMaxTokens() * SCALE;
+        long amount = Math.round(retryConfig.getBudgetRatio() * SCALE);
+        balanceOf(app).accumulateAndGet(amount, (balance, delta) -> Math.min(max, balance + delta));
+    }
+
+    /**
+     * 为一次重试或对冲扣除额度
+     * @return 额度不足时返回 false，调用方不应再发出请求
+     */
+    public boolean tryWithdraw(GatewayApp app) {
+        AtomicLong balance = balanceOf(app);
+        long current;
+        do {
+            current = balance.get();
+            if (current < SCALE) {
+                return false;
+            }
+        } while (!balance.compareAndSet(current, current - SCALE));
+        return true;
+    }
+
+    private AtomicLong balanceOf(GatewayApp app) {
+        String appId = app != null && app.getId() != null ? app.getId() : "";
+        return balanceByApp.computeIfAbsent(appId, id -> new AtomicLong(retryConfig.getBudgetMaxTokens() * SCALE));
+    }
+}
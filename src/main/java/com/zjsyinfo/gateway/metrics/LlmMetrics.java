@@ -0,0 +1,191 @@
+package com.zjsyinfo.gateway.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * LLM 流式响应指标（Micrometer，经 /actuator/prometheus 暴露），按 model、backend、app 打标签：
+ * 首 chunk 时延（TTFT，从网关收到请求起算，含排队与 prefill）、chunk 间隔（解码节奏）、
+ * 输出速率（completion tokens / 首 chunk 到结束的时长）与在途流数；
+ * 以及客户端断开后被取消的流数、取消前已生成的 token 数与估算节省的 token 数（按同一标签下已完成流的平均输出长度估算）。
+ * 同一标签组合的计量器只创建一次并缓存；逐 chunk 记录只取一次 nanoTime 并写入 Timer，本身不分配对象
+ * （网关写出的内层 chunk 为单元素发布者，访问日志与响应缓存直接读取其数据，不逐 chunk 包装）。
+ */
+@Component
+@RequiredArgsConstructor
+public class LlmMetrics {
+    private static final String UNKNOWN = "unknown";
+
+    private final MeterRegistry meterRegistry;
+    private final Map<MeterKey, StreamMeters> meters = new ConcurrentHashMap<>();
+
+    /**
+     * 开始观测一个流式响应，在途流数加一
+     * @param startNanos 网关收到请求的时间（System.nanoTime）
+     */
+    public StreamObservation startStream(String model, String backend, String app, long startNanos) {
+        StreamMeters streamMeters = meters.computeIfAbsent(new MeterKey(orUnknown(model), orUnknown(backend), orUnknown(app)),
+                this::createMeters);
+        streamMeters.inFlight.incrementAndGet();
+        return new StreamObservation(streamMeters, startNanos);
+    }
+
+    private StreamMeters createMeters(MeterKey key) {
+        Tags tags = Tags.of("model", key.model(), "backend", key.backend(), "app", key.app());
+        AtomicInteger inFlight = new AtomicInteger();
+        Gauge.builder("gateway.llm.streams.in.flight", inFlight, AtomicInteger::get)
+                .description("In-flight streaming responses")
+                .tags(tags)
+                .register(meterRegistry);
+        CancelStats cancelStats = new CancelStats();
+        FunctionCounter.builder("gateway.llm.streams.cancelled", cancelStats.cancelled, AtomicLong::get)
+                .description("Streams cancelled by client disconnect; the upstream request was aborted")
+                .tags(tags)
+                .register(meterRegistry);
+        FunctionCounter.builder("gateway.llm.cancelled.generated.tokens", cancelStats.generatedTokens, AtomicLong::get)
+                .description("Completion tokens generated before the stream was cancelled")
+                .tags(tags)
+                .register(meterRegistry);
+        FunctionCounter.builder("gateway.llm.cancelled.saved.tokens", cancelStats.savedTokens, AtomicLong::get)
+                .description("Estimated completion tokens not generated because the upstream request was aborted")
+                .tags(tags)
+                .register(meterRegistry);
+        Gauge.builder("gateway.llm.cancelled.saved.ratio", cancelStats, CancelStats::savedRatio)
+                .description("Share of the estimated work of cancelled streams that was saved by aborting upstream")
+                .tags(tags)
+                .register(meterRegistry);
+        return new StreamMeters(
+                Timer.builder("gateway.llm.time.to.first.token")
+                        .description("Time from request arrival to the first streamed chunk")
+                        .tags(tags)
+                        .publishPercentileHistogram()
+                        .minimumExpectedValue(Duration.ofMillis(10))
+                        .maximumExpectedValue(Duration.ofMinutes(2))
+                        .register(meterRegistry),
+                Timer.builder("gateway.llm.inter.chunk.latency")
+                        .description("Gap between consecutive streamed chunks")
+                        .tags(tags)
+                        .publishPercentileHistogram()
+                        .minimumExpectedValue(Duration.ofMillis(1))
+                        .maximumExpectedValue(Duration.ofSeconds(10))
+                        .register(meterRegistry),
+                DistributionSummary.builder("gateway.llm.output.tokens.per.second")
+                        .description("Completion tokens per second after the first chunk")
+                        .tags(tags)
+                        .publishPercentileHistogram()
+                        .minimumExpectedValue(1.0)
+                        .maximumExpectedValue(10000.0)
+                        .register(meterRegistry),
+                inFlight,
+                cancelStats);
+    }
+
+    private static String orUnknown(String value) {
+        return value != null ? value : UNKNOWN;
+    }
+
+    private record MeterKey(String model, String backend, String app) {
+    }
+
+    private record StreamMeters(Timer timeToFirstToken, Timer interChunk, DistributionSummary tokensPerSecond,
+                                AtomicInteger inFlight, CancelStats cancelStats) {
+    }
+
+    /**
+     * 同一标签组合的完成与取消统计：完成流的平均输出长度作为被取消流原本输出长度的估计
+     */
+    private static final class CancelStats {
+        private final AtomicLong completedStreams = new AtomicLong();
+        private final AtomicLong completedTokens = new AtomicLong();
+        private final AtomicLong cancelled = new AtomicLong();
+        private final AtomicLong generatedTokens = new AtomicLong();
+        private final AtomicLong savedTokens = new AtomicLong();
+
+        void onComplete(int completionTokens) {
+            completedStreams.incrementAndGet();
+            completedTokens.addAndGet(completionTokens);
+        }
+
+        void onCancel(int generated) {
+            cancelled.incrementAndGet();
+            generatedTokens.addAndGet(generated);
+            long streams = completedStreams.get();
+            if (streams > 0) {
+                savedTokens.addAndGet(Math.max(0, completedTokens.get() / streams - generated));
+            }
+        }
+
+        double savedRatio() {
+            long saved = savedTokens.get();
+            long total = saved + generatedTokens.get();
+            return total > 0 ? (double) saved / total : 0;
+        }
+    }
+
+    /**
+     * 单个流式响应的观测状态：非线程安全，chunk 按顺序到达时调用。
+     */
+    public static final class StreamObservation {
+        private final StreamMeters meters;
+        private final long startNanos;
+        private boolean started;
+        private long firstChunkNanos;
+        private long lastChunkNanos;
+
+        private StreamObservation(StreamMeters meters, long startNanos) {
+            this.meters = meters;
+            this.startNanos = startNanos;
+        }
+
+        /**
+         * 记录一个 chunk 到达
+         */
+        public void onChunk() {
+            long now = System.nanoTime();
+            if (!started) {
+                started = true;
+                firstChunkNanos = now;
+                meters.timeToFirstToken.record(now - startNanos, TimeUnit.NANOSECONDS);
+            } else {
+                meters.interChunk.record(now - lastChunkNanos, TimeUnit.NANOSECONDS);
+            }
+            lastChunkNanos = now;
+        }
+
+        /**
+         * 流结束：在途流数减一，并按 completion tokens 记录输出速率
+         */
+        public void finish(Integer completionTokens) {
+            meters.inFlight.decrementAndGet();
+            long decodeNanos = lastChunkNanos - firstChunkNanos;
+            if (completionTokens != null && completionTokens > 0 && decodeNanos > 0) {
+                meters.tokensPerSecond.record(completionTokens / (decodeNanos / 1_000_000_000.0));
+            }
+            if (completionTokens != null) {
+                meters.cancelStats.onComplete(completionTokens);
+            }
+        }
+
+        /**
+         * 客户端断开、流被取消（上游请求已中止）：在途流数减一，记录已生成与估算节省的 token 数
+         * @param generatedTokens 取消前已生成的 token 数，未知时为 null
+         */
+        public void cancel(Integer generatedTokens) {
+            meters.inFlight.decrementAndGet();
+            meters.cancelStats.onCancel(generatedTokens != null ? generatedTokens : 0);
+        }
+    }
+}
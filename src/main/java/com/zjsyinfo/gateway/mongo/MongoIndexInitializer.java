@@ -0,0 +1,77 @@
+package com.zjsyinfo.gateway.mongo;
+
+import com.mongodb.client.model.IndexOptions;
+import com.mongodb.client.model.Indexes;
+import com.mongoplus.service.IService;
+import com.zjsyinfo.gateway.config.LogRetentionConfig;
+import com.zjsyinfo.gateway.mongo.service.GatewayAppService;
+import com.zjsyinfo.gateway.mongo.service.GatewayLogService;
+import com.zjsyinfo.gateway.mongo.service.GatewayUsageRollupService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.conversions.Bson;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 启动时创建集合索引。索引均显式命名，重复创建相同定义的索引为空操作；
+ * 单个索引创建失败（如已有重复 api_key）只记录错误，不影响启动。
+ * gateway_logs 的查询按 create_time、_id 倒序翻页，各过滤字段均建立以二者结尾的复合索引；
+ * 启用保留策略时另建 create_time 的 TTL 索引（修改保留天数后需先删除旧的 TTL 索引）。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MongoIndexInitializer {
+    private final GatewayAppService gatewayAppService;
+    private final GatewayLogService gatewayLogService;
+    private final GatewayUsageRollupService gatewayUsageRollupService;
+    private final LogRetentionConfig logRetentionConfig;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void createIndexes() {
+        // gateway_apps：鉴权按 api_key 查询，唯一
+        createIndex(gatewayAppService, "gateway_apps", "uk_api_key", Indexes.ascending("api_key"),
+                new IndexOptions().unique(true));
+        createIndex(gatewayAppService, "gateway_apps", "idx_create_time", Indexes.descending("create_time"),
+                new IndexOptions());
+
+        // gateway_logs：按时间范围倒序翻页，可叠加应用、模型、状态过滤
+        createIndex(gatewayLogService, "gateway_logs", "idx_create_time_id",
+                Indexes.descending("create_time", "_id"), new IndexOptions());
+        createIndex(gatewayLogService, "gateway_logs", "idx_app_create_time_id",
+                Indexes.compoundIndex(Indexes.ascending("app_id"), Indexes.descending("create_time", "_id")),
+                new IndexOptions());
+        createIndex(gatewayLogService, "gateway_logs", "idx_model_create_time_id",
+                Indexes.compoundIndex(Indexes.ascending("request_model"), Indexes.descending("create_time", "_id")),
+                new IndexOptions());
+        createIndex(gatewayLogService, "gateway_logs", "idx_status_create_time_id",
+                Indexes.compoundIndex(Indexes.ascending("status"), Indexes.descending("create_time", "_id")),
+                new IndexOptions());
+        if (logRetentionConfig.isEnabled()) {
+            // 开启归档时 TTL 作为兜底，在保留天数之外留出归档任务的余量
+            int ttlDays = logRetentionConfig.getRetentionDays()
+                    + (logRetentionConfig.isArchiveEnabled() ? logRetentionConfig.getTtlGraceDays() : 0);
+            createIndex(gatewayLogService, "gateway_logs", "ttl_create_time", Indexes.ascending("create_time"),
+                    new IndexOptions().expireAfter((long) ttlDays, TimeUnit.DAYS));
+        }
+
+        // gateway_usage_rollups：按粒度与时间桶范围查询，可按应用过滤
+        createIndex(gatewayUsageRollupService, "gateway_usage_rollups", "idx_granularity_bucket",
+                Indexes.ascending("granularity", "bucket_time"), new IndexOptions());
+        createIndex(gatewayUsageRollupService, "gateway_usage_rollups", "idx_granularity_app_bucket",
+                Indexes.ascending("granularity", "app_id", "bucket_time"), new IndexOptions());
+    }
+
+    private void createIndex(IService<?> service, String collection, String name, Bson keys, IndexOptions options) {
+        try {
+            service.createIndex(keys, options.name(name).background(true));
+            log.info("索引已就绪: {}.{}", collection, name);
+        } catch (Exception e) {
+            log.error("创建索引失败: {}.{}", collection, name, e);
+        }
+    }
+}
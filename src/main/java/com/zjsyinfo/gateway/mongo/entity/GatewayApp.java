@@ -6,6 +6,7 @@ import com.mongoplus.annotation.collection.CollectionName;
 import lombok.Data;
 
 import java.util.Date;
+import java.util.List;
 
 /**
  * 网关应用实体，映射集合 gateway_apps。
@@ -33,8 +34,6 @@ public class GatewayApp {
     @CollectionField("create_time")
     private Date createTime;
 
-    //TODO 增加模型字段（开通的权限模型）
-
     /** 过期时间 */
     @CollectionField("expire_time")
     private Date expireTime;
@@ -50,4 +49,28 @@ public class GatewayApp {
     /** 最近一次使用时间（调用发生时更新） */
     @CollectionField("last_used_time")
     private Date lastUsedTime;
+
+    /** 每分钟请求数上限（RPM），为空表示不限制 */
+    @CollectionField("rpm_limit")
+    private Integer rpmLimit;
+
+    /** 每分钟 Token 数上限（TPM），为空表示不限制 */
+    @CollectionField("tpm_limit")
+    private Integer tpmLimit;
+
+    /** 最大并发流（请求）数，为空表示不限制 */
+    @CollectionField("max_concurrent_streams")
+    private Integer maxConcurrentStreams;
+
+    /** 准入排队权重，副本池满载时按权重分配放行份额，为空按 1 处理 */
+    @CollectionField("weight")
+    private Integer weight;
+
+    /** 是否对该应用启用响应缓存（仅 temperature 为 0 的请求），为空表示不启用 */
+    @CollectionField("cache_enabled")
+    private Boolean cacheEnabled;
+
+    /** 允许调用的模型名列表，为空表示不限制 */
+    @CollectionField("models")
+    private List<String> models;
 }
\ No newline at end of file
@@ -70,4 +70,64 @@ public class GatewayLog {
     @CollectionField("response_time")
     private Long responseTime;
 
+    /**
+     * 是否命中网关响应缓存（命中时未占用后端 GPU）
+     */
+    @CollectionField("cache_hit")
+    private Boolean cacheHit;
+
+    /**
+     * 转发的后端副本地址
+     */
+    @CollectionField("backend")
+    private String backend;
+
+    /**
+     * 输入 Token 数（usage.prompt_tokens）
+     */
+    @CollectionField("prompt_tokens")
+    private Integer promptTokens;
+
+    /**
+     * 输出 Token 数（usage.completion_tokens）
+     */
+    @CollectionField("completion_tokens")
+    private Integer completionTokens;
+
+    /**
+     * 鉴权耗时（毫秒）
+     */
+    @CollectionField("auth_time")
+    private Long authTime;
+
+    /**
+     * 鉴权通过到转发之间的耗时（读取请求体、准入排队、选择副本，毫秒）
+     */
+    @CollectionField("queue_time")
+    private Long queueTime;
+
+    /**
+     * 获取上游连接耗时（连接池获取或新建连接，毫秒）
+     */
+    @CollectionField("connect_time")
+    private Long connectTime;
+
+    /**
+     * 从收到请求到收到上游响应头的耗时（毫秒）
+     */
+    @CollectionField("header_time")
+    private Long headerTime;
+
+    /**
+     * 从收到请求到写出首个 SSE 事件的耗时（毫秒，仅流式响应）
+     */
+    @CollectionField("first_event_time")
+    private Long firstEventTime;
+
+    /**
+     * 写出的响应 chunk 数（流式响应即 SSE 事件数）
+     */
+    @CollectionField("chunk_count")
+    private Integer chunkCount;
+
 }
\ No newline at end of file
@@ -0,0 +1,134 @@
+package com.zjsyinfo.gateway.mongo.entity;
+
+import com.mongoplus.annotation.ID;
+import com.mongoplus.annotation.collection.CollectionField;
+import com.mongoplus.annotation.collection.CollectionName;
+import lombok.Data;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * 用量汇总实体，映射集合 gateway_usage_rollups。
+ * 按 (时间桶, 应用, 模型, 状态) 汇总访问日志；分钟粒度按网关实例分别写入，小时、天粒度由分钟数据压缩而来。
+ * 主键由粒度、时间桶与各维度拼接而成，重复写入即覆盖。
+ *
+ * @author zt
+ */
+@Data
+@CollectionName("gateway_usage_rollups")
+public class GatewayUsageRollup {
+    /**
+     * 主键 _id（粒度:时间桶:实例:应用:模型:状态）
+     */
+    @ID
+    private String id;
+
+    /**
+     * 粒度（minute / hour / day）
+     */
+    @CollectionField("granularity")
+    private String granularity;
+
+    /**
+     * 时间桶起点
+     */
+    @CollectionField("bucket_time")
+    private Date bucketTime;
+
+    /**
+     * 写入的网关实例（仅分钟粒度）
+     */
+    @CollectionField("instance_id")
+    private String instanceId;
+
+    /**
+     * 应用ID
+     */
+    @CollectionField("app_id")
+    private String appId;
+
+    /**
+     * 请求模型
+     */
+    @CollectionField("model")
+    private String model;
+
+    /**
+     * 调用状态
+     */
+    @CollectionField("status")
+    private String status;
+
+    /**
+     * 请求数
+     */
+    @CollectionField("requests")
+    private Long requests;
+
+    /**
+     * 错误数（状态为 error）
+     */
+    @CollectionField("errors")
+    private Long errors;
+
+    /**
+     * 取消数（客户端中途断开，状态为 cancelled）
+     */
+    @CollectionField("cancelled")
+    private Long cancelled;
+
+    /**
+     * 缓存命中数
+     */
+    @CollectionField("cache_hits")
+    private Long cacheHits;
+
+    /**
+     * Token 总数
+     */
+    @CollectionField("tokens")
+    private Long tokens;
+
+    /**
+     * 输入 Token 数
+     */
+    @CollectionField("prompt_tokens")
+    private Long promptTokens;
+
+    /**
+     * 输出 Token 数
+     */
+    @CollectionField("completion_tokens")
+    private Long completionTokens;
+
+    /**
+     * 响应耗时之和（毫秒）
+     */
+    @CollectionField("latency_sum")
+    private Long latencySum;
+
+    /**
+     * 最大响应耗时（毫秒）
+     */
+    @CollectionField("latency_max")
+    private Long latencyMax;
+
+    /**
+     * 响应耗时分布的非空桶下标（见 LatencySketch）
+     */
+    @CollectionField("latency_bins")
+    private List<Integer> latencyBins;
+
+    /**
+     * 响应耗时分布的桶计数，与 latency_bins 一一对应
+     */
+    @CollectionField("latency_counts")
+    private List<Long> latencyCounts;
+
+    /**
+     * 最后写入时间
+     */
+    @CollectionField("update_time")
+    private Date updateTime;
+}
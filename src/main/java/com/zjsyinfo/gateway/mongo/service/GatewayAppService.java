@@ -18,11 +18,16 @@ public interface GatewayAppService extends IService<GatewayApp> {
     GatewayApp getByApiKey(String apiKey);
 
     /**
-     * 更新应用的最近使用时间。
+     * 记录应用的最近使用时间（仅写内存，由 {@link #flushLastUsedTime()} 定时回写）。
      * @param appId 应用ID
      */
     void updateLastUsedTime(String appId);
 
+    /**
+     * 将内存中待回写的最近使用时间批量写入 MongoDB，每个应用一次更新。
+     */
+    void flushLastUsedTime();
+
     /**
      * 查询应用列表，支持按名称模糊查询，按创建时间倒序排序。
      * @param orgName 组织名称（可选，支持模糊查询）
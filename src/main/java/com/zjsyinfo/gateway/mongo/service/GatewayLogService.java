@@ -4,6 +4,9 @@ import com.mongoplus.model.PageResult;
 import com.mongoplus.service.IService;
 import com.zjsyinfo.gateway.mongo.entity.GatewayLog;
 
+import java.util.Date;
+import java.util.List;
+
 /**
  * 访问日志服务接口。
  */
@@ -16,4 +19,44 @@ public interface GatewayLogService extends IService<GatewayLog> {
      * @return 分页结果
      */
     PageResult<GatewayLog> pageList(String appId, int pageNum, int pageSize);
-}
\ No newline at end of file
+
+    /**
+     * 游标（keyset）翻页查询日志，按创建时间、_id 倒序排列。
+     * 以上一页最后一条的创建时间为界，只跳过与其创建时间相同且已返回的条数，查询代价与页码无关。
+     * @param appId 应用ID（可选）
+     * @param model 请求模型（可选）
+     * @param status 调用状态（可选）
+     * @param from 起始时间（可选，含）
+     * @param to 结束时间（可选，不含）
+     * @param cursorTime 上一页最后一条的创建时间（首页为 null）
+     * @param cursorSkip 上一页及之前已返回的、创建时间等于 cursorTime 的条数
+     * @param limit 返回条数
+     * @return 日志列表
+     */
+    List<GatewayLog> listByCursor(String appId, String model, String status, Date from, Date to,
+                                  Date cursorTime, int cursorSkip, int limit);
+
+    /**
+     * 按创建时间、_id 升序游标读取时间范围内的日志（用于归档）。
+     * @param from 起始时间（含）
+     * @param to 结束时间（不含）
+     * @param cursorTime 上一批最后一条的创建时间（首批为 null）
+     * @param cursorSkip 已读取的、创建时间等于 cursorTime 的条数
+     * @param limit 返回条数
+     * @return 日志列表
+     */
+    List<GatewayLog> listForArchive(Date from, Date to, Date cursorTime, int cursorSkip, int limit);
+
+    /**
+     * 查询最早的一条日志
+     * @return 最早的日志，集合为空时为 null
+     */
+    GatewayLog getOldest();
+
+    /**
+     * 删除时间范围内的日志
+     * @param from 起始时间（含）
+     * @param to 结束时间（不含）
+     */
+    void removeRange(Date from, Date to);
+}
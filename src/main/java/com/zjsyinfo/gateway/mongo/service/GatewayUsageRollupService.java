@@ -0,0 +1,37 @@
+package com.zjsyinfo.gateway.mongo.service;
+
+import com.mongoplus.service.IService;
+import com.zjsyinfo.gateway.mongo.entity.GatewayUsageRollup;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * 用量汇总服务接口。
+ */
+public interface GatewayUsageRollupService extends IService<GatewayUsageRollup> {
+    /**
+     * 查询时间范围内的汇总文档，按时间桶升序排列。
+     * @param granularity 粒度（minute / hour / day）
+     * @param from        起始时间（含）
+     * @param to          结束时间（不含）
+     * @param appId       应用ID（可选）
+     * @param model       模型（可选）
+     * @return 汇总文档列表
+     */
+    List<GatewayUsageRollup> listRollups(String granularity, Date from, Date to, String appId, String model);
+
+    /**
+     * 查询指定粒度下时间桶最晚的一条汇总文档（不区分应用、模型）
+     * @param granularity 粒度
+     * @return 最晚的汇总文档，没有时为 null
+     */
+    GatewayUsageRollup getLatest(String granularity);
+
+    /**
+     * 删除指定粒度下早于某时间的汇总文档
+     * @param granularity 粒度
+     * @param before      截止时间（不含）
+     */
+    void removeBefore(String granularity, Date before);
+}
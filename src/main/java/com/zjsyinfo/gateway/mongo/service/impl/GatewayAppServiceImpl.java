@@ -1,21 +1,41 @@
 package com.zjsyinfo.gateway.mongo.service.impl;
 
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.Updates;
+import com.mongodb.client.model.WriteModel;
 import com.mongoplus.model.PageResult;
+import com.zjsyinfo.gateway.config.SchedulingConfig;
 import com.zjsyinfo.gateway.mongo.entity.GatewayApp;
 import com.zjsyinfo.gateway.mongo.service.GatewayAppService;
 import com.mongoplus.service.impl.ServiceImpl;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.bson.types.ObjectId;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * 应用实体服务实现。
  * 说明：基于 Mongo-Plus 的通用 Service 能力实现查询与更新。
  */
+@Slf4j
 @Service
 public class GatewayAppServiceImpl extends ServiceImpl<GatewayApp> implements GatewayAppService {
 
+    /** 待回写的最近使用时间：appId -> 时间戳（毫秒），同一应用只保留最大值 */
+    private final Map<String, Long> pendingLastUsed = new ConcurrentHashMap<>();
+
     /**
      * 根据 API Key 查询应用实体。
      */
@@ -27,21 +47,73 @@ public class GatewayAppServiceImpl extends ServiceImpl<GatewayApp> implements Ga
     }
 
     /**
-     * 更新应用的最近使用时间。
+     * 记录应用的最近使用时间，请求路径上不访问 MongoDB。
      */
     @Override
     public void updateLastUsedTime(String appId) {
         if (appId == null) {
             return;
         }
-        GatewayApp app = this.getById(appId);
-        if (app != null) {
-            app.setLastUsedTime(new java.util.Date());
-            // 仅更新实体，不创建新纪录
-            this.updateById(app);
+        pendingLastUsed.merge(appId, System.currentTimeMillis(), Math::max);
+    }
+
+    /**
+     * 定时回写最近使用时间：所有有变化的应用合并为一次无序 bulkWrite，每个应用一条 $max 更新。
+     * $max 在字段缺失时直接写入、已有更新的时间时不修改，多个实例各自回写本实例的最大值也不会倒退；
+     * 写入失败的条目留待下次重试。
+     */
+    @Override
+    @Scheduled(fixedDelayString = "${vllm.app-registry.last-used-flush-interval-ms:10000}",
+            scheduler = SchedulingConfig.MAINTENANCE_SCHEDULER)
+    public void flushLastUsedTime() {
+        List<Map.Entry<String, Long>> flushing = new ArrayList<>();
+        List<WriteModel<Document>> updates = new ArrayList<>();
+        for (Map.Entry<String, Long> entry : pendingLastUsed.entrySet()) {
+            String appId = entry.getKey();
+            Long lastUsed = entry.getValue();
+            // 仅当期间没有更新的时间戳写入时才移除，否则留待下一轮
+            pendingLastUsed.remove(appId, lastUsed);
+            flushing.add(Map.entry(appId, lastUsed));
+            updates.add(new UpdateOneModel<>(idFilter(appId), Updates.max("last_used_time", new Date(lastUsed))));
+        }
+        if (updates.isEmpty()) {
+            return;
+        }
+        try {
+            this.getCollection().bulkWrite(updates, new BulkWriteOptions().ordered(false));
+        } catch (MongoBulkWriteException e) {
+            if (e.getWriteConcernError() != null) {
+                // 写关注失败时无法确定哪些已生效，全部重试（$max 重复执行无副作用）
+                flushing.forEach(this::requeue);
+            } else {
+                e.getWriteErrors().forEach(error -> requeue(flushing.get(error.getIndex())));
+            }
+            log.warn("回写应用最近使用时间部分失败: size={}, failed={}", updates.size(), e.getWriteErrors().size(), e);
+        } catch (Exception e) {
+            flushing.forEach(this::requeue);
+            log.warn("回写应用最近使用时间失败: size={}", updates.size(), e);
         }
     }
 
+    private void requeue(Map.Entry<String, Long> entry) {
+        pendingLastUsed.merge(entry.getKey(), entry.getValue(), Math::max);
+    }
+
+    /**
+     * 应用主键由框架生成时以 ObjectId 存储，其余按字符串匹配
+     */
+    private static Bson idFilter(String appId) {
+        return Filters.eq("_id", ObjectId.isValid(appId) ? new ObjectId(appId) : appId);
+    }
+
+    /**
+     * 停机前回写剩余的最近使用时间
+     */
+    @PreDestroy
+    public void destroy() {
+        flushLastUsedTime();
+    }
+
     /**
      * 查询应用列表，支持按名称模糊查询，按创建时间倒序排序。
      */
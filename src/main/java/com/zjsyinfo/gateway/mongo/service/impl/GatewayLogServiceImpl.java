@@ -6,6 +6,9 @@ import com.zjsyinfo.gateway.mongo.entity.GatewayLog;
 import com.zjsyinfo.gateway.mongo.service.GatewayLogService;
 import org.springframework.stereotype.Service;
 
+import java.util.Date;
+import java.util.List;
+
 /**
  * 访问日志服务实现。
  */
@@ -22,4 +25,61 @@ public class GatewayLogServiceImpl extends ServiceImpl<GatewayLog> implements Ga
                 .orderByDesc(GatewayLog::getCreateTime)
                 .page(pageNum, pageSize);
     }
-}
\ No newline at end of file
+
+    /**
+     * 游标翻页查询日志：结束时间取 to 与游标时间中较早者，按创建时间、_id 倒序排序。
+     */
+    @Override
+    public List<GatewayLog> listByCursor(String appId, String model, String status, Date from, Date to,
+                                         Date cursorTime, int cursorSkip, int limit) {
+        return this.lambdaQuery()
+                .eq(appId != null && !appId.isEmpty(), GatewayLog::getAppId, appId)
+                .eq(model != null && !model.isEmpty(), GatewayLog::getRequestModel, model)
+                .eq(status != null && !status.isEmpty(), GatewayLog::getStatus, status)
+                .gte(from != null, GatewayLog::getCreateTime, from)
+                .lt(to != null, GatewayLog::getCreateTime, to)
+                .lte(cursorTime != null, GatewayLog::getCreateTime, cursorTime)
+                .orderByDesc(GatewayLog::getCreateTime)
+                .orderByDesc(GatewayLog::getId)
+                .skip(cursorSkip)
+                .limit(limit)
+                .list();
+    }
+
+    /**
+     * 按创建时间、_id 升序游标读取时间范围内的日志。
+     */
+    @Override
+    public List<GatewayLog> listForArchive(Date from, Date to, Date cursorTime, int cursorSkip, int limit) {
+        return this.lambdaQuery()
+                .gte(GatewayLog::getCreateTime, cursorTime != null ? cursorTime : from)
+                .lt(GatewayLog::getCreateTime, to)
+                .orderByAsc(GatewayLog::getCreateTime)
+                .orderByAsc(GatewayLog::getId)
+                .skip(cursorSkip)
+                .limit(limit)
+                .list();
+    }
+
+    /**
+     * 查询最早的一条日志。
+     */
+    @Override
+    public GatewayLog getOldest() {
+        return this.lambdaQuery()
+                .orderByAsc(GatewayLog::getCreateTime)
+                .limit(1)
+                .one();
+    }
+
+    /**
+     * 删除时间范围内的日志。
+     */
+    @Override
+    public void removeRange(Date from, Date to) {
+        this.lambdaUpdate()
+                .gte(GatewayLog::getCreateTime, from)
+                .lt(GatewayLog::getCreateTime, to)
+                .remove();
+    }
+}
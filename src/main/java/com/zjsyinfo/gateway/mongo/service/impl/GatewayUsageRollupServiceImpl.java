@@ -0,0 +1,54 @@
+package com.zjsyinfo.gateway.mongo.service.impl;
+
+import com.mongoplus.service.impl.ServiceImpl;
+import com.zjsyinfo.gateway.mongo.entity.GatewayUsageRollup;
+import com.zjsyinfo.gateway.mongo.service.GatewayUsageRollupService;
+import org.springframework.stereotype.Service;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * 用量汇总服务实现。
+ */
+@Service
+public class GatewayUsageRollupServiceImpl extends ServiceImpl<GatewayUsageRollup> implements GatewayUsageRollupService {
+
+    /**
+     * 按粒度与时间范围查询，支持按应用ID、模型过滤，按时间桶升序排序。
+     */
+    @Override
+    public List<GatewayUsageRollup> listRollups(String granularity, Date from, Date to, String appId, String model) {
+        return this.lambdaQuery()
+                .eq(GatewayUsageRollup::getGranularity, granularity)
+                .gte(GatewayUsageRollup::getBucketTime, from)
+                .lt(GatewayUsageRollup::getBucketTime, to)
+                .eq(appId != null && !appId.isEmpty(), GatewayUsageRollup::getAppId, appId)
+                .eq(model != null && !model.isEmpty(), GatewayUsageRollup::getModel, model)
+                .orderByAsc(GatewayUsageRollup::getBucketTime)
+                .list();
+    }
+
+    /**
+     * 查询指定粒度下时间桶最晚的一条汇总文档。
+     */
+    @Override
+    public GatewayUsageRollup getLatest(String granularity) {
+        return this.lambdaQuery()
+                .eq(GatewayUsageRollup::getGranularity, granularity)
+                .orderByDesc(GatewayUsageRollup::getBucketTime)
+                .limit(1)
+                .one();
+    }
+
+    /**
+     * 删除指定粒度下早于某时间的汇总文档。
+     */
+    @Override
+    public void removeBefore(String granularity, Date before) {
+        this.lambdaUpdate()
+                .eq(GatewayUsageRollup::getGranularity, granularity)
+                .lt(GatewayUsageRollup::getBucketTime, before)
+                .remove();
+    }
+}
@@ -0,0 +1,128 @@
+package com.zjsyinfo.gateway.route;
+
+import com.zjsyinfo.gateway.config.HealthCheckConfig;
+import lombok.Getter;
+
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * vLLM 后端副本及其运行时计数。同一地址在多个模型池中共享同一实例，在途请求数按副本全局统计。
+ */
+@Getter
+public class Backend {
+    /** vLLM 地址 */
+    private final String url;
+
+    /** 权重 */
+    private final int weight;
+
+    /** 该副本服务的模型名 */
+    private final Set<String> models = new CopyOnWriteArraySet<>();
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder totalRequests = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+
+    /** 熔断器 */
+    private final CircuitBreaker circuitBreaker;
+
+    /** 最近一次 /metrics 负载快照 */
+    private volatile BackendLoad loadSnapshot;
+
+    /** 最近一次采集后发往该副本的请求数，用于修正快照的滞后 */
+    private final AtomicInteger sentSinceScrape = new AtomicInteger();
+
+    public Backend(String url, int weight, HealthCheckConfig healthCheckConfig) {
+        this.url = url;
+        this.weight = Math.max(1, weight);
+        this.circuitBreaker = new CircuitBreaker(healthCheckConfig);
+    }
+
+    /**
+     * 本次选择是否可用（未被熔断摘除）
+     */
+    public boolean isAvailable() {
+        return circuitBreaker.allowRequest();
+    }
+
+    /**
+     * 请求发往该副本前调用
+     */
+    public void acquire() {
+        inFlight.incrementAndGet();
+        totalRequests.increment();
+        sentSinceScrape.incrementAndGet();
+    }
+
+    /**
+     * 请求结束（含异常、取消）后调用，同时作为熔断器的被动信号
+     * @param failed 是否失败（连接异常、5xx 或首字节超时）
+     */
+    public void release(boolean failed) {
+        inFlight.decrementAndGet();
+        if (failed) {
+            failures.increment();
+            circuitBreaker.onFailure();
+        } else {
+            circuitBreaker.onSuccess();
+        }
+    }
+
+    /**
+     * 加权负载：(在途请求数 + 1) / 权重，数值越小越空闲
+     */
+    public double load() {
+        return (inFlight.get() + 1.0) / weight;
+    }
+
+    /**
+     * 更新 /metrics 负载快照
+     */
+    public void updateLoad(BackendLoad load) {
+        loadSnapshot = load;
+        sentSinceScrape.set(0);
+    }
+
+    /**
+     * 预测排队时延（相对值，越小越好）：
+     * (排队数 + 采集后新发送数 + runningWeight * 运行数 + 1) / 权重 / (1 - KV Cache 占用)。
+     * KV Cache 接近占满时新请求会排队或触发抢占，因此按剩余容量放大。
+     * 快照缺失或过期时退回加权在途请求数。
+     * @param runningWeight 运行中请求的权重
+     * @param staleAfterMs  快照过期时长（毫秒）
+     */
+    public double predictedDelay(double runningWeight, long staleAfterMs) {
+        BackendLoad load = loadSnapshot;
+        if (load == null || System.currentTimeMillis() - load.scrapedAt() > staleAfterMs) {
+            return load();
+        }
+        double queued = load.waiting() + sentSinceScrape.get() + runningWeight * load.running() + 1;
+        return queued / weight / Math.max(0.05, 1 - load.kvCacheUsage());
+    }
+
+    /**
+     * 运行计数快照
+     */
+    public BackendStats stats() {
+        return new BackendStats(url, weight, Set.copyOf(models), circuitBreaker.getState(), inFlight.get(),
+                totalRequests.sum(), failures.sum(), loadSnapshot);
+    }
+
+    /**
+     * 副本运行计数快照
+     * @param url           vLLM 地址
+     * @param weight        权重
+     * @param models        服务的模型名
+     * @param state         熔断状态
+     * @param inFlight      当前在途请求数
+     * @param totalRequests 累计请求数
+     * @param failures      累计失败数
+     * @param load          最近一次 /metrics 负载快照，未采集时为 null
+     */
+    public record BackendStats(String url, int weight, Set<String> models, CircuitBreaker.State state,
+                               int inFlight, long totalRequests, long failures, BackendLoad load) {
+    }
+}
@@ -0,0 +1,65 @@
+package com.zjsyinfo.gateway.route;
+
+import com.zjsyinfo.gateway.config.HealthCheckConfig;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+/**
+ * 后端主动健康检查：定时并行探测每个副本的 /health，结果交给副本的熔断器。
+ */
+@Slf4j
+@Component
+public class BackendHealthChecker {
+    private final BackendRegistry backendRegistry;
+    private final HealthCheckConfig healthCheckConfig;
+    private final WebClient webClient;
+
+    public BackendHealthChecker(BackendRegistry backendRegistry, HealthCheckConfig healthCheckConfig,
+                                WebClient.Builder webClientBuilder) {
+        this.backendRegistry = backendRegistry;
+        this.healthCheckConfig = healthCheckConfig;
+        this.webClient = webClientBuilder.build();
+    }
+
+    /**
+     * 探测全部副本，等待本轮结束后再调度下一轮，避免探测堆积
+     */
+    @Scheduled(fixedDelayString = "${vllm.health.interval-ms:5000}")
+    public void check() {
+        if (!healthCheckConfig.isEnabled()) {
+            return;
+        }
+        try {
+            Flux.fromIterable(backendRegistry.getBackends())
+                    .flatMap(backend -> probe(backend).doOnNext(healthy -> onProbe(backend, healthy)))
+                    .then()
+                    .block(Duration.ofMillis(healthCheckConfig.getTimeoutMs() * 2));
+        } catch (Exception e) {
+            log.warn("后端健康检查未在预期时间内完成", e);
+        }
+    }
+
+    private Mono<Boolean> probe(Backend backend) {
+        return webClient.get()
+                .uri(backend.getUrl() + healthCheckConfig.getPath())
+                .exchangeToMono(response -> response.releaseBody()
+                        .thenReturn(response.statusCode().is2xxSuccessful()))
+                .timeout(Duration.ofMillis(healthCheckConfig.getTimeoutMs()))
+                .onErrorReturn(false);
+    }
+
+    private void onProbe(Backend backend, boolean healthy) {
+        CircuitBreaker.State before = backend.getCircuitBreaker().getState();
+        backend.getCircuitBreaker().onProbe(healthy);
+        CircuitBreaker.State after = backend.getCircuitBreaker().getState();
+        if (before != after) {
+            log.warn("后端副本健康状态变化: url={}, {} → {}", backend.getUrl(), before, after);
+        }
+    }
+}
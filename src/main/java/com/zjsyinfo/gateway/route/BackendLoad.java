@@ -0,0 +1,11 @@
+package com.zjsyinfo.gateway.route;
+
+/**
+ * 从 vLLM /metrics 采集的副本负载快照
+ * @param waiting      排队中的请求数（vllm:num_requests_waiting）
+ * @param running      运行中的请求数（vllm:num_requests_running）
+ * @param kvCacheUsage KV Cache 占用比例 0~1（vllm:gpu_cache_usage_perc / vllm:kv_cache_usage_perc）
+ * @param scrapedAt    采集时间戳（毫秒）
+ */
+public record BackendLoad(double waiting, double running, double kvCacheUsage, long scrapedAt) {
+}
@@ -0,0 +1,205 @@
+package com.zjsyinfo.gateway.route;
+
+import com.zjsyinfo.gateway.config.GatewayConfig;
+import com.zjsyinfo.gateway.config.HealthCheckConfig;
+import com.zjsyinfo.gateway.config.RoutingConfig;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 后端副本注册表：由 vllm.model-mapping 与 vllm.model-pools 构建 model -> 副本池，
+ * 并按 vllm.routing.strategy 无锁地为每个请求选择副本。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BackendRegistry {
+    private final GatewayConfig gatewayConfig;
+    private final RoutingConfig routingConfig;
+    private final HealthCheckConfig healthCheckConfig;
+
+    /** model -> 副本池 */
+    private final Map<String, ModelPool> pools = new LinkedHashMap<>();
+
+    /** url -> 副本，同一地址全局唯一 */
+    private final Map<String, Backend> backends = new LinkedHashMap<>();
+
+    /**
+     * 根据配置构建副本池
+     */
+    @PostConstruct
+    public void init() {
+        Map<String, List<GatewayConfig.BackendConfig>> definitions = new LinkedHashMap<>();
+        if (gatewayConfig.getModelMapping() != null) {
+            gatewayConfig.getModelMapping().forEach((model, url) -> {
+                GatewayConfig.BackendConfig backendConfig = new GatewayConfig.BackendConfig();
+                backendConfig.setUrl(url);
+                definitions.put(model, List.of(backendConfig));
+            });
+        }
+        if (gatewayConfig.getModelPools() != null) {
+            definitions.putAll(gatewayConfig.getModelPools());
+        }
+
+        definitions.forEach((model, backendConfigs) -> {
+            List<Backend> poolBackends = new ArrayList<>();
+            for (GatewayConfig.BackendConfig backendConfig : backendConfigs) {
+                String url = stripTrailingSlash(backendConfig.getUrl());
+                Backend backend = backends.computeIfAbsent(url, key -> new Backend(key, backendConfig.getWeight(), healthCheckConfig));
+                backend.getModels().add(model);
+                poolBackends.add(backend);
+            }
+            if (!poolBackends.isEmpty()) {
+                pools.put(model, new ModelPool(model, poolBackends, routingConfig.getAffinity().getVirtualNodes()));
+            }
+        });
+        log.info("后端副本池初始化完成: models={}, backends={}", pools.keySet(), backends.keySet());
+    }
+
+    /**
+     * 查询模型对应的副本池
+     * @param model 模型名
+     * @return 副本池；未配置返回 null
+     */
+    public ModelPool getPool(String model) {
+        return pools.get(model);
+    }
+
+    /**
+     * 全部副本池
+     */
+    public Collection<ModelPool> getPools() {
+        return pools.values();
+    }
+
+    /**
+     * 全部后端副本（按地址去重）
+     */
+    public Collection<Backend> getBackends() {
+        return backends.values();
+    }
+
+    /**
+     * 为一次请求选择副本
+     * @param pool 副本池
+     * @return 选中的副本；全部副本均被摘除时返回 null
+     */
+    public Backend choose(ModelPool pool) {
+        return choose(pool, null);
+    }
+
+    /**
+     * 为一次请求选择副本：有亲和键时按一致性哈希（有界负载）选择，否则按配置的策略选择；被熔断摘除的副本不参与选择
+     * @param pool         副本池
+     * @param affinityHash 亲和键哈希，可为 null
+     * @return 选中的副本；全部副本均被摘除时返回 null
+     */
+    public Backend choose(ModelPool pool, Long affinityHash) {
+        if (affinityHash != null && pool.getBackends().size() > 1) {
+            return pool.getHashRing().choose(affinityHash, routingConfig.getAffinity().getLoadFactor());
+        }
+        List<Backend> candidates = availableBackends(pool.getBackends());
+        if (candidates.size() <= 1) {
+            return candidates.isEmpty() ? null : candidates.get(0);
+        }
+        return switch (routingConfig.getStrategy()) {
+            case LEAST_OUTSTANDING -> leastOutstanding(candidates);
+            case P2C -> powerOfTwoChoices(candidates);
+            case LEAST_LOAD -> leastPredictedDelay(candidates);
+        };
+    }
+
+    /**
+     * 为重试或对冲选择另一个副本：排除已尝试过的副本与被熔断摘除的副本，按配置的策略选择（不使用亲和路由）
+     * @param pool    副本池
+     * @param exclude 已尝试过的副本
+     * @return 选中的副本；没有其他可用副本时返回 null
+     */
+    public Backend chooseAlternative(ModelPool pool, Collection<Backend> exclude) {
+        List<Backend> candidates = new ArrayList<>(pool.getBackends().size());
+        for (Backend backend : pool.getBackends()) {
+            if (backend.isAvailable() && !exclude.contains(backend)) {
+                candidates.add(backend);
+            }
+        }
+        if (candidates.size() <= 1) {
+            return candidates.isEmpty() ? null : candidates.get(0);
+        }
+        return switch (routingConfig.getStrategy()) {
+            case LEAST_OUTSTANDING -> leastOutstanding(candidates);
+            case P2C -> powerOfTwoChoices(candidates);
+            case LEAST_LOAD -> leastPredictedDelay(candidates);
+        };
+    }
+
+    /**
+     * 过滤掉被熔断摘除的副本；全部可用时直接返回原列表，不产生分配
+     */
+    private static List<Backend> availableBackends(List<Backend> backends) {
+        List<Backend> available = null;
+        for (int i = 0; i < backends.size(); i++) {
+            Backend backend = backends.get(i);
+            if (backend.isAvailable()) {
+                if (available != null) {
+                    available.add(backend);
+                }
+            } else if (available == null) {
+                available = new ArrayList<>(backends.subList(0, i));
+            }
+        }
+        return available != null ? available : backends;
+    }
+
+    private static Backend powerOfTwoChoices(List<Backend> candidates) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int size = candidates.size();
+        int first = random.nextInt(size);
+        int second = random.nextInt(size - 1);
+        if (second >= first) {
+            second++;
+        }
+        Backend a = candidates.get(first);
+        Backend b = candidates.get(second);
+        return a.load() <= b.load() ? a : b;
+    }
+
+    private static Backend leastOutstanding(List<Backend> candidates) {
+        Backend best = null;
+        double bestLoad = Double.MAX_VALUE;
+        for (Backend backend : candidates) {
+            double load = backend.load();
+            if (load < bestLoad) {
+                best = backend;
+                bestLoad = load;
+            }
+        }
+        return best;
+    }
+
+    private Backend leastPredictedDelay(List<Backend> candidates) {
+        RoutingConfig.Metrics metrics = routingConfig.getMetrics();
+        Backend best = null;
+        double bestDelay = Double.MAX_VALUE;
+        for (Backend backend : candidates) {
+            double delay = backend.predictedDelay(metrics.getRunningWeight(), metrics.getStaleAfterMs());
+            if (delay < bestDelay) {
+                best = backend;
+                bestDelay = delay;
+            }
+        }
+        return best;
+    }
+
+    private static String stripTrailingSlash(String url) {
+        return url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
+    }
+}
@@ -0,0 +1,113 @@
+package com.zjsyinfo.gateway.route;
+
+import com.zjsyinfo.gateway.config.HealthCheckConfig;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 单个后端副本的熔断器，结合主动探测与被动信号：
+ * CLOSED 正常放行；连续被动失败达到阈值或主动探测失败时进入 OPEN，副本被摘除；
+ * 至少经过 openDuration 且最近一次探测健康后进入 RECOVERING，按 slowStart 线性放开流量，
+ * 期间任何失败立即重新熔断，放满后回到 CLOSED。
+ * 放行判断只读 volatile 字段，状态迁移加锁（迁移很少发生）。
+ */
+public class CircuitBreaker {
+    /** 恢复期最低放行比例 */
+    private static final double MIN_ADMIT_RATIO = 0.1;
+
+    private final HealthCheckConfig config;
+
+    private volatile State state = State.CLOSED;
+    private volatile long stateSince = System.currentTimeMillis();
+    private volatile boolean probeHealthy = true;
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+
+    public CircuitBreaker(HealthCheckConfig config) {
+        this.config = config;
+    }
+
+    /**
+     * 判断本次选择是否放行该副本
+     */
+    public boolean allowRequest() {
+        State current = state;
+        if (current == State.CLOSED) {
+            return true;
+        }
+        long now = System.currentTimeMillis();
+        if (current == State.OPEN) {
+            if (!probeHealthy || now - stateSince < config.getOpenDurationMs()) {
+                return false;
+            }
+            transition(State.OPEN, State.RECOVERING, now);
+        }
+        long elapsed = now - stateSince;
+        if (elapsed >= config.getSlowStartMs()) {
+            transition(State.RECOVERING, State.CLOSED, now);
+            return true;
+        }
+        double ratio = Math.max(MIN_ADMIT_RATIO, (double) elapsed / config.getSlowStartMs());
+        return ThreadLocalRandom.current().nextDouble() < ratio;
+    }
+
+    /**
+     * 被动信号：请求成功
+     */
+    public void onSuccess() {
+        if (consecutiveFailures.get() != 0) {
+            consecutiveFailures.set(0);
+        }
+    }
+
+    /**
+     * 被动信号：连接失败、5xx 或首字节超时
+     */
+    public void onFailure() {
+        if (state == State.RECOVERING || consecutiveFailures.incrementAndGet() >= config.getFailureThreshold()) {
+            trip();
+        }
+    }
+
+    /**
+     * 主动探测结果
+     */
+    public void onProbe(boolean healthy) {
+        probeHealthy = healthy;
+        if (!healthy && state != State.OPEN) {
+            trip();
+        }
+    }
+
+    /**
+     * 当前状态
+     */
+    public State getState() {
+        return state;
+    }
+
+    private synchronized void trip() {
+        state = State.OPEN;
+        stateSince = System.currentTimeMillis();
+        consecutiveFailures.set(0);
+    }
+
+    private synchronized void transition(State from, State to, long now) {
+        if (state == from) {
+            state = to;
+            stateSince = now;
+        }
+    }
+
+    /**
+     * 熔断状态
+     */
+    public enum State {
+        /** 正常 */
+        CLOSED,
+        /** 已摘除 */
+        OPEN,
+        /** 恢复中，逐步放开流量 */
+        RECOVERING
+    }
+}
@@ -0,0 +1,117 @@
+package com.zjsyinfo.gateway.route;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 带有界负载的一致性哈希环（consistent hashing with bounded loads）。
+ * 每个副本按权重放置若干虚拟节点；查找时从键的位置顺时针遍历，
+ * 选第一个在途请求数未超过 ceil(loadFactor * (总在途 + 1) * 权重 / 总权重) 的副本，
+ * 热点会话因此不会压垮单个副本。构建后不可变，查找无锁。
+ */
+public class ConsistentHashRing {
+    private final long[] points;
+    /** 每个虚拟节点所属副本在 backends 中的下标 */
+    private final int[] ownerIndexes;
+    private final List<Backend> backends;
+    private final int totalWeight;
+
+    public ConsistentHashRing(List<Backend> backends, int virtualNodes) {
+        this.backends = List.copyOf(backends);
+        this.totalWeight = backends.stream().mapToInt(Backend::getWeight).sum();
+        List<long[]> entries = new ArrayList<>();
+        for (int b = 0; b < backends.size(); b++) {
+            Backend backend = backends.get(b);
+            int nodes = Math.max(1, virtualNodes * backend.getWeight());
+            for (int i = 0; i < nodes; i++) {
+                entries.add(new long[]{hash(backend.getUrl() + "#" + i), b});
+            }
+        }
+        entries.sort((x, y) -> Long.compare(x[0], y[0]));
+        points = new long[entries.size()];
+        ownerIndexes = new int[entries.size()];
+        for (int i = 0; i < entries.size(); i++) {
+            points[i] = entries.get(i)[0];
+            ownerIndexes[i] = (int) entries.get(i)[1];
+        }
+    }
+
+    /**
+     * 按亲和键选择副本，跳过被熔断摘除的副本
+     * @param keyHash    亲和键哈希
+     * @param loadFactor 有界负载系数（≥1）
+     * @return 选中的副本；全部副本均被摘除时返回 null
+     */
+    public Backend choose(long keyHash, double loadFactor) {
+        int totalInFlight = 0;
+        for (Backend backend : backends) {
+            totalInFlight += backend.getInFlight().get();
+        }
+        int index = Arrays.binarySearch(points, keyHash);
+        if (index < 0) {
+            index = -index - 1;
+        }
+        boolean[] visited = new boolean[backends.size()];
+        int remaining = backends.size();
+        Backend fallback = null;
+        for (int step = 0; step < points.length && remaining > 0; step++) {
+            int position = (index + step) % points.length;
+            int owner = ownerIndexes[position];
+            if (visited[owner]) {
+                continue;
+            }
+            visited[owner] = true;
+            remaining--;
+            Backend candidate = backends.get(owner);
+            if (!candidate.isAvailable()) {
+                continue;
+            }
+            double capacity = Math.ceil(loadFactor * (totalInFlight + 1) * candidate.getWeight() / totalWeight);
+            if (candidate.getInFlight().get() < capacity) {
+                return candidate;
+            }
+            // 均超载时退回负载最低的可用副本
+            if (fallback == null || candidate.load() < fallback.load()) {
+                fallback = candidate;
+            }
+        }
+        return fallback;
+    }
+
+    /**
+     * 字符串键的 64 位哈希
+     */
+    public static long hash(String key) {
+        long h = Fnv1a.OFFSET_BASIS;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            h = Fnv1a.update(h, b);
+        }
+        return Fnv1a.finish(h);
+    }
+
+    /**
+     * FNV-1a 64 位哈希，末尾做一次 murmur3 fmix64 混淆以打散相近键
+     */
+    public static final class Fnv1a {
+        public static final long OFFSET_BASIS = 0xcbf29ce484222325L;
+        private static final long PRIME = 0x100000001b3L;
+
+        private Fnv1a() {
+        }
+
+        public static long update(long hash, byte b) {
+            return (hash ^ (b & 0xff)) * PRIME;
+        }
+
+        public static long finish(long hash) {
+            hash ^= hash >>> 33;
+            hash *= 0xff51afd7ed558ccdL;
+            hash ^= hash >>> 33;
+            hash *= 0xc4ceb9fe1a85ec53L;
+            hash ^= hash >>> 33;
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.zjsyinfo.gateway.route;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zjsyinfo.gateway.config.RoutingConfig;
+import com.zjsyinfo.gateway.mongo.entity.GatewayApp;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 模型目录：并行查询全部副本的 /v1/models，与网关配置的模型名合并，结果按 TTL 缓存，
+ * 客户端频繁轮询 /v1/models 时不再产生上游请求。
+ */
+@Slf4j
+@Component
+public class ModelCatalog {
+    private static final TypeReference<Map<String, Object>> MODEL_TYPE = new TypeReference<>() {
+    };
+
+    private final BackendRegistry backendRegistry;
+    private final RoutingConfig routingConfig;
+    private final ObjectMapper objectMapper;
+    private final WebClient webClient;
+    /** 网关启动时间（秒），用于未能从副本取到元数据的模型 */
+    private final long createdAt = System.currentTimeMillis() / 1000;
+    /** 聚合后的模型列表，成功结果缓存 TTL，失败不缓存 */
+    private final Mono<List<Map<String, Object>>> models;
+
+    public ModelCatalog(BackendRegistry backendRegistry, RoutingConfig routingConfig, ObjectMapper objectMapper,
+                        WebClient.Builder webClientBuilder) {
+        this.backendRegistry = backendRegistry;
+        this.routingConfig = routingConfig;
+        this.objectMapper = objectMapper;
+        this.webClient = webClientBuilder.build();
+        this.models = Mono.defer(this::fetchModels)
+                .cache(value -> Duration.ofMillis(routingConfig.getModels().getCacheTtlMs()),
+                        error -> Duration.ZERO, () -> Duration.ZERO);
+    }
+
+    /**
+     * 应用可见的模型列表（OpenAI model 对象）
+     * @param app 调用方应用，可为 null
+     */
+    public Mono<List<Map<String, Object>>> listModels(GatewayApp app) {
+        return models.map(list -> list.stream()
+                .filter(model -> isAllowed(app, (String) model.get("id")))
+                .toList());
+    }
+
+    /**
+     * 应用是否允许调用该模型（GatewayApp.models 为空表示不限制）
+     */
+    public boolean isAllowed(GatewayApp app, String model) {
+        return app == null || app.getModels() == null || app.getModels().isEmpty() || app.getModels().contains(model);
+    }
+
+    /**
+     * 并行查询全部副本并合并：只列出网关配置的模型名，且至少有一个副本正常应答；
+     * 若全部副本均无应答则退回按配置列出，避免上游短暂故障时模型列表为空。
+     */
+    private Mono<List<Map<String, Object>>> fetchModels() {
+        RoutingConfig.Models config = routingConfig.getModels();
+        return Flux.fromIterable(backendRegistry.getBackends())
+                .flatMap(backend -> fetchBackendModels(backend, config).map(served -> Map.entry(backend, served)))
+                .collectMap(Map.Entry::getKey, Map.Entry::getValue)
+                .map(responded -> {
+                    List<Map<String, Object>> merged = new ArrayList<>();
+                    for (ModelPool pool : backendRegistry.getPools()) {
+                        boolean served = responded.isEmpty();
+                        Map<String, Object> upstream = null;
+                        for (Backend backend : pool.getBackends()) {
+                            Map<String, Map<String, Object>> backendModels = responded.get(backend);
+                            if (backendModels != null) {
+                                served = true;
+                                if (upstream == null) {
+                                    // 副本以其他名字提供该模型（served-model-name 与网关模型名不同）且只提供一个模型时，沿用其元数据
+                                    upstream = backendModels.size() == 1 && !backendModels.containsKey(pool.getModel())
+                                            ? backendModels.values().iterator().next() : backendModels.get(pool.getModel());
+                                }
+                            }
+                        }
+                        if (served) {
+                            merged.add(modelEntry(pool.getModel(), upstream));
+                        }
+                    }
+                    return merged;
+                });
+    }
+
+    /**
+     * 查询单个副本的模型列表（id -> model 对象），失败时为空
+     */
+    private Mono<Map<String, Map<String, Object>>> fetchBackendModels(Backend backend, RoutingConfig.Models config) {
+        return webClient.get()
+                .uri(backend.getUrl() + "/v1/models")
+                .retrieve()
+                .bodyToMono(JsonNode.class)
+                .timeout(Duration.ofMillis(config.getTimeoutMs()))
+                .map(root -> {
+                    Map<String, Map<String, Object>> served = new HashMap<>();
+                    for (JsonNode model : root.path("data")) {
+                        if (model.hasNonNull("id")) {
+                            served.put(model.get("id").asText(), objectMapper.convertValue(model, MODEL_TYPE));
+                        }
+                    }
+                    return served;
+                })
+                .onErrorResume(e -> {
+                    log.debug("查询副本模型列表失败: url={}", backend.getUrl(), e);
+                    return Mono.empty();
+                });
+    }
+
+    /**
+     * 构造对外的 model 对象：有副本元数据时沿用（如 max_model_len），id 统一为网关模型名
+     */
+    private Map<String, Object> modelEntry(String model, Map<String, Object> upstream) {
+        Map<String, Object> entry = new LinkedHashMap<>();
+        entry.put("id", model);
+        entry.put("object", "model");
+        entry.put("created", createdAt);
+        entry.put("owned_by", "vllm");
+        if (upstream != null) {
+            upstream.forEach((key, value) -> {
+                if (!"id".equals(key)) {
+                    entry.put(key, value);
+                }
+            });
+        }
+        return entry;
+    }
+}
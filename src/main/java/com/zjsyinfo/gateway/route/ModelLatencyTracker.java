@@ -0,0 +1,62 @@
+package com.zjsyinfo.gateway.route;
+
+import com.zjsyinfo.gateway.config.RetryConfig;
+import com.zjsyinfo.gateway.stats.LatencySketch;
+import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 按模型统计非流式请求的上游时延，每个统计窗口结束时计算分位数（vllm.retry.hedge.percentile）作为对冲阈值。
+ * 样本数不足 min-samples 的窗口不更新阈值，继续累积到下一个窗口。
+ */
+@Component
+@RequiredArgsConstructor
+public class ModelLatencyTracker {
+    private final RetryConfig retryConfig;
+    private final Map<String, ModelLatency> latencyByModel = new ConcurrentHashMap<>();
+
+    /**
+     * 记录一次成功请求的上游时延
+     */
+    public void record(String model, long millis) {
+        ModelLatency latency = latencyByModel.computeIfAbsent(model, key -> new ModelLatency());
+        synchronized (latency) {
+            latency.window.add(millis);
+        }
+    }
+
+    /**
+     * 对冲等待时长：该模型最近一次计算的分位时延，不低于 min-delay-ms
+     * @return 毫秒；尚无足够样本时为 null，表示不对冲
+     */
+    public Long hedgeDelayMs(String model) {
+        ModelLatency latency = latencyByModel.get(model);
+        Long threshold = latency != null ? latency.threshold : null;
+        return threshold != null ? Math.max(threshold, retryConfig.getHedge().getMinDelayMs()) : null;
+    }
+
+    /**
+     * 窗口结束：样本足够时更新阈值并开始新窗口
+     */
+    @Scheduled(fixedDelayString = "${vllm.retry.hedge.window-ms:60000}")
+    public void rotate() {
+        RetryConfig.Hedge hedge = retryConfig.getHedge();
+        latencyByModel.values().forEach(latency -> {
+            synchronized (latency) {
+                if (latency.window.getCount() >= hedge.getMinSamples()) {
+                    latency.threshold = latency.window.quantile(hedge.getPercentile());
+                    latency.window = new LatencySketch();
+                }
+            }
+        });
+    }
+
+    private static final class ModelLatency {
+        private LatencySketch window = new LatencySketch();
+        private volatile Long threshold;
+    }
+}
@@ -0,0 +1,26 @@
+package com.zjsyinfo.gateway.route;
+
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * 单个模型名对应的后端副本池
+ */
+@Getter
+public class ModelPool {
+    /** 网关对外的模型名 */
+    private final String model;
+
+    /** 副本列表（不可变） */
+    private final List<Backend> backends;
+
+    /** 会话亲和使用的一致性哈希环 */
+    private final ConsistentHashRing hashRing;
+
+    public ModelPool(String model, List<Backend> backends, int virtualNodes) {
+        this.model = model;
+        this.backends = List.copyOf(backends);
+        this.hashRing = new ConsistentHashRing(backends, virtualNodes);
+    }
+}
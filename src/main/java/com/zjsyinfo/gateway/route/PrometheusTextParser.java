@@ -0,0 +1,74 @@
+package com.zjsyinfo.gateway.route;
+
+/**
+ * vLLM Prometheus 文本格式指标的最小解析器，只读取路由需要的几个指标。
+ * 同名指标的多个标签组合（如多个 model_name / engine）中，请求数求和，KV Cache 占用取最大值。
+ */
+public final class PrometheusTextParser {
+    private static final String WAITING = "vllm:num_requests_waiting";
+    private static final String RUNNING = "vllm:num_requests_running";
+    private static final String GPU_CACHE_USAGE = "vllm:gpu_cache_usage_perc";
+    private static final String KV_CACHE_USAGE = "vllm:kv_cache_usage_perc";
+
+    private PrometheusTextParser() {
+    }
+
+    /**
+     * 解析指标文本
+     * @param text      /metrics 响应体
+     * @param scrapedAt 采集时间戳（毫秒）
+     * @return 负载快照
+     */
+    public static BackendLoad parse(String text, long scrapedAt) {
+        double waiting = 0;
+        double running = 0;
+        double kvCacheUsage = 0;
+        int lineStart = 0;
+        int length = text.length();
+        while (lineStart < length) {
+            int lineEnd = text.indexOf('\n', lineStart);
+            if (lineEnd < 0) {
+                lineEnd = length;
+            }
+            if (text.startsWith("vllm:", lineStart)) {
+                String line = text.substring(lineStart, lineEnd).trim();
+                String name = metricName(line);
+                double value = value(line);
+                if (!Double.isNaN(value)) {
+                    switch (name) {
+                        case WAITING -> waiting += value;
+                        case RUNNING -> running += value;
+                        case GPU_CACHE_USAGE, KV_CACHE_USAGE -> kvCacheUsage = Math.max(kvCacheUsage, value);
+                        default -> {
+                        }
+                    }
+                }
+            }
+            lineStart = lineEnd + 1;
+        }
+        return new BackendLoad(waiting, running, kvCacheUsage, scrapedAt);
+    }
+
+    private static String metricName(String line) {
+        int end = 0;
+        while (end < line.length() && line.charAt(end) != '{' && line.charAt(end) != ' ') {
+            end++;
+        }
+        return line.substring(0, end);
+    }
+
+    /**
+     * 取样本值：标签块之后的第一个字段（其后可能跟时间戳）
+     */
+    private static double value(String line) {
+        int labelsEnd = line.lastIndexOf('}');
+        String rest = (labelsEnd >= 0 ? line.substring(labelsEnd + 1) : line.substring(metricName(line).length())).trim();
+        int space = rest.indexOf(' ');
+        String value = space >= 0 ? rest.substring(0, space) : rest;
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            return Double.NaN;
+        }
+    }
+}
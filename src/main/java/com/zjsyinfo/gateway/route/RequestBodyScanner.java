@@ -0,0 +1,289 @@
+package com.zjsyinfo.gateway.route;
+
+import org.springframework.core.io.buffer.DataBuffer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * 请求体增量扫描器：逐字节扫描请求 JSON，提取路由所需的顶层字段后即停止。
+ * 提取内容：model 字段（必需）；可选的 user 字段；可选的 messages/prompt 值前 N 字节的哈希（会话亲和）；可选的 stream 标志。
+ * 字符串内容（如 base64 图片）直接跳过，不复制、不构建对象树，内存占用与请求体大小无关。
+ * 非线程安全，每个请求使用一个实例。
+ */
+public class RequestBodyScanner {
+    private static final byte[] MODEL = bytes("model");
+    private static final byte[] USER = bytes("user");
+    private static final byte[] MESSAGES = bytes("messages");
+    private static final byte[] PROMPT = bytes("prompt");
+    private static final byte[] STREAM = bytes("stream");
+    /** 需要识别的最长键长度 */
+    private static final int MAX_KEY_BYTES = 16;
+    /** 截取的字符串值最大长度 */
+    private static final int MAX_VALUE_BYTES = 256;
+
+    private static final int FIELD_NONE = 0;
+    private static final int FIELD_MODEL = 1;
+    private static final int FIELD_USER = 2;
+    private static final int FIELD_PREFIX = 3;
+    private static final int FIELD_STREAM = 4;
+
+    private final boolean captureUser;
+    private final int prefixHashBytes;
+    private final boolean captureStream;
+
+    private int depth;
+    private boolean inString;
+    private boolean escaped;
+    private boolean expectKey;
+    private final byte[] keyBytes = new byte[MAX_KEY_BYTES];
+    /** 当前键已读取的字节数，-1 表示不需要识别 */
+    private int keyLength = -1;
+    private int lastKeyField = FIELD_NONE;
+    /** 下一个顶层值所属的字段 */
+    private int valueField = FIELD_NONE;
+
+    /** 正在截取的字符串值所属字段 */
+    private int capturingField = FIELD_NONE;
+    private final byte[] valueBytes = new byte[MAX_VALUE_BYTES];
+    private int valueLength;
+
+    private boolean hashing;
+    private long prefixHash = ConsistentHashRing.Fnv1a.OFFSET_BASIS;
+    private int hashedBytes;
+    private boolean prefixDone;
+
+    private String model;
+    private String user;
+    private boolean userDone;
+    private boolean stream;
+    private boolean streamDone;
+    private boolean done;
+
+    /**
+     * 仅提取 model
+     */
+    public RequestBodyScanner() {
+        this(false, 0);
+    }
+
+    /**
+     * @param captureUser     是否提取 user 字段
+     * @param prefixHashBytes 对 messages/prompt 值前多少字节求哈希，0 表示不需要
+     */
+    public RequestBodyScanner(boolean captureUser, int prefixHashBytes) {
+        this(captureUser, prefixHashBytes, false);
+    }
+
+    /**
+     * @param captureUser     是否提取 user 字段
+     * @param prefixHashBytes 对 messages/prompt 值前多少字节求哈希，0 表示不需要
+     * @param captureStream   是否提取 stream 标志
+     */
+    public RequestBodyScanner(boolean captureUser, int prefixHashBytes, boolean captureStream) {
+        this.captureUser = captureUser;
+        this.prefixHashBytes = prefixHashBytes;
+        this.captureStream = captureStream;
+        this.userDone = !captureUser;
+        this.prefixDone = prefixHashBytes <= 0;
+        this.streamDone = !captureStream;
+    }
+
+    /**
+     * 扫描一个请求体 chunk，不改变其读写位置。
+     * @return 是否已完成扫描（所需字段均已找到或请求体已结束），完成后无需继续喂入
+     */
+    public boolean feed(DataBuffer buffer) {
+        for (int i = buffer.readPosition(), end = buffer.writePosition(); i < end && !done; i++) {
+            feed(buffer.getByte(i));
+        }
+        return done;
+    }
+
+    /**
+     * 是否已完成扫描
+     */
+    public boolean isDone() {
+        return done;
+    }
+
+    /**
+     * 顶层 model 字段的值；未找到时为 null
+     */
+    public String getModel() {
+        return model;
+    }
+
+    /**
+     * 顶层 user 字段的值；未提取或未找到时为 null
+     */
+    public String getUser() {
+        return user;
+    }
+
+    /**
+     * 顶层 stream 字段是否为 true；未提取或未找到时为 false
+     */
+    public boolean isStream() {
+        return stream;
+    }
+
+    /**
+     * messages/prompt 前缀哈希；未提取或未找到时为 null
+     */
+    public Long getPrefixHash() {
+        return hashedBytes > 0 ? ConsistentHashRing.Fnv1a.finish(prefixHash) : null;
+    }
+
+    private void feed(byte b) {
+        if (hashing) {
+            if (!inString && depth == 1 && (b == ',' || b == '}')) {
+                hashing = false;
+                prefixDone = true;
+                checkDone();
+            } else {
+                prefixHash = ConsistentHashRing.Fnv1a.update(prefixHash, b);
+                if (++hashedBytes == prefixHashBytes) {
+                    hashing = false;
+                    prefixDone = true;
+                    checkDone();
+                    if (done) {
+                        return;
+                    }
+                }
+            }
+        }
+        if (inString) {
+            scanString(b);
+            return;
+        }
+        if (valueField == FIELD_PREFIX && !isWhitespace(b)) {
+            // messages/prompt 的值从此字节开始
+            hashing = true;
+            prefixHash = ConsistentHashRing.Fnv1a.update(prefixHash, b);
+            hashedBytes++;
+            valueField = FIELD_NONE;
+        }
+        switch (b) {
+            case '"' -> {
+                inString = true;
+                keyLength = expectKey ? 0 : -1;
+                expectKey = false;
+                if (valueField == FIELD_MODEL || valueField == FIELD_USER) {
+                    capturingField = valueField;
+                    valueLength = 0;
+                }
+                valueField = FIELD_NONE;
+            }
+            case ':' -> {
+                valueField = depth == 1 ? lastKeyField : FIELD_NONE;
+                lastKeyField = FIELD_NONE;
+            }
+            case ',' -> {
+                expectKey = depth == 1;
+                valueField = FIELD_NONE;
+            }
+            case '{', '[' -> {
+                valueField = FIELD_NONE;
+                depth++;
+                expectKey = b == '{' && depth == 1;
+            }
+            case '}', ']' -> {
+                depth--;
+                if (depth <= 0) {
+                    // 顶层对象结束
+                    done = true;
+                }
+            }
+            case ' ', '\t', '\r', '\n' -> {
+            }
+            default -> {
+                if (valueField == FIELD_STREAM) {
+                    // stream 的值为字面量，首字节即可区分 true/false
+                    stream = b == 't';
+                    streamDone = true;
+                    checkDone();
+                }
+                valueField = FIELD_NONE;
+            }
+        }
+    }
+
+    private void scanString(byte b) {
+        if (escaped) {
+            escaped = false;
+            append(b);
+        } else if (b == '\\') {
+            escaped = true;
+            keyLength = -1;
+        } else if (b == '"') {
+            inString = false;
+            if (capturingField != FIELD_NONE) {
+                String value = new String(valueBytes, 0, valueLength, StandardCharsets.UTF_8);
+                if (capturingField == FIELD_MODEL) {
+                    model = value;
+                } else {
+                    user = value;
+                    userDone = true;
+                }
+                capturingField = FIELD_NONE;
+                checkDone();
+            } else if (keyLength >= 0 && depth == 1) {
+                lastKeyField = fieldOf();
+            }
+        } else {
+            append(b);
+        }
+    }
+
+    private void append(byte b) {
+        if (capturingField != FIELD_NONE) {
+            if (valueLength == MAX_VALUE_BYTES) {
+                // 超长的值视为无效
+                capturingField = FIELD_NONE;
+            } else {
+                valueBytes[valueLength++] = b;
+            }
+        } else if (keyLength >= 0) {
+            if (keyLength == MAX_KEY_BYTES) {
+                keyLength = -1;
+            } else {
+                keyBytes[keyLength++] = b;
+            }
+        }
+    }
+
+    private int fieldOf() {
+        if (matches(MODEL)) {
+            return FIELD_MODEL;
+        }
+        if (captureUser && matches(USER)) {
+            return FIELD_USER;
+        }
+        if (captureStream && matches(STREAM)) {
+            return FIELD_STREAM;
+        }
+        if (!prefixDone && hashedBytes == 0 && (matches(MESSAGES) || matches(PROMPT))) {
+            return FIELD_PREFIX;
+        }
+        return FIELD_NONE;
+    }
+
+    private void checkDone() {
+        if (model != null && userDone && prefixDone && streamDone) {
+            done = true;
+        }
+    }
+
+    private boolean matches(byte[] expected) {
+        return Arrays.equals(keyBytes, 0, keyLength, expected, 0, expected.length);
+    }
+
+    private static boolean isWhitespace(byte b) {
+        return b == ' ' || b == '\t' || b == '\r' || b == '\n';
+    }
+
+    private static byte[] bytes(String text) {
+        return text.getBytes(StandardCharsets.US_ASCII);
+    }
+}
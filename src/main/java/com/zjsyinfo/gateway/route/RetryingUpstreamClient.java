@@ -0,0 +1,191 @@
+package com.zjsyinfo.gateway.route;
+
+import com.zjsyinfo.gateway.config.RetryConfig;
+import com.zjsyinfo.gateway.limit.RetryBudget;
+import com.zjsyinfo.gateway.mongo.entity.GatewayApp;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ConnectTimeoutException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cloud.gateway.config.HttpClientProperties;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+import reactor.core.publisher.Sinks;
+import reactor.netty.http.client.HttpClient;
+
+import java.net.ConnectException;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 带重试与对冲的上游调用（仅用于请求体已缓存的非流式请求）：
+ * 连接失败或后端返回 503 时换一个未尝试过的副本重试；首次尝试超过该模型近期分位时延仍未返回时，
+ * 向另一副本发出对冲请求，先返回者胜出，另一个被取消（连接随之关闭，vLLM 中止该请求）。
+ * 重试与对冲均从应用的 {@link RetryBudget} 中扣除额度。响应体完整读入后返回，由调用方写回客户端。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RetryingUpstreamClient {
+    private static final byte[] EMPTY = new byte[0];
+
+    private final HttpClient httpClient;
+    private final HttpClientProperties httpClientProperties;
+    private final BackendRegistry backendRegistry;
+    private final RetryConfig retryConfig;
+    private final RetryBudget retryBudget;
+    private final ModelLatencyTracker modelLatencyTracker;
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * 发送请求，必要时重试或对冲
+     * @param pool    副本池
+     * @param first   首次尝试的副本
+     * @param app     调用方应用，用于重试预算
+     * @param uri     请求路径（含查询参数）
+     * @param headers 已过滤的请求头
+     * @param body    请求体
+     * @return 胜出的上游响应；全部尝试均连接失败时为最后一次的异常
+     */
+    public Mono<UpstreamResponse> exchange(ModelPool pool, Backend first, GatewayApp app, String uri,
+                                           HttpHeaders headers, byte[] body) {
+        retryBudget.deposit(app);
+        Set<Backend> tried = ConcurrentHashMap.newKeySet();
+        tried.add(first);
+        Mono<UpstreamResponse> primary = attemptWithRetry(pool, first, app, uri, headers, body, tried, 1);
+
+        Long hedgeDelayMs = retryConfig.getHedge().isEnabled() ? modelLatencyTracker.hedgeDelayMs(pool.getModel()) : null;
+        if (hedgeDelayMs == null) {
+            return primary;
+        }
+
+        // 首次尝试（含其重试）结束后不再发出对冲；对冲请求失败或返回 5xx 时不参与竞争
+        Sinks.Empty<Void> primaryDone = Sinks.empty();
+        AtomicReference<Throwable> primaryError = new AtomicReference<>();
+        Mono<UpstreamResponse> hedge = Mono.delay(Duration.ofMillis(hedgeDelayMs))
+                .takeUntilOther(primaryDone.asMono())
+                .flatMap(tick -> {
+                    Backend backend = backendRegistry.chooseAlternative(pool, tried);
+                    if (backend == null || !retryBudget.tryWithdraw(app)) {
+                        return Mono.empty();
+                    }
+                    tried.add(backend);
+                    meterRegistry.counter("gateway.upstream.hedges", "model", pool.getModel(), "result", "sent").increment();
+                    log.info("发出对冲请求: model={}, backend={}, delayMs={}", pool.getModel(), backend.getUrl(), hedgeDelayMs);
+                    return attempt(pool, backend, uri, headers, body)
+                            .filter(response -> response.status() < HttpStatus.INTERNAL_SERVER_ERROR.value())
+                            .doOnNext(response -> meterRegistry.counter("gateway.upstream.hedges",
+                                    "model", pool.getModel(), "result", "won").increment())
+                            .onErrorResume(e -> Mono.empty());
+                });
+        return Mono.firstWithValue(
+                        primary.doOnError(primaryError::set).doFinally(signalType -> primaryDone.tryEmitEmpty()),
+                        hedge)
+                .onErrorMap(e -> primaryError.get() != null ? primaryError.get() : e);
+    }
+
+    /**
+     * 尝试一次，连接失败或 503 时按预算换副本重试
+     */
+    private Mono<UpstreamResponse> attemptWithRetry(ModelPool pool, Backend backend, GatewayApp app, String uri,
+                                                    HttpHeaders headers, byte[] body, Set<Backend> tried, int attempt) {
+        return attempt(pool, backend, uri, headers, body)
+                .materialize()
+                .flatMap(signal -> {
+                    if (signal.isOnError() && isConnectFailure(signal.getThrowable())) {
+                        return retry(pool, app, uri, headers, body, tried, attempt, "connect", Mono.error(signal.getThrowable()));
+                    }
+                    if (signal.isOnNext() && retryConfig.isRetryOn503()
+                            && signal.get().status() == HttpStatus.SERVICE_UNAVAILABLE.value()) {
+                        return retry(pool, app, uri, headers, body, tried, attempt, "503", Mono.just(signal.get()));
+                    }
+                    return Mono.just(signal).<UpstreamResponse>dematerialize();
+                });
+    }
+
+    private Mono<UpstreamResponse> retry(ModelPool pool, GatewayApp app, String uri, HttpHeaders headers, byte[] body,
+                                         Set<Backend> tried, int attempt, String reason, Mono<UpstreamResponse> fallback) {
+        if (attempt >= retryConfig.getMaxAttempts()) {
+            return fallback;
+        }
+        Backend next = backendRegistry.chooseAlternative(pool, tried);
+        if (next == null) {
+            return fallback;
+        }
+        if (!retryBudget.tryWithdraw(app)) {
+            meterRegistry.counter("gateway.upstream.retry.budget.exhausted", "model", pool.getModel()).increment();
+            return fallback;
+        }
+        tried.add(next);
+        meterRegistry.counter("gateway.upstream.retries", "model", pool.getModel(), "reason", reason).increment();
+        log.info("重试上游请求: model={}, reason={}, backend={}, attempt={}", pool.getModel(), reason, next.getUrl(), attempt + 1);
+        return attemptWithRetry(pool, next, app, uri, headers, body, tried, attempt + 1);
+    }
+
+    /**
+     * 向单个副本发送一次请求并读完响应体；在途计数与熔断信号与 ModelRouteFilter 转发一致，成功的时延计入对冲阈值统计
+     */
+    private Mono<UpstreamResponse> attempt(ModelPool pool, Backend backend, String uri, HttpHeaders headers, byte[] body) {
+        Duration responseTimeout = httpClientProperties.getResponseTimeout();
+        AtomicInteger status = new AtomicInteger();
+        long[] startNanos = new long[1];
+        return httpClient
+                .headers(nettyHeaders -> headers.forEach(nettyHeaders::set))
+                .post()
+                .uri(backend.getUrl() + uri)
+                .send((request, outbound) -> {
+                    if (responseTimeout != null) {
+                        request.responseTimeout(responseTimeout);
+                    }
+                    return outbound.send(Mono.fromSupplier(() -> Unpooled.wrappedBuffer(body)));
+                })
+                .responseSingle((response, content) -> {
+                    status.set(response.status().code());
+                    HttpHeaders responseHeaders = new HttpHeaders();
+                    response.responseHeaders().forEach(entry -> responseHeaders.add(entry.getKey(), entry.getValue()));
+                    return content.asByteArray()
+                            .defaultIfEmpty(EMPTY)
+                            .map(bytes -> new UpstreamResponse(backend, status.get(), responseHeaders, bytes));
+                })
+                .doOnNext(response -> {
+                    if (response.status() == HttpStatus.OK.value()) {
+                        modelLatencyTracker.record(pool.getModel(), (System.nanoTime() - startNanos[0]) / 1_000_000);
+                    }
+                })
+                .doOnSubscribe(subscription -> {
+                    startNanos[0] = System.nanoTime();
+                    backend.acquire();
+                })
+                .doFinally(signalType -> backend.release(signalType == SignalType.ON_ERROR
+                        || status.get() >= HttpStatus.INTERNAL_SERVER_ERROR.value()));
+    }
+
+    /**
+     * 是否为连接失败（请求未发出，可安全重试）
+     */
+    static boolean isConnectFailure(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConnectException || cause instanceof ConnectTimeoutException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 上游响应
+     * @param backend 返回该响应的副本
+     * @param status  状态码
+     * @param headers 响应头（未过滤）
+     * @param body    响应体
+     */
+    public record UpstreamResponse(Backend backend, int status, HttpHeaders headers, byte[] body) {
+    }
+}
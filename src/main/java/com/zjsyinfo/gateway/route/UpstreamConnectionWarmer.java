@@ -0,0 +1,47 @@
+package com.zjsyinfo.gateway.route;
+
+import com.zjsyinfo.gateway.config.HealthCheckConfig;
+import com.zjsyinfo.gateway.config.UpstreamConfig;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.netty.http.client.HttpClient;
+
+import java.time.Duration;
+
+/**
+ * 连接预热：启动完成后通过网关转发用的 HttpClient 并发请求每个后端的健康检查接口，
+ * 使首批业务请求无需再建立 TCP 连接。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class UpstreamConnectionWarmer {
+    private final HttpClient httpClient;
+    private final BackendRegistry backendRegistry;
+    private final UpstreamConfig upstreamConfig;
+    private final HealthCheckConfig healthCheckConfig;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmup() {
+        int connections = upstreamConfig.getWarmupConnections();
+        if (connections <= 0) {
+            return;
+        }
+        Flux.fromIterable(backendRegistry.getBackends())
+                .flatMap(backend -> Flux.range(0, connections)
+                        .flatMap(i -> httpClient.get()
+                                .uri(backend.getUrl() + healthCheckConfig.getPath())
+                                .responseSingle((response, body) -> body.then())
+                                .timeout(Duration.ofMillis(healthCheckConfig.getTimeoutMs())))
+                        .doOnComplete(() -> log.info("后端连接预热完成: url={}, connections={}", backend.getUrl(), connections))
+                        .onErrorResume(e -> {
+                            log.warn("后端连接预热失败: url={}, error={}", backend.getUrl(), e.toString());
+                            return Flux.empty();
+                        }))
+                .subscribe();
+    }
+}
@@ -0,0 +1,61 @@
+package com.zjsyinfo.gateway.route;
+
+import org.springframework.stereotype.Component;
+import reactor.netty.resources.ConnectionPoolMetrics;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.net.SocketAddress;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 上游连接池指标：Reactor Netty 为每个后端地址创建连接池时回调注册，按地址保存池的实时计数。
+ */
+@Component
+public class UpstreamPoolMetrics implements ConnectionProvider.MeterRegistrar {
+    /** 池标识（池名 + 地址 + id）-> 池指标 */
+    private final Map<String, Registration> pools = new ConcurrentHashMap<>();
+
+    @Override
+    public void registerMetrics(String poolName, String id, SocketAddress remoteAddress, ConnectionPoolMetrics metrics) {
+        pools.put(key(poolName, id, remoteAddress), new Registration(poolName, remoteAddress.toString(), metrics));
+    }
+
+    @Override
+    public void deRegisterMetrics(String poolName, String id, SocketAddress remoteAddress) {
+        pools.remove(key(poolName, id, remoteAddress));
+    }
+
+    /**
+     * 全部连接池的当前计数
+     */
+    public List<PoolStats> stats() {
+        return pools.values().stream().map(Registration::stats).toList();
+    }
+
+    private static String key(String poolName, String id, SocketAddress remoteAddress) {
+        return poolName + "|" + remoteAddress + "|" + id;
+    }
+
+    private record Registration(String poolName, String remoteAddress, ConnectionPoolMetrics metrics) {
+        PoolStats stats() {
+            return new PoolStats(poolName, remoteAddress, metrics.acquiredSize(), metrics.idleSize(),
+                    metrics.allocatedSize(), metrics.maxAllocatedSize(), metrics.pendingAcquireSize(),
+                    metrics.maxPendingAcquireSize());
+        }
+    }
+
+    /**
+     * 单个后端地址的连接池计数
+     * @param acquired       正在使用的连接数
+     * @param idle           空闲连接数
+     * @param allocated      已建立的连接数
+     * @param maxAllocated   连接数上限
+     * @param pending        等待获取连接的请求数
+     * @param maxPending     等待队列上限
+     */
+    public record PoolStats(String poolName, String remoteAddress, int acquired, int idle, int allocated,
+                            int maxAllocated, int pending, int maxPending) {
+    }
+}
@@ -0,0 +1,68 @@
+package com.zjsyinfo.gateway.route;
+
+import com.zjsyinfo.gateway.config.RoutingConfig;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+/**
+ * vLLM 负载采集：定时并行抓取每个副本的 /metrics，解析为负载快照写回副本，供 LEAST_LOAD 策略使用。
+ * 仅在 vllm.routing.strategy=LEAST_LOAD 时采集。
+ */
+@Slf4j
+@Component
+public class VllmMetricsPoller {
+    private final BackendRegistry backendRegistry;
+    private final RoutingConfig routingConfig;
+    private final WebClient webClient;
+
+    public VllmMetricsPoller(BackendRegistry backendRegistry, RoutingConfig routingConfig,
+                             WebClient.Builder webClientBuilder) {
+        this.backendRegistry = backendRegistry;
+        this.routingConfig = routingConfig;
+        this.webClient = webClientBuilder.build();
+    }
+
+    /**
+     * 定时采集
+     */
+    @Scheduled(fixedDelayString = "${vllm.routing.metrics.interval-ms:1000}")
+    public void scheduledPoll() {
+        if (routingConfig.getStrategy() == RoutingConfig.Strategy.LEAST_LOAD) {
+            poll();
+        }
+    }
+
+    /**
+     * 采集全部副本一次，等待本轮结束后返回；采集失败的副本保留旧快照，过期后自动退回按在途请求数选择
+     */
+    public void poll() {
+        RoutingConfig.Metrics metrics = routingConfig.getMetrics();
+        try {
+            Flux.fromIterable(backendRegistry.getBackends())
+                    .flatMap(backend -> scrape(backend, metrics).doOnNext(backend::updateLoad))
+                    .then()
+                    .block(Duration.ofMillis(metrics.getTimeoutMs() * 2));
+        } catch (Exception e) {
+            log.warn("vLLM 负载采集未在预期时间内完成", e);
+        }
+    }
+
+    private Mono<BackendLoad> scrape(Backend backend, RoutingConfig.Metrics metrics) {
+        return webClient.get()
+                .uri(backend.getUrl() + metrics.getPath())
+                .retrieve()
+                .bodyToMono(String.class)
+                .timeout(Duration.ofMillis(metrics.getTimeoutMs()))
+                .map(text -> PrometheusTextParser.parse(text, System.currentTimeMillis()))
+                .onErrorResume(e -> {
+                    log.debug("采集 vLLM 指标失败: url={}", backend.getUrl(), e);
+                    return Mono.empty();
+                });
+    }
+}
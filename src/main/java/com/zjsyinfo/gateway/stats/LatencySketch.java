@@ -0,0 +1,116 @@
+package com.zjsyinfo.gateway.stats;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 时延分布草图：按对数刻度分桶计数（相邻桶上界之比为 {@value #GAMMA}），分位数相对误差约 4%。
+ * 可合并，持久化时只保存非空桶，跨实例、跨时间段合并后仍可计算分位数。非线程安全，由调用方同步。
+ */
+public final class LatencySketch {
+    /** 相邻桶上界之比 */
+    static final double GAMMA = 1.08;
+    private static final double LOG_GAMMA = Math.log(GAMMA);
+    /** 最大桶下标，覆盖约 3.4e8 毫秒，更大的值计入最后一个桶 */
+    private static final int MAX_BIN = 255;
+
+    private final long[] counts = new long[MAX_BIN + 1];
+    private long count;
+
+    /**
+     * 记录一次时延
+     * @param millis 时延（毫秒）
+     */
+    public void add(long millis) {
+        counts[binOf(millis)]++;
+        count++;
+    }
+
+    /**
+     * 合并另一个草图
+     */
+    public void merge(LatencySketch other) {
+        for (int i = 0; i <= MAX_BIN; i++) {
+            counts[i] += other.counts[i];
+        }
+        count += other.count;
+    }
+
+    /**
+     * 按持久化的非空桶合并
+     * @param bins       桶下标
+     * @param binCounts  对应计数
+     */
+    public void merge(List<Integer> bins, List<Long> binCounts) {
+        if (bins == null || binCounts == null) {
+            return;
+        }
+        for (int i = 0; i < bins.size() && i < binCounts.size(); i++) {
+            int bin = Math.min(Math.max(bins.get(i), 0), MAX_BIN);
+            counts[bin] += binCounts.get(i);
+            count += binCounts.get(i);
+        }
+    }
+
+    /**
+     * 计算分位数
+     * @param quantile 0~1
+     * @return 分位时延（毫秒），无数据时为 null
+     */
+    public Long quantile(double quantile) {
+        if (count == 0) {
+            return null;
+        }
+        long rank = Math.max(1, (long) Math.ceil(quantile * count));
+        long seen = 0;
+        for (int i = 0; i <= MAX_BIN; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return valueOf(i);
+            }
+        }
+        return valueOf(MAX_BIN);
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    /** 非空桶下标 */
+    public List<Integer> bins() {
+        List<Integer> bins = new ArrayList<>();
+        for (int i = 0; i <= MAX_BIN; i++) {
+            if (counts[i] != 0) {
+                bins.add(i);
+            }
+        }
+        return bins;
+    }
+
+    /** 非空桶计数，与 {@link #bins()} 一一对应 */
+    public List<Long> binCounts() {
+        List<Long> binCounts = new ArrayList<>();
+        for (int i = 0; i <= MAX_BIN; i++) {
+            if (counts[i] != 0) {
+                binCounts.add(counts[i]);
+            }
+        }
+        return binCounts;
+    }
+
+    /** 桶 i 覆盖 (GAMMA^(i-1), GAMMA^i]，桶 0 覆盖 [0, 1] */
+    static int binOf(long millis) {
+        if (millis <= 1) {
+            return 0;
+        }
+        return Math.min(MAX_BIN, (int) Math.ceil(Math.log(millis) / LOG_GAMMA));
+    }
+
+    /** 桶的代表值：取上下界的调和中点，使相对误差最小 */
+    static long valueOf(int bin) {
+        if (bin == 0) {
+            return 1;
+        }
+        return Math.round(2 * Math.pow(GAMMA, bin) / (GAMMA + 1));
+    }
+}
@@ -0,0 +1,27 @@
+package com.zjsyinfo.gateway.stats;
+
+import com.zjsyinfo.gateway.mongo.entity.GatewayUsageRollup;
+
+/**
+ * 汇总维度：时间桶起点（毫秒）、应用、模型、状态
+ */
+record RollupKey(long bucketMillis, String appId, String model, String status) {
+
+    static RollupKey of(GatewayUsageRollup rollup, long bucketMillis) {
+        return new RollupKey(bucketMillis, rollup.getAppId(), rollup.getModel(), rollup.getStatus());
+    }
+
+    /**
+     * 确定性主键：同一粒度、时间桶、实例与维度的文档重复写入时覆盖而不是新增
+     * @param granularity 粒度
+     * @param instanceId  实例标识（压缩后的小时、天汇总为 null）
+     */
+    String id(String granularity, String instanceId) {
+        return String.join(":", granularity, Long.toString(bucketMillis), part(instanceId), part(appId), part(model),
+                part(status));
+    }
+
+    private static String part(String value) {
+        return value != null ? value : "-";
+    }
+}
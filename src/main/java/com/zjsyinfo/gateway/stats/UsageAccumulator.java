@@ -0,0 +1,141 @@
+package com.zjsyinfo.gateway.stats;
+
+import com.zjsyinfo.gateway.mongo.entity.GatewayLog;
+import com.zjsyinfo.gateway.mongo.entity.GatewayUsageRollup;
+
+import java.util.Date;
+
+/**
+ * 单个汇总维度上的累加器：请求数、错误数、取消数、缓存命中数、Token 数与响应耗时分布。
+ * 既用于内存中的分钟汇总（请求线程并发写入），也用于压缩与查询时合并已持久化的汇总文档。
+ */
+final class UsageAccumulator {
+    private long requests;
+    private long errors;
+    private long cancelled;
+    private long cacheHits;
+    private long tokens;
+    private long promptTokens;
+    private long completionTokens;
+    private long latencySum;
+    private long latencyMax;
+    private final LatencySketch latency = new LatencySketch();
+
+    /**
+     * 记录一条访问日志
+     */
+    synchronized void record(GatewayLog logDoc) {
+        requests++;
+        // 客户端断开（cancelled）不是网关或后端的错误，单独计数
+        if ("error".equals(logDoc.getStatus())) {
+            errors++;
+        } else if ("cancelled".equals(logDoc.getStatus())) {
+            cancelled++;
+        }
+        if (Boolean.TRUE.equals(logDoc.getCacheHit())) {
+            cacheHits++;
+        }
+        tokens += valueOf(logDoc.getTokenCount());
+        promptTokens += valueOf(logDoc.getPromptTokens());
+        completionTokens += valueOf(logDoc.getCompletionTokens());
+        if (logDoc.getResponseTime() != null) {
+            long millis = logDoc.getResponseTime();
+            latencySum += millis;
+            latencyMax = Math.max(latencyMax, millis);
+            latency.add(millis);
+        }
+    }
+
+    /**
+     * 合并一条已持久化的汇总文档
+     */
+    synchronized void merge(GatewayUsageRollup rollup) {
+        requests += valueOf(rollup.getRequests());
+        errors += valueOf(rollup.getErrors());
+        cancelled += valueOf(rollup.getCancelled());
+        cacheHits += valueOf(rollup.getCacheHits());
+        tokens += valueOf(rollup.getTokens());
+        promptTokens += valueOf(rollup.getPromptTokens());
+        completionTokens += valueOf(rollup.getCompletionTokens());
+        latencySum += valueOf(rollup.getLatencySum());
+        latencyMax = Math.max(latencyMax, valueOf(rollup.getLatencyMax()));
+        latency.merge(rollup.getLatencyBins(), rollup.getLatencyCounts());
+    }
+
+    /**
+     * 生成汇总文档
+     * @param id          主键
+     * @param granularity 粒度
+     * @param instanceId  实例标识（可空）
+     * @param key         汇总维度
+     */
+    synchronized GatewayUsageRollup toRollup(String id, String granularity, String instanceId, RollupKey key) {
+        GatewayUsageRollup rollup = new GatewayUsageRollup();
+        rollup.setId(id);
+        rollup.setGranularity(granularity);
+        rollup.setBucketTime(new Date(key.bucketMillis()));
+        rollup.setInstanceId(instanceId);
+        rollup.setAppId(key.appId());
+        rollup.setModel(key.model());
+        rollup.setStatus(key.status());
+        rollup.setRequests(requests);
+        rollup.setErrors(errors);
+        rollup.setCancelled(cancelled);
+        rollup.setCacheHits(cacheHits);
+        rollup.setTokens(tokens);
+        rollup.setPromptTokens(promptTokens);
+        rollup.setCompletionTokens(completionTokens);
+        rollup.setLatencySum(latencySum);
+        rollup.setLatencyMax(latencyMax);
+        rollup.setLatencyBins(latency.bins());
+        rollup.setLatencyCounts(latency.binCounts());
+        rollup.setUpdateTime(new Date());
+        return rollup;
+    }
+
+    synchronized long getRequests() {
+        return requests;
+    }
+
+    synchronized long getErrors() {
+        return errors;
+    }
+
+    synchronized long getCancelled() {
+        return cancelled;
+    }
+
+    synchronized long getCacheHits() {
+        return cacheHits;
+    }
+
+    synchronized long getTokens() {
+        return tokens;
+    }
+
+    synchronized long getPromptTokens() {
+        return promptTokens;
+    }
+
+    synchronized long getCompletionTokens() {
+        return completionTokens;
+    }
+
+    synchronized long getLatencySum() {
+        return latencySum;
+    }
+
+    synchronized long getLatencyMax() {
+        return latencyMax;
+    }
+
+    /** 响应耗时分位数（毫秒），不超过观测到的最大值 */
+    synchronized Long latencyQuantile(double quantile) {
+        Long value = latency.quantile(quantile);
+        return value != null ? Math.min(value, latencyMax) : null;
+    }
+
+    private static long valueOf(Number value) {
+        return value != null ? value.longValue() : 0;
+    }
+}
@@ -0,0 +1,119 @@
+package com.zjsyinfo.gateway.stats;
+
+import com.zjsyinfo.gateway.config.SchedulingConfig;
+import com.zjsyinfo.gateway.config.UsageStatsConfig;
+import com.zjsyinfo.gateway.mongo.entity.GatewayLog;
+import com.zjsyinfo.gateway.mongo.entity.GatewayUsageRollup;
+import com.zjsyinfo.gateway.mongo.service.GatewayUsageRollupService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.net.InetAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 分钟用量汇总：每条访问日志在内存中按 (分钟, 应用, 模型, 状态) 累加，定时以确定性主键
+ * saveOrUpdate 到 gateway_usage_rollups。当前分钟每次刷新都覆盖写入；已结束的分钟写入成功后从内存移除。
+ * 主键包含实例标识，多个网关实例各自写入，查询与压缩时再合并。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class UsageRollupAggregator {
+    public static final String MINUTE = "minute";
+    public static final String HOUR = "hour";
+    public static final String DAY = "day";
+
+    private static final long MINUTE_MILLIS = TimeUnit.MINUTES.toMillis(1);
+    /** 分钟结束后再等待该时长才视为不再有写入 */
+    private static final long CLOSE_GRACE_MILLIS = TimeUnit.SECONDS.toMillis(5);
+
+    private final UsageStatsConfig usageStatsConfig;
+    private final GatewayUsageRollupService gatewayUsageRollupService;
+
+    private final Map<RollupKey, UsageAccumulator> minutes = new ConcurrentHashMap<>();
+    private String instanceId;
+
+    /**
+     * 确定实例标识：优先使用配置，否则使用主机名与进程号
+     */
+    @PostConstruct
+    public void init() {
+        instanceId = usageStatsConfig.getInstanceId();
+        if (!StringUtils.hasText(instanceId)) {
+            String host;
+            try {
+                host = InetAddress.getLocalHost().getHostName();
+            } catch (Exception e) {
+                host = "unknown";
+            }
+            instanceId = host + "-" + ProcessHandle.current().pid();
+        }
+        log.info("用量汇总实例标识: {}", instanceId);
+    }
+
+    /**
+     * 累加一条访问日志（请求线程调用，不访问 MongoDB）
+     * @param logDoc 访问日志
+     */
+    public void record(GatewayLog logDoc) {
+        if (!usageStatsConfig.isEnabled()) {
+            return;
+        }
+        long time = logDoc.getCreateTime() != null ? logDoc.getCreateTime().getTime() : System.currentTimeMillis();
+        RollupKey key = new RollupKey(time - time % MINUTE_MILLIS, logDoc.getAppId(), logDoc.getRequestModel(),
+                logDoc.getStatus());
+        minutes.computeIfAbsent(key, k -> new UsageAccumulator()).record(logDoc);
+    }
+
+    /**
+     * 定时写入分钟汇总：全部覆盖写入一次，写入成功后移除已结束的分钟；
+     * 持续写入失败时，超过保留时长的分钟直接丢弃，避免内存无限增长
+     */
+    @Scheduled(fixedDelayString = "${vllm.usage-stats.flush-interval-ms:15000}",
+            scheduler = SchedulingConfig.MAINTENANCE_SCHEDULER)
+    public void flush() {
+        if (minutes.isEmpty()) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        List<GatewayUsageRollup> rollups = new ArrayList<>(minutes.size());
+        List<Map.Entry<RollupKey, UsageAccumulator>> closed = new ArrayList<>();
+        for (Map.Entry<RollupKey, UsageAccumulator> entry : minutes.entrySet()) {
+            RollupKey key = entry.getKey();
+            rollups.add(entry.getValue().toRollup(key.id(MINUTE, instanceId), MINUTE, instanceId, key));
+            if (key.bucketMillis() + MINUTE_MILLIS + CLOSE_GRACE_MILLIS <= now) {
+                closed.add(entry);
+            }
+        }
+        try {
+            gatewayUsageRollupService.saveOrUpdateBatch(rollups);
+            closed.forEach(entry -> minutes.remove(entry.getKey(), entry.getValue()));
+        } catch (Exception e) {
+            log.warn("写入分钟用量汇总失败: size={}", rollups.size(), e);
+            long expired = now - TimeUnit.HOURS.toMillis(usageStatsConfig.getMinuteRetentionHours());
+            minutes.keySet().removeIf(key -> key.bucketMillis() < expired);
+        }
+    }
+
+    /**
+     * 停机前写入内存中的汇总
+     */
+    @PreDestroy
+    public void destroy() {
+        flush();
+    }
+
+    public String getInstanceId() {
+        return instanceId;
+    }
+}
@@ -0,0 +1,85 @@
+package com.zjsyinfo.gateway.stats;
+
+import com.zjsyinfo.gateway.config.SchedulingConfig;
+import com.zjsyinfo.gateway.config.UsageStatsConfig;
+import com.zjsyinfo.gateway.mongo.entity.GatewayUsageRollup;
+import com.zjsyinfo.gateway.mongo.service.GatewayUsageRollupService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 用量汇总压缩：把已结束小时内各实例的分钟汇总合并为小时汇总，再把当天与前一天的小时汇总合并为天汇总，
+ * 并按保留时长清理分钟、小时汇总。压缩结果使用不含实例的确定性主键覆盖写入，
+ * 多个实例重复执行或重新计算（吸收延迟写入的分钟数据）结果一致。天按服务器时区划分。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class UsageRollupCompactor {
+    private final UsageStatsConfig usageStatsConfig;
+    private final GatewayUsageRollupService gatewayUsageRollupService;
+
+    /**
+     * 定时压缩与清理
+     */
+    @Scheduled(fixedDelayString = "${vllm.usage-stats.compact-interval-ms:300000}",
+            initialDelayString = "${vllm.usage-stats.compact-interval-ms:300000}",
+            scheduler = SchedulingConfig.MAINTENANCE_SCHEDULER)
+    public void compact() {
+        if (!usageStatsConfig.isEnabled()) {
+            return;
+        }
+        ZonedDateTime now = ZonedDateTime.now(ZoneId.systemDefault());
+        try {
+            ZonedDateTime currentHour = now.truncatedTo(ChronoUnit.HOURS);
+            for (int i = usageStatsConfig.getCompactLookbackHours(); i >= 1; i--) {
+                ZonedDateTime hour = currentHour.minusHours(i);
+                compact(UsageRollupAggregator.MINUTE, UsageRollupAggregator.HOUR, hour, hour.plusHours(1));
+            }
+            ZonedDateTime today = now.truncatedTo(ChronoUnit.DAYS);
+            compact(UsageRollupAggregator.HOUR, UsageRollupAggregator.DAY, today.minusDays(1), today);
+            compact(UsageRollupAggregator.HOUR, UsageRollupAggregator.DAY, today, today.plusDays(1));
+
+            gatewayUsageRollupService.removeBefore(UsageRollupAggregator.MINUTE,
+                    Date.from(now.minusHours(usageStatsConfig.getMinuteRetentionHours()).toInstant()));
+            gatewayUsageRollupService.removeBefore(UsageRollupAggregator.HOUR,
+                    Date.from(now.minusDays(usageStatsConfig.getHourRetentionDays()).toInstant()));
+        } catch (Exception e) {
+            log.warn("用量汇总压缩失败", e);
+        }
+    }
+
+    /**
+     * 合并 [from, to) 内的源粒度汇总，按 (应用, 模型, 状态) 写入一条目标粒度汇总
+     */
+    private void compact(String source, String target, ZonedDateTime from, ZonedDateTime to) {
+        long begin = System.nanoTime();
+        List<GatewayUsageRollup> rows = gatewayUsageRollupService.listRollups(source,
+                Date.from(from.toInstant()), Date.from(to.toInstant()), null, null);
+        if (rows.isEmpty()) {
+            return;
+        }
+        long bucketMillis = from.toInstant().toEpochMilli();
+        Map<RollupKey, UsageAccumulator> merged = new HashMap<>();
+        for (GatewayUsageRollup row : rows) {
+            merged.computeIfAbsent(RollupKey.of(row, bucketMillis), key -> new UsageAccumulator()).merge(row);
+        }
+        List<GatewayUsageRollup> rollups = new ArrayList<>(merged.size());
+        merged.forEach((key, accumulator) -> rollups.add(accumulator.toRollup(key.id(target, null), target, null, key)));
+        gatewayUsageRollupService.saveOrUpdateBatch(rollups);
+        log.debug("压缩用量汇总 {} → {}: from={}, rows={}, rollups={}, cost={}ms", source, target, from, rows.size(),
+                rollups.size(), Duration.ofNanos(System.nanoTime() - begin).toMillis());
+    }
+}
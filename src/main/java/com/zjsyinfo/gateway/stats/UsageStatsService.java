@@ -0,0 +1,147 @@
+package com.zjsyinfo.gateway.stats;
+
+import com.zjsyinfo.gateway.mongo.entity.GatewayUsageRollup;
+import com.zjsyinfo.gateway.mongo.service.GatewayUsageRollupService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 基于用量汇总的统计查询：读取指定粒度的汇总文档，按 (时间桶, 应用, 模型) 合并实例与状态维度，
+ * 查询量与时间范围内的时间桶数成正比，不扫描原始访问日志。
+ * 小时、天汇总只覆盖已压缩的整点小时，之后（含当前小时）的部分由分钟汇总补齐并归入对应的时间桶；
+ * 分钟汇总按 flush-interval 定时写入，最近一个写入周期内的请求尚未计入。
+ */
+@Component
+@RequiredArgsConstructor
+public class UsageStatsService {
+    private final GatewayUsageRollupService gatewayUsageRollupService;
+
+    /**
+     * 查询用量：请求数、错误数、取消数、缓存命中数与 Token 数
+     */
+    public List<UsagePoint> usage(String granularity, Date from, Date to, String appId, String model) {
+        List<UsagePoint> points = new ArrayList<>();
+        aggregate(granularity, from, to, appId, model).forEach((key, acc) -> points.add(new UsagePoint(
+                new Date(key.bucketMillis()), key.appId(), key.model(), acc.getRequests(), acc.getErrors(),
+                acc.getCancelled(), acc.getCacheHits(), acc.getTokens(), acc.getPromptTokens(), acc.getCompletionTokens())));
+        return points;
+    }
+
+    /**
+     * 查询响应耗时：平均值、分位数与最大值
+     */
+    public List<LatencyPoint> latency(String granularity, Date from, Date to, String appId, String model) {
+        List<LatencyPoint> points = new ArrayList<>();
+        aggregate(granularity, from, to, appId, model).forEach((key, acc) -> points.add(new LatencyPoint(
+                new Date(key.bucketMillis()), key.appId(), key.model(), acc.getRequests(),
+                acc.getRequests() == 0 ? 0 : acc.getLatencySum() / acc.getRequests(),
+                acc.latencyQuantile(0.5), acc.latencyQuantile(0.9), acc.latencyQuantile(0.99), acc.getLatencyMax())));
+        return points;
+    }
+
+    private Map<RollupKey, UsageAccumulator> aggregate(String granularity, Date from, Date to, String appId,
+                                                       String model) {
+        Map<RollupKey, UsageAccumulator> merged = new HashMap<>();
+        if (UsageRollupAggregator.MINUTE.equals(granularity)) {
+            merge(merged, granularity, UsageRollupAggregator.MINUTE, from, to, appId, model);
+            return sorted(merged);
+        }
+        // 已压缩到的时间：最晚的小时汇总之后的部分尚未压缩（天汇总同样由小时汇总合并而来）
+        GatewayUsageRollup latestHour = gatewayUsageRollupService.getLatest(UsageRollupAggregator.HOUR);
+        long compactedUntil = latestHour != null
+                ? latestHour.getBucketTime().getTime() + TimeUnit.HOURS.toMillis(1) : from.getTime();
+        Date split = new Date(Math.min(Math.max(compactedUntil, from.getTime()), to.getTime()));
+        if (UsageRollupAggregator.DAY.equals(granularity)) {
+            // 完整压缩的天用天汇总，压缩截止时间所在天的已压缩部分用小时汇总
+            Date dayCutoff = new Date(Math.max(bucketStart(UsageRollupAggregator.DAY, split.getTime()), from.getTime()));
+            merge(merged, granularity, UsageRollupAggregator.DAY, from, dayCutoff, appId, model);
+            merge(merged, granularity, UsageRollupAggregator.HOUR, dayCutoff, split, appId, model);
+        } else {
+            merge(merged, granularity, UsageRollupAggregator.HOUR, from, split, appId, model);
+        }
+        merge(merged, granularity, UsageRollupAggregator.MINUTE, split, to, appId, model);
+        return sorted(merged);
+    }
+
+    /**
+     * 读取 [from, to) 内的源粒度汇总，按目标粒度的时间桶合并
+     */
+    private void merge(Map<RollupKey, UsageAccumulator> merged, String granularity, String source, Date from, Date to,
+                       String appId, String model) {
+        if (!from.before(to)) {
+            return;
+        }
+        for (GatewayUsageRollup row : gatewayUsageRollupService.listRollups(source, from, to, appId, model)) {
+            RollupKey key = new RollupKey(bucketStart(granularity, row.getBucketTime().getTime()), row.getAppId(),
+                    row.getModel(), null);
+            merged.computeIfAbsent(key, k -> new UsageAccumulator()).merge(row);
+        }
+    }
+
+    /**
+     * 时间所在的目标粒度时间桶起点；天按服务器时区划分，与压缩一致
+     */
+    private static long bucketStart(String granularity, long millis) {
+        ZonedDateTime time = Instant.ofEpochMilli(millis).atZone(ZoneId.systemDefault());
+        ChronoUnit unit = switch (granularity) {
+            case UsageRollupAggregator.DAY -> ChronoUnit.DAYS;
+            case UsageRollupAggregator.HOUR -> ChronoUnit.HOURS;
+            default -> ChronoUnit.MINUTES;
+        };
+        return time.truncatedTo(unit).toInstant().toEpochMilli();
+    }
+
+    private static Map<RollupKey, UsageAccumulator> sorted(Map<RollupKey, UsageAccumulator> merged) {
+        Map<RollupKey, UsageAccumulator> sorted = new LinkedHashMap<>();
+        merged.entrySet().stream()
+                .sorted(Comparator.comparingLong(entry -> entry.getKey().bucketMillis()))
+                .forEach(entry -> sorted.put(entry.getKey(), entry.getValue()));
+        return sorted;
+    }
+
+    /**
+     * 用量数据点
+     * @param bucketTime       时间桶起点
+     * @param appId            应用ID
+     * @param model            模型
+     * @param requests         请求数
+     * @param errors           错误数
+     * @param cancelled        取消数（客户端中途断开）
+     * @param cacheHits        缓存命中数
+     * @param tokens           Token 总数
+     * @param promptTokens     输入 Token 数
+     * @param completionTokens 输出 Token 数
+     */
+    public record UsagePoint(Date bucketTime, String appId, String model, long requests, long errors,
+                             long cancelled, long cacheHits, long tokens, long promptTokens, long completionTokens) {
+    }
+
+    /**
+     * 响应耗时数据点（毫秒，分位数相对误差约 4%）
+     * @param bucketTime 时间桶起点
+     * @param appId      应用ID
+     * @param model      模型
+     * @param requests   请求数
+     * @param avgMillis  平均耗时
+     * @param p50Millis  P50
+     * @param p90Millis  P90
+     * @param p99Millis  P99
+     * @param maxMillis  最大耗时
+     */
+    public record LatencyPoint(Date bucketTime, String appId, String model, long requests, long avgMillis,
+                               Long p50Millis, Long p90Millis, Long p99Millis, long maxMillis) {
+    }
+}
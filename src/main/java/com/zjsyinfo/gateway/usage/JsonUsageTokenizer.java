@@ -0,0 +1,190 @@
+package com.zjsyinfo.gateway.usage;
+
+import org.springframework.core.io.buffer.DataBuffer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * 非阻塞增量 JSON 分词器，只提取顶层 "usage" 对象中的 prompt_tokens / completion_tokens / total_tokens。
+ * 逐字节跟踪层级、字符串与转义状态，字符串内容直接跳过，数字就地累加，不构建对象树、不缓存响应体，
+ * 因此输入可以在任意字节处被拆分成多个 chunk。
+ * 用于非流式响应；SSE 流中每个 data 行由 {@link SseUsageScanner} 调用 {@link #reset()} 后逐字节喂入。
+ */
+public class JsonUsageTokenizer implements UsageScanner {
+    private static final byte[] USAGE = bytes("usage");
+    private static final byte[] PROMPT_TOKENS = bytes("prompt_tokens");
+    private static final byte[] COMPLETION_TOKENS = bytes("completion_tokens");
+    private static final byte[] TOTAL_TOKENS = bytes("total_tokens");
+    /** 需要识别的最长键长度，更长的键直接视为不匹配 */
+    private static final int MAX_KEY_BYTES = 32;
+
+    private static final int FIELD_NONE = -1;
+    private static final int FIELD_PROMPT = 0;
+    private static final int FIELD_COMPLETION = 1;
+    private static final int FIELD_TOTAL = 2;
+
+    private int depth;
+    private boolean inString;
+    private boolean escaped;
+    /** 当前层级的下一个字符串是否为键（仅在顶层与 usage 对象内跟踪） */
+    private boolean expectKey;
+    private final byte[] keyBytes = new byte[MAX_KEY_BYTES];
+    /** 当前键已读取的字节数，-1 表示不需要识别或已超长 */
+    private int keyLength = -1;
+    /** 最近一个已闭合的键 */
+    private boolean lastKeyIsUsage;
+    private int lastKeyField = FIELD_NONE;
+    /** 下一个值所属的键 */
+    private boolean valueIsUsage;
+    private int valueField = FIELD_NONE;
+
+    /** 当前位于顶层 usage 对象内 */
+    private boolean inUsage;
+    private long number;
+    private boolean inNumber;
+    private final Integer[] fields = new Integer[3];
+
+    private TokenUsage usage;
+
+    /**
+     * 开始解析新的 JSON 文档（保留已解析到的 usage）。
+     */
+    public void reset() {
+        depth = 0;
+        inString = false;
+        escaped = false;
+        expectKey = false;
+        keyLength = -1;
+        lastKeyIsUsage = false;
+        lastKeyField = FIELD_NONE;
+        valueIsUsage = false;
+        valueField = FIELD_NONE;
+        inUsage = false;
+        inNumber = false;
+    }
+
+    @Override
+    public void feed(DataBuffer buffer) {
+        for (int i = buffer.readPosition(), end = buffer.writePosition(); i < end; i++) {
+            feed(buffer.getByte(i));
+        }
+    }
+
+    @Override
+    public TokenUsage getUsage() {
+        return usage;
+    }
+
+    /**
+     * 喂入一个字节
+     */
+    public void feed(byte b) {
+        if (inString) {
+            scanString(b);
+            return;
+        }
+        if (inNumber) {
+            if (b >= '0' && b <= '9') {
+                number = number * 10 + (b - '0');
+                return;
+            }
+            endNumber();
+        }
+        switch (b) {
+            case '"' -> {
+                inString = true;
+                keyLength = expectKey ? 0 : -1;
+                expectKey = false;
+            }
+            case ':' -> {
+                valueIsUsage = depth == 1 && lastKeyIsUsage;
+                valueField = inUsage && depth == 2 ? lastKeyField : FIELD_NONE;
+                lastKeyIsUsage = false;
+                lastKeyField = FIELD_NONE;
+            }
+            case ',' -> {
+                expectKey = depth == 1 || (inUsage && depth == 2);
+                valueIsUsage = false;
+                valueField = FIELD_NONE;
+            }
+            case '{', '[' -> {
+                if (b == '{' && depth == 1 && valueIsUsage) {
+                    inUsage = true;
+                    Arrays.fill(fields, null);
+                }
+                valueIsUsage = false;
+                valueField = FIELD_NONE;
+                depth++;
+                expectKey = b == '{' && (depth == 1 || (inUsage && depth == 2));
+            }
+            case '}', ']' -> {
+                depth--;
+                if (inUsage && depth == 1) {
+                    inUsage = false;
+                    if (fields[FIELD_PROMPT] != null || fields[FIELD_COMPLETION] != null || fields[FIELD_TOTAL] != null) {
+                        usage = new TokenUsage(fields[FIELD_PROMPT], fields[FIELD_COMPLETION], fields[FIELD_TOTAL]);
+                    }
+                }
+            }
+            case ' ', '\t', '\r', '\n' -> {
+            }
+            default -> {
+                if (b >= '0' && b <= '9' && valueField != FIELD_NONE) {
+                    inNumber = true;
+                    number = b - '0';
+                } else {
+                    valueIsUsage = false;
+                    valueField = FIELD_NONE;
+                }
+            }
+        }
+    }
+
+    private void scanString(byte b) {
+        if (escaped) {
+            escaped = false;
+        } else if (b == '\\') {
+            escaped = true;
+            keyLength = -1;
+        } else if (b == '"') {
+            inString = false;
+            if (keyLength >= 0) {
+                lastKeyIsUsage = depth == 1 && matches(USAGE);
+                lastKeyField = depth == 2 ? fieldOf() : FIELD_NONE;
+            }
+        } else if (keyLength >= 0) {
+            if (keyLength == MAX_KEY_BYTES) {
+                keyLength = -1;
+            } else {
+                keyBytes[keyLength++] = b;
+            }
+        }
+    }
+
+    private void endNumber() {
+        inNumber = false;
+        if (valueField != FIELD_NONE && number <= Integer.MAX_VALUE) {
+            fields[valueField] = (int) number;
+        }
+        valueField = FIELD_NONE;
+    }
+
+    private int fieldOf() {
+        if (matches(TOTAL_TOKENS)) {
+            return FIELD_TOTAL;
+        }
+        if (matches(PROMPT_TOKENS)) {
+            return FIELD_PROMPT;
+        }
+        return matches(COMPLETION_TOKENS) ? FIELD_COMPLETION : FIELD_NONE;
+    }
+
+    private boolean matches(byte[] expected) {
+        return Arrays.equals(keyBytes, 0, keyLength, expected, 0, expected.length);
+    }
+
+    private static byte[] bytes(String text) {
+        return text.getBytes(StandardCharsets.US_ASCII);
+    }
+}
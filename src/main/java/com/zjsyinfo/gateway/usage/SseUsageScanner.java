@@ -0,0 +1,77 @@
+package com.zjsyinfo.gateway.usage;
+
+import org.springframework.core.io.buffer.DataBuffer;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * SSE 流式响应的增量 usage 扫描器。
+ * 直接在 DataBuffer 的字节上逐字节扫描，不复制、不累积响应体：
+ * 按行识别 "data:" 事件，事件内容交给 {@link JsonUsageTokenizer} 提取顶层 "usage"。
+ * 状态跨 chunk 保留，因此事件被拆分到多个 DataBuffer 中也能正确识别；单个流的内存占用为常量。
+ * 同时统计 data 事件数（vLLM 通常每个事件输出一个 token），流被取消、没有 usage 事件时据此估算已生成的 token 数。
+ */
+public class SseUsageScanner implements UsageScanner {
+    private static final byte[] DATA_PREFIX = "data:".getBytes(StandardCharsets.US_ASCII);
+
+    private final JsonUsageTokenizer tokenizer = new JsonUsageTokenizer();
+
+    /** 行首已匹配的 "data:" 字节数，-1 表示本行不是 data 行 */
+    private int prefixPos;
+    /** 当前处于 data 行的 JSON 内容中 */
+    private boolean inData;
+    /** 已收到的 data 事件数 */
+    private int eventCount;
+
+    @Override
+    public void feed(DataBuffer buffer) {
+        for (int i = buffer.readPosition(), end = buffer.writePosition(); i < end; i++) {
+            feed(buffer.getByte(i));
+        }
+    }
+
+    @Override
+    public TokenUsage getUsage() {
+        return tokenizer.getUsage();
+    }
+
+    @Override
+    public TokenUsage getPartialUsage() {
+        TokenUsage usage = tokenizer.getUsage();
+        if (usage != null || eventCount == 0) {
+            return usage;
+        }
+        // 没有 usage 事件：以 data 事件数估算输出 token 数，输入 token 数未知
+        return new TokenUsage(null, eventCount, eventCount);
+    }
+
+    /**
+     * 已收到的 data 事件数
+     */
+    public int getEventCount() {
+        return eventCount;
+    }
+
+    private void feed(byte b) {
+        if (b == '\n' || b == '\r') {
+            // JSON 字符串中不会出现裸换行，换行即事件行结束
+            prefixPos = 0;
+            inData = false;
+            return;
+        }
+        if (inData) {
+            tokenizer.feed(b);
+        } else if (prefixPos >= 0) {
+            if (b == DATA_PREFIX[prefixPos]) {
+                prefixPos++;
+                if (prefixPos == DATA_PREFIX.length) {
+                    inData = true;
+                    eventCount++;
+                    tokenizer.reset();
+                }
+            } else {
+                prefixPos = -1;
+            }
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.zjsyinfo.gateway.usage;
+
+/**
+ * 响应中的 usage 字段（OpenAI 规范），无法获取的项为 null。
+ * @param promptTokens     输入 Token 数（usage.prompt_tokens）
+ * @param completionTokens 输出 Token 数（usage.completion_tokens）
+ * @param totalTokens      总 Token 数（usage.total_tokens）
+ */
+public record TokenUsage(Integer promptTokens, Integer completionTokens, Integer totalTokens) {
+}
@@ -0,0 +1,27 @@
+package com.zjsyinfo.gateway.usage;
+
+import org.springframework.core.io.buffer.DataBuffer;
+
+/**
+ * 响应体 usage 增量扫描器：随响应 chunk 逐个喂入，不累积响应体。
+ * 实现均非线程安全，每个响应使用一个实例。
+ */
+public interface UsageScanner {
+
+    /**
+     * 扫描一个响应 chunk，不改变其读写位置。
+     */
+    void feed(DataBuffer buffer);
+
+    /**
+     * 最近一次解析到的 usage；尚未出现时为 null。
+     */
+    TokenUsage getUsage();
+
+    /**
+     * 响应未完整结束（如客户端断开）时的用量：已解析到 usage 时同 {@link #getUsage()}，否则为按已收到内容估算的值，无法估算时为 null。
+     */
+    default TokenUsage getPartialUsage() {
+        return getUsage();
+    }
+}
@@ -0,0 +1,80 @@
+package com.zjsyinfo.gateway.accesslog;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zjsyinfo.gateway.config.AccessLogConfig;
+import com.zjsyinfo.gateway.mongo.entity.GatewayLog;
+import com.zjsyinfo.gateway.mongo.service.GatewayLogService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+
+class AccessLogWriterTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void drainsSpilledLogsOnceMongoRecoversWithoutNewTraffic() throws Exception {
+        AccessLogConfig config = new AccessLogConfig();
+        config.setFlushIntervalMs(10);
+        config.getJournal().setDir(dir.toString());
+        config.getJournal().setSegmentBytes(64 * 1024);
+        GatewayLogService gatewayLogService = mock(GatewayLogService.class);
+        doThrow(new IllegalStateException("mongo down")).when(gatewayLogService).saveBatch(anyCollection());
+        doThrow(new IllegalStateException("mongo down")).when(gatewayLogService).saveOrUpdateBatch(anyCollection());
+
+        AccessLogWriter writer = new AccessLogWriter(gatewayLogService, config, new ObjectMapper());
+        writer.start();
+        try {
+            GatewayLog logDoc = new GatewayLog();
+            logDoc.setAppId("app");
+            logDoc.setStatus("success");
+            writer.submit(logDoc);
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (writer.getStats().spilled() == 0 && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            assertEquals(1, writer.getStats().spilled());
+
+            // MongoDB 仍不可用：回放失败，段保留
+            writer.replayJournal();
+            assertEquals(0, writer.getStats().replayed());
+            assertEquals(1, segmentCount());
+
+            // MongoDB 恢复，期间没有新的请求
+            List<GatewayLog> replayed = new ArrayList<>();
+            doAnswer(invocation -> {
+                replayed.addAll(invocation.<Collection<GatewayLog>>getArgument(0));
+                return true;
+            }).when(gatewayLogService).saveOrUpdateBatch(anyCollection());
+            writer.replayJournal();
+
+            assertEquals(1, writer.getStats().replayed());
+            assertEquals(1, replayed.size());
+            assertEquals(logDoc.getId(), replayed.get(0).getId());
+            assertEquals(0, writer.getStats().journalBytes());
+            assertEquals(0, segmentCount());
+        } finally {
+            writer.stop();
+        }
+    }
+
+    private long segmentCount() throws Exception {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.count();
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.zjsyinfo.gateway.accesslog;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zjsyinfo.gateway.config.LogRetentionConfig;
+import com.zjsyinfo.gateway.mongo.entity.GatewayLog;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class LogArchiveReaderTest {
+
+    @TempDir
+    Path archiveDir;
+
+    @Test
+    void scansAllPartsOfADayWithFilter() throws Exception {
+        Path day = Files.createDirectories(archiveDir.resolve("2026-01-02"));
+        writePart(day.resolve("part-1.ndjson.gz"), "{\"id\":\"1\",\"appId\":\"a\",\"status\":\"success\"}\n"
+                + "{\"id\":\"2\",\"appId\":\"b\",\"status\":\"error\"}\n");
+        writePart(day.resolve("part-2.ndjson.gz"), "{\"id\":\"3\",\"appId\":\"a\",\"status\":\"error\"}\n");
+        Files.writeString(day.resolve("part-3.ndjson.gz.tmp"), "partial");
+
+        LogRetentionConfig config = new LogRetentionConfig();
+        config.setArchiveDir(archiveDir.toString());
+        LogArchiveReader reader = new LogArchiveReader(config, new ObjectMapper());
+
+        List<LogArchiveReader.ArchiveDay> days = reader.listDays();
+        assertEquals(1, days.size());
+        assertEquals(2, days.get(0).parts());
+
+        List<String> ids = reader.scan(LocalDate.of(2026, 1, 2), logDoc -> "a".equals(logDoc.getAppId()))
+                .map(GatewayLog::getId)
+                .collectList()
+                .block();
+        assertEquals(List.of("1", "3"), ids);
+    }
+
+    private static void writePart(Path file, String content) throws Exception {
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(file))) {
+            out.write(content.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+}
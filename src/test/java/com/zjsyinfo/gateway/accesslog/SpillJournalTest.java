@@ -0,0 +1,69 @@
+package com.zjsyinfo.gateway.accesslog;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SpillJournalTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void rollsSegmentsAndRecoversThemAfterRestart() throws Exception {
+        SpillJournal journal = new SpillJournal(dir, 64);
+        for (int i = 0; i < 5; i++) {
+            assertTrue(journal.append(bytes("record-" + i + "-xxxxxxxxxx")));
+        }
+        journal.close();
+
+        SpillJournal reopened = new SpillJournal(dir, 64);
+        List<Path> segments = reopened.sealedSegments();
+        assertEquals(3, segments.size());
+        StringBuilder all = new StringBuilder();
+        for (Path segment : segments) {
+            for (byte[] record : reopened.read(segment)) {
+                all.append(new String(record, StandardCharsets.UTF_8)).append(',');
+            }
+        }
+        assertEquals("record-0-xxxxxxxxxx,record-1-xxxxxxxxxx,record-2-xxxxxxxxxx,record-3-xxxxxxxxxx,"
+                + "record-4-xxxxxxxxxx,", all.toString());
+
+        reopened.delete(segments.get(0));
+        assertTrue(reopened.append(bytes("next")));
+        reopened.seal();
+        List<Path> remaining = reopened.sealedSegments();
+        assertEquals(3, remaining.size());
+        assertEquals("next", new String(reopened.read(remaining.get(2)).get(0), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void stopsAtCorruptedRecord() throws Exception {
+        SpillJournal journal = new SpillJournal(dir, 1024);
+        journal.append(bytes("first"));
+        journal.append(bytes("second"));
+        journal.seal();
+        Path segment = journal.sealedSegments().get(0);
+
+        // 损坏第二条记录的内容
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(bytes("X")), 8 + 5 + 8);
+        }
+        List<byte[]> records = journal.read(segment);
+        assertEquals(1, records.size());
+        assertEquals("first", new String(records.get(0), StandardCharsets.UTF_8));
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,88 @@
+package com.zjsyinfo.gateway.admission;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+class PoolAdmissionQueueTest {
+    private static final long TIMEOUT = TimeUnit.SECONDS.toNanos(30);
+
+    @Test
+    void releasesQueuedRequestsByWeightedRoundRobin() {
+        PoolAdmissionQueue queue = new PoolAdmissionQueue("m", 1);
+        List<String> order = new ArrayList<>();
+        List<AdmissionPermit> permits = new ArrayList<>();
+        queue.acquire("first", 1, TIMEOUT, 10).subscribe(permits::add);
+        for (int i = 0; i < 4; i++) {
+            queue.acquire("noisy", 1, TIMEOUT, 10).subscribe(permit -> {
+                order.add("noisy");
+                permits.add(permit);
+            });
+        }
+        for (int i = 0; i < 4; i++) {
+            queue.acquire("heavy", 2, TIMEOUT, 10).subscribe(permit -> {
+                order.add("heavy");
+                permits.add(permit);
+            });
+        }
+
+        for (int i = 0; i < 8; i++) {
+            permits.get(i).release();
+        }
+        assertEquals(List.of("noisy", "heavy", "heavy", "noisy", "heavy", "heavy", "noisy", "noisy"), order);
+        assertEquals(1, queue.stats().inFlight());
+    }
+
+    @Test
+    void keepsAlternatingAfterAnAppDrainsItsQueue() {
+        PoolAdmissionQueue queue = new PoolAdmissionQueue("m", 1);
+        List<String> order = new ArrayList<>();
+        List<AdmissionPermit> permits = new ArrayList<>();
+        queue.acquire("first", 1, TIMEOUT, 10).subscribe(permits::add);
+        queue.acquire("noisy", 1, TIMEOUT, 10).subscribe(permits::add);
+        // noisy 取走唯一的排队请求后队列变空，再次排队时仍须与 quiet 轮流放行
+        permits.get(0).release();
+        for (int i = 0; i < 3; i++) {
+            queue.acquire("noisy", 1, TIMEOUT, 10).subscribe(permit -> {
+                order.add("noisy");
+                permits.add(permit);
+            });
+        }
+        for (int i = 0; i < 3; i++) {
+            queue.acquire("quiet", 1, TIMEOUT, 10).subscribe(permit -> {
+                order.add("quiet");
+                permits.add(permit);
+            });
+        }
+
+        for (int i = 1; i < 7; i++) {
+            permits.get(i).release();
+        }
+        assertEquals(List.of("noisy", "quiet", "noisy", "quiet", "noisy", "quiet"), order);
+    }
+
+    @Test
+    void shedsRequestsWaitingBeyondDeadline() {
+        PoolAdmissionQueue queue = new PoolAdmissionQueue("m", 1);
+        AdmissionPermit held = queue.acquire("a", 1, TIMEOUT, 10).block();
+        assertNotNull(held);
+
+        AtomicReference<Throwable> error = new AtomicReference<>();
+        queue.acquire("b", 1, 0, 10).subscribe(permit -> { }, error::set);
+        queue.acquire("b", 1, TIMEOUT, 1).subscribe(permit -> { }, e -> { });
+        queue.sweep();
+
+        assertInstanceOf(AdmissionRejectedException.class, error.get());
+        AdmissionScheduler.AppQueueStats stats = queue.stats().apps().stream()
+                .filter(app -> app.appId().equals("b")).findFirst().orElseThrow();
+        assertEquals(1, stats.shed());
+        assertEquals(0, stats.queued());
+    }
+}
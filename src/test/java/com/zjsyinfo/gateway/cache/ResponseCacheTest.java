@@ -0,0 +1,52 @@
+package com.zjsyinfo.gateway.cache;
+
+import com.zjsyinfo.gateway.config.ResponseCacheConfig;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class ResponseCacheTest {
+
+    @Test
+    void normalizesFieldOrderAndWhitespace() {
+        ResponseCache cache = new ResponseCache(new ResponseCacheConfig());
+        String key = cache.cacheKey("m", bytes("{\"model\":\"m\",\"temperature\":0,\"messages\":[{\"role\":\"user\",\"content\":\"hi\"}]}"));
+        assertNotNull(key);
+        assertEquals(key, cache.cacheKey("m", bytes("{ \"messages\": [ {\"content\": \"hi\", \"role\": \"user\"} ],\n \"temperature\": 0, \"model\": \"m\" }")));
+        assertNull(cache.cacheKey("m", bytes("{\"model\":\"m\",\"temperature\":0.7}")));
+        assertNull(cache.cacheKey("m", bytes("{\"model\":\"m\"}")));
+    }
+
+    @Test
+    void storesCompressedResponsesAndEvictsLeastRecentlyUsed() {
+        ResponseCacheConfig config = new ResponseCacheConfig();
+        config.setMaxBytes(400);
+        ResponseCache cache = new ResponseCache(config);
+        byte[] body = bytes("data: {\"choices\":[{\"delta\":{\"content\":\"hi\"}}]}\n\ndata: [DONE]\n\n");
+
+        ResponseCache.Recorder first = cache.recorder("a", "text/event-stream");
+        first.append(DefaultDataBufferFactory.sharedInstance.wrap(body));
+        first.commit();
+        ResponseCache.CachedResponse cached = cache.get("a");
+        assertNotNull(cached);
+        assertArrayEquals(body, cached.body());
+
+        for (String key : new String[]{"b", "c"}) {
+            ResponseCache.Recorder recorder = cache.recorder(key, "application/json");
+            recorder.append(DefaultDataBufferFactory.sharedInstance.wrap(bytes("{\"id\":\"" + key + "\"}")));
+            recorder.commit();
+        }
+        assertNull(cache.get("a"));
+        assertEquals(2, cache.stats().entries());
+    }
+
+    private static byte[] bytes(String s) {
+        return s.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,43 @@
+package com.zjsyinfo.gateway.filter;
+
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Publisher;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import reactor.core.publisher.Flux;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class ResponseChunksTest {
+
+    @Test
+    void feedsSingleBufferChunkWithoutWrapping() {
+        DataBuffer buffer = DefaultDataBufferFactory.sharedInstance.wrap("data: {}\n\n".getBytes(StandardCharsets.UTF_8));
+        Publisher<DataBuffer> chunk = Flux.just(buffer);
+        List<DataBuffer> seen = new ArrayList<>();
+
+        assertSame(chunk, ResponseChunks.peek(chunk, seen::add));
+        assertEquals(List.of(buffer), seen);
+    }
+
+    @Test
+    void wrapsOtherPublishersAndFeedsOnSubscribe() {
+        DefaultDataBufferFactory factory = DefaultDataBufferFactory.sharedInstance;
+        DataBuffer first = factory.wrap(new byte[]{'a'});
+        DataBuffer second = factory.wrap(new byte[]{'b'});
+        Publisher<DataBuffer> chunk = Flux.just(first, second);
+        List<DataBuffer> seen = new ArrayList<>();
+
+        Publisher<? extends DataBuffer> peeked = ResponseChunks.peek(chunk, seen::add);
+        assertNotSame(chunk, peeked);
+        assertEquals(0, seen.size());
+        Flux.from(peeked).blockLast();
+        assertEquals(List.of(first, second), seen);
+    }
+}
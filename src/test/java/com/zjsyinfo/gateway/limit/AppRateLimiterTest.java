@@ -0,0 +1,49 @@
+package com.zjsyinfo.gateway.limit;
+
+import com.zjsyinfo.gateway.mongo.entity.GatewayApp;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AppRateLimiterTest {
+
+    @Test
+    void rejectsRequestsBeyondRpmAndConcurrency() {
+        GatewayApp app = new GatewayApp();
+        app.setId("app-1");
+        app.setRpmLimit(3);
+        app.setMaxConcurrentStreams(2);
+        AppRateLimiter limiter = new AppRateLimiter();
+
+        AppRateLimiter.Decision first = limiter.tryAcquire(app);
+        AppRateLimiter.Decision second = limiter.tryAcquire(app);
+        assertTrue(first.allowed());
+        assertTrue(second.allowed());
+        assertEquals(AppRateLimiter.LimitType.CONCURRENT_STREAMS, limiter.tryAcquire(app).limitType());
+
+        limiter.release(first);
+        assertTrue(limiter.tryAcquire(app).allowed());
+        limiter.release(second);
+        AppRateLimiter.Decision rejected = limiter.tryAcquire(app);
+        assertEquals(AppRateLimiter.LimitType.REQUESTS, rejected.limitType());
+        assertTrue(rejected.retryAfterSeconds() >= 1);
+    }
+
+    @Test
+    void debitsTokensAfterTheFact() {
+        GatewayApp app = new GatewayApp();
+        app.setId("app-2");
+        app.setTpmLimit(1000);
+        AppRateLimiter limiter = new AppRateLimiter();
+
+        assertTrue(limiter.tryAcquire(app).allowed());
+        limiter.debitTokens(app, 1500);
+        AppRateLimiter.Decision rejected = limiter.tryAcquire(app);
+        assertFalse(rejected.allowed());
+        assertEquals(AppRateLimiter.LimitType.TOKENS, rejected.limitType());
+        // 透支 500 个 Token，按 1000 TPM 恢复约需 30 秒
+        assertTrue(rejected.retryAfterSeconds() >= 29 && rejected.retryAfterSeconds() <= 31);
+    }
+}
@@ -0,0 +1,48 @@
+package com.zjsyinfo.gateway.limit;
+
+import com.zjsyinfo.gateway.config.RetryConfig;
+import com.zjsyinfo.gateway.mongo.entity.GatewayApp;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RetryBudgetTest {
+
+    @Test
+    void limitsRetriesToRatioOfRequests() {
+        RetryConfig config = new RetryConfig();
+        config.setBudgetRatio(0.1);
+        config.setBudgetMaxTokens(2);
+        GatewayApp app = new GatewayApp();
+        app.setId("app-1");
+        RetryBudget budget = new RetryBudget(config);
+
+        // 初始额度用尽后，每 10 个请求才允许一次重试
+        assertTrue(budget.tryWithdraw(app));
+        assertTrue(budget.tryWithdraw(app));
+        assertFalse(budget.tryWithdraw(app));
+        for (int i = 0; i < 9; i++) {
+            budget.deposit(app);
+        }
+        assertFalse(budget.tryWithdraw(app));
+        budget.deposit(app);
+        assertTrue(budget.tryWithdraw(app));
+    }
+
+    @Test
+    void capsAccumulatedBudget() {
+        RetryConfig config = new RetryConfig();
+        config.setBudgetRatio(0.5);
+        config.setBudgetMaxTokens(1);
+        GatewayApp app = new GatewayApp();
+        app.setId("app-2");
+        RetryBudget budget = new RetryBudget(config);
+
+        for (int i = 0; i < 100; i++) {
+            budget.deposit(app);
+        }
+        assertTrue(budget.tryWithdraw(app));
+        assertFalse(budget.tryWithdraw(app));
+    }
+}
@@ -0,0 +1,55 @@
+package com.zjsyinfo.gateway.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LlmMetricsTest {
+
+    @Test
+    void recordsStreamLatenciesPerTagSet() throws InterruptedException {
+        MeterRegistry registry = new SimpleMeterRegistry();
+        LlmMetrics metrics = new LlmMetrics(registry);
+
+        LlmMetrics.StreamObservation observation = metrics.startStream("m", "http://b1", null,
+                System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(50));
+        assertEquals(1.0, registry.get("gateway.llm.streams.in.flight").tag("app", "unknown").gauge().value());
+        observation.onChunk();
+        Thread.sleep(20);
+        observation.onChunk();
+        observation.onChunk();
+        observation.finish(30);
+
+        assertEquals(0.0, registry.get("gateway.llm.streams.in.flight").gauge().value());
+        assertTrue(registry.get("gateway.llm.time.to.first.token").timer().totalTime(TimeUnit.MILLISECONDS) >= 50);
+        assertEquals(2, registry.get("gateway.llm.inter.chunk.latency").tag("model", "m").timer().count());
+        assertEquals(1, registry.get("gateway.llm.output.tokens.per.second").summary().count());
+
+        metrics.startStream("m", "http://b2", "app-1", System.nanoTime()).finish(null);
+        assertEquals(2, registry.find("gateway.llm.streams.in.flight").gauges().size());
+    }
+
+    @Test
+    void estimatesSavedTokensForCancelledStreams() {
+        MeterRegistry registry = new SimpleMeterRegistry();
+        LlmMetrics metrics = new LlmMetrics(registry);
+
+        metrics.startStream("m", "http://b1", "app-1", System.nanoTime()).finish(100);
+        metrics.startStream("m", "http://b1", "app-1", System.nanoTime()).finish(300);
+        LlmMetrics.StreamObservation cancelled = metrics.startStream("m", "http://b1", "app-1", System.nanoTime());
+        cancelled.onChunk();
+        cancelled.cancel(50);
+
+        // 已完成流平均输出 200 个 token，取消前生成 50 个，估算节省 150 个
+        assertEquals(0.0, registry.get("gateway.llm.streams.in.flight").gauge().value());
+        assertEquals(1.0, registry.get("gateway.llm.streams.cancelled").functionCounter().count());
+        assertEquals(50.0, registry.get("gateway.llm.cancelled.generated.tokens").functionCounter().count());
+        assertEquals(150.0, registry.get("gateway.llm.cancelled.saved.tokens").functionCounter().count());
+        assertEquals(0.75, registry.get("gateway.llm.cancelled.saved.ratio").gauge().value(), 1e-9);
+    }
+}
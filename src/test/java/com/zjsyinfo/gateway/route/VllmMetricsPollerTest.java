@@ -0,0 +1,91 @@
+package com.zjsyinfo.gateway.route;
+
+import com.zjsyinfo.gateway.config.GatewayConfig;
+import com.zjsyinfo.gateway.config.HealthCheckConfig;
+import com.zjsyinfo.gateway.config.RoutingConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * 使用本地桩服务输出合成的 vLLM 指标，验证负载采集与 LEAST_LOAD 选择
+ */
+class VllmMetricsPollerTest {
+    private static final String BUSY_METRICS = """
+            # HELP vllm:num_requests_waiting Number of requests waiting to be processed.
+            # TYPE vllm:num_requests_waiting gauge
+            vllm:num_requests_waiting{engine="0",model_name="Qwen3-32B"} 12.0
+            vllm:num_requests_running{engine="0",model_name="Qwen3-32B"} 48.0
+            vllm:gpu_cache_usage_perc{engine="0",model_name="Qwen3-32B"} 0.93
+            """;
+    private static final String IDLE_METRICS = """
+            vllm:num_requests_waiting{engine="0",model_name="Qwen3-32B"} 0.0
+            vllm:num_requests_running{engine="0",model_name="Qwen3-32B"} 3.0
+            vllm:kv_cache_usage_perc{engine="0",model_name="Qwen3-32B"} 0.2
+            """;
+
+    private DisposableServer stub;
+    private BackendRegistry backendRegistry;
+    private RoutingConfig routingConfig;
+
+    @BeforeEach
+    void setUp() {
+        stub = HttpServer.create()
+                .host("127.0.0.1")
+                .port(0)
+                .route(routes -> routes
+                        .get("/busy/metrics", (request, response) -> response.sendString(Mono.just(BUSY_METRICS)))
+                        .get("/idle/metrics", (request, response) -> response.sendString(Mono.just(IDLE_METRICS))))
+                .bindNow();
+
+        String base = "http://127.0.0.1:" + stub.port();
+        Map<String, String> mapping = new LinkedHashMap<>();
+        mapping.put("busy", base + "/busy");
+        mapping.put("idle", base + "/idle");
+        GatewayConfig.BackendConfig busy = new GatewayConfig.BackendConfig();
+        busy.setUrl(base + "/busy");
+        GatewayConfig.BackendConfig idle = new GatewayConfig.BackendConfig();
+        idle.setUrl(base + "/idle");
+
+        GatewayConfig gatewayConfig = new GatewayConfig();
+        gatewayConfig.setModelMapping(mapping);
+        gatewayConfig.setModelPools(Map.of("Qwen3-32B", List.of(busy, idle)));
+        routingConfig = new RoutingConfig();
+        routingConfig.setStrategy(RoutingConfig.Strategy.LEAST_LOAD);
+        backendRegistry = new BackendRegistry(gatewayConfig, routingConfig, new HealthCheckConfig());
+        backendRegistry.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        stub.disposeNow();
+    }
+
+    @Test
+    void scrapesLoadAndRoutesToLeastPredictedDelay() {
+        new VllmMetricsPoller(backendRegistry, routingConfig, WebClient.builder()).poll();
+
+        Backend busy = backendRegistry.getPool("busy").getBackends().get(0);
+        Backend idle = backendRegistry.getPool("idle").getBackends().get(0);
+        assertEquals(12.0, busy.getLoadSnapshot().waiting());
+        assertEquals(48.0, busy.getLoadSnapshot().running());
+        assertEquals(0.93, busy.getLoadSnapshot().kvCacheUsage());
+        assertEquals(0.2, idle.getLoadSnapshot().kvCacheUsage());
+
+        ModelPool pool = backendRegistry.getPool("Qwen3-32B");
+        for (int i = 0; i < 20; i++) {
+            assertSame(idle, backendRegistry.choose(pool));
+        }
+    }
+}
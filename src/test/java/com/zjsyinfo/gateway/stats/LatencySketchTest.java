@@ -0,0 +1,46 @@
+package com.zjsyinfo.gateway.stats;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LatencySketchTest {
+
+    @Test
+    void quantilesStayWithinRelativeError() {
+        LatencySketch sketch = new LatencySketch();
+        assertNull(sketch.quantile(0.5));
+        for (long millis = 1; millis <= 10000; millis++) {
+            sketch.add(millis);
+        }
+        assertEquals(10000, sketch.getCount());
+        assertWithin(5000, sketch.quantile(0.5));
+        assertWithin(9900, sketch.quantile(0.99));
+        assertWithin(1, sketch.quantile(0.0));
+    }
+
+    @Test
+    void mergesPersistedBins() {
+        LatencySketch first = new LatencySketch();
+        LatencySketch second = new LatencySketch();
+        for (int i = 0; i < 90; i++) {
+            first.add(100);
+        }
+        for (int i = 0; i < 10; i++) {
+            second.add(2000);
+        }
+        LatencySketch merged = new LatencySketch();
+        merged.merge(first.bins(), first.binCounts());
+        merged.merge(second.bins(), second.binCounts());
+        assertEquals(100, merged.getCount());
+        assertWithin(100, merged.quantile(0.9));
+        assertWithin(2000, merged.quantile(0.95));
+    }
+
+    private static void assertWithin(long expected, Long actual) {
+        assertTrue(Math.abs(actual - expected) <= Math.max(1, expected * 0.04),
+                () -> "expected ~" + expected + " but was " + actual);
+    }
+}
@@ -0,0 +1,82 @@
+package com.zjsyinfo.gateway.stats;
+
+import com.zjsyinfo.gateway.mongo.entity.GatewayUsageRollup;
+import com.zjsyinfo.gateway.mongo.service.GatewayUsageRollupService;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class UsageStatsServiceTest {
+    private static final ZonedDateTime DAY = LocalDate.of(2026, 1, 10).atStartOfDay(ZoneId.systemDefault());
+
+    private final List<GatewayUsageRollup> rows = new ArrayList<>();
+    private final GatewayUsageRollupService rollupService = mock(GatewayUsageRollupService.class);
+
+    UsageStatsServiceTest() {
+        when(rollupService.listRollups(anyString(), any(), any(), isNull(), isNull())).thenAnswer(invocation -> {
+            String granularity = invocation.getArgument(0);
+            Date from = invocation.getArgument(1);
+            Date to = invocation.getArgument(2);
+            return rows.stream()
+                    .filter(row -> row.getGranularity().equals(granularity)
+                            && !row.getBucketTime().before(from) && row.getBucketTime().before(to))
+                    .toList();
+        });
+        when(rollupService.getLatest(anyString())).thenAnswer(invocation -> rows.stream()
+                .filter(row -> row.getGranularity().equals(invocation.getArgument(0)))
+                .max(Comparator.comparing(GatewayUsageRollup::getBucketTime))
+                .orElse(null));
+    }
+
+    @Test
+    void fillsHoursNotYetCompactedFromMinuteRollups() {
+        // 09:00、10:00 已压缩为小时汇总（当天的天汇总只含这两小时），11:00 之后只有分钟汇总
+        rollup(UsageRollupAggregator.HOUR, DAY.plusHours(9), 5);
+        rollup(UsageRollupAggregator.HOUR, DAY.plusHours(10), 5);
+        rollup(UsageRollupAggregator.DAY, DAY, 10);
+        rollup(UsageRollupAggregator.MINUTE, DAY.plusHours(10).plusMinutes(30), 3);
+        rollup(UsageRollupAggregator.MINUTE, DAY.plusHours(11).plusMinutes(5), 2);
+        rollup(UsageRollupAggregator.MINUTE, DAY.plusHours(11).plusMinutes(30), 2);
+        UsageStatsService service = new UsageStatsService(rollupService);
+
+        List<UsageStatsService.UsagePoint> hours = service.usage(UsageRollupAggregator.HOUR,
+                date(DAY.plusHours(8)), date(DAY.plusHours(12)), null, null);
+        assertEquals(List.of(date(DAY.plusHours(9)), date(DAY.plusHours(10)), date(DAY.plusHours(11))),
+                hours.stream().map(UsageStatsService.UsagePoint::bucketTime).toList());
+        assertEquals(List.of(5L, 5L, 4L), hours.stream().map(UsageStatsService.UsagePoint::requests).toList());
+
+        List<UsageStatsService.UsagePoint> days = service.usage(UsageRollupAggregator.DAY,
+                date(DAY), date(DAY.plusDays(1)), null, null);
+        assertEquals(1, days.size());
+        assertEquals(date(DAY), days.get(0).bucketTime());
+        assertEquals(14, days.get(0).requests());
+    }
+
+    private void rollup(String granularity, ZonedDateTime bucket, long requests) {
+        GatewayUsageRollup rollup = new GatewayUsageRollup();
+        rollup.setGranularity(granularity);
+        rollup.setBucketTime(date(bucket));
+        rollup.setAppId("app");
+        rollup.setModel("m");
+        rollup.setStatus("success");
+        rollup.setRequests(requests);
+        rows.add(rollup);
+    }
+
+    private static Date date(ZonedDateTime time) {
+        return Date.from(time.toInstant());
+    }
+}
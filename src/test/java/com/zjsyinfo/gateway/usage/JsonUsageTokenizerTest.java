@@ -0,0 +1,33 @@
+package com.zjsyinfo.gateway.usage;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class JsonUsageTokenizerTest {
+
+    @Test
+    void extractsTopLevelUsageSplitAtEveryByte() {
+        String body = "{\"id\":\"cmpl-1\",\"choices\":[{\"index\":0,\"message\":{\"role\":\"assistant\","
+                + "\"content\":\"{\\\"usage\\\":{\\\"total_tokens\\\":1}}\"},\"usage\":{\"total_tokens\":2}}],"
+                + "\"usage\": {\"prompt_tokens\": 1024, \"total_tokens\": 1536,"
+                + " \"prompt_tokens_details\": {\"cached_tokens\": 7}, \"completion_tokens\": 512}}";
+        JsonUsageTokenizer tokenizer = new JsonUsageTokenizer();
+        for (byte b : body.getBytes(StandardCharsets.UTF_8)) {
+            tokenizer.feed(b);
+        }
+        assertEquals(new TokenUsage(1024, 512, 1536), tokenizer.getUsage());
+    }
+
+    @Test
+    void ignoresNullUsage() {
+        JsonUsageTokenizer tokenizer = new JsonUsageTokenizer();
+        for (byte b : "{\"choices\":[],\"usage\":null}".getBytes(StandardCharsets.UTF_8)) {
+            tokenizer.feed(b);
+        }
+        assertNull(tokenizer.getUsage());
+    }
+}
@@ -0,0 +1,64 @@
+package com.zjsyinfo.gateway.usage;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class SseUsageScannerTest {
+    private static final String STREAM =
+            "data: {\"id\":\"1\",\"choices\":[{\"delta\":{\"content\":\"\\\"usage\\\": {\"}}],\"usage\":null}\n\n"
+            + "data: {\"id\":\"1\",\"choices\":[{\"delta\":{\"content\":\"usage\"}}]}\n\n"
+            + "data: {\"id\":\"1\",\"choices\":[],\"usage\":{\"prompt_tokens\":12,\"total_tokens\":40,\"completion_tokens\":28}}\n\n"
+            + "data: [DONE]\n\n";
+
+    @Test
+    void extractsUsageFromLastEvent() {
+        SseUsageScanner scanner = new SseUsageScanner();
+        scanner.feed(buffer(STREAM));
+        assertEquals(new TokenUsage(12, 28, 40), scanner.getUsage());
+    }
+
+    @Test
+    void extractsUsageAcrossChunkSplits() {
+        byte[] bytes = STREAM.getBytes(StandardCharsets.UTF_8);
+        for (int size = 1; size < 16; size++) {
+            SseUsageScanner scanner = new SseUsageScanner();
+            for (int i = 0; i < bytes.length; i += size) {
+                scanner.feed(DefaultDataBufferFactory.sharedInstance.wrap(ByteBuffer.wrap(bytes, i, Math.min(size, bytes.length - i))));
+            }
+            assertEquals(new TokenUsage(12, 28, 40), scanner.getUsage(), "chunk size " + size);
+        }
+    }
+
+    @Test
+    void ignoresUsageInsideContentAndNonDataLines() {
+        SseUsageScanner scanner = new SseUsageScanner();
+        scanner.feed(buffer(": {\"usage\":{\"total_tokens\":1}}\n"
+                + "data: {\"choices\":[{\"delta\":{\"content\":\"\\\"usage\\\":{\\\"total_tokens\\\":2}\"}}]}\n\n"));
+        assertNull(scanner.getUsage());
+    }
+
+    @Test
+    void estimatesPartialUsageFromEventsWhenCancelled() {
+        SseUsageScanner scanner = new SseUsageScanner();
+        scanner.feed(buffer("data: {\"choices\":[{\"delta\":{\"content\":\"a\"}}]}\n\n"
+                + "data: {\"choices\":[{\"delta\":{\"content\":\"b\"}}]}\n\n"
+                + "data: {\"choices\":[{\"delta\":{\"con"));
+        assertNull(scanner.getUsage());
+        assertEquals(new TokenUsage(null, 3, 3), scanner.getPartialUsage());
+
+        SseUsageScanner completed = new SseUsageScanner();
+        completed.feed(buffer(STREAM));
+        assertEquals(new TokenUsage(12, 28, 40), completed.getPartialUsage());
+    }
+
+    private static DataBuffer buffer(String text) {
+        return DefaultDataBufferFactory.sharedInstance.wrap(text.getBytes(StandardCharsets.UTF_8));
+    }
+}